@@ -0,0 +1,133 @@
+package com.erp.base.config.init;
+
+import com.erp.base.model.entity.RoleModel;
+import com.erp.base.service.CacheService;
+import com.erp.base.tool.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 啟動時預熱緩存，各項目並行載入，角色相關的等角色載入後再展開
+ * 預熱完成(或超時)前InitializationRunner不返回，應用程式在這之前維持REFUSING_TRAFFIC，
+ * /actuator/health/readiness回應503，部署的readinessProbe不會把流量導進來
+ * 超時只記log，剩下的在背景繼續，沒預熱到的key照常在第一次讀取時載入
+ */
+@Component
+public class CacheWarmUp {
+    LogFactory LOG = new LogFactory(CacheWarmUp.class);
+    private final CacheService cacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int threads;
+    private final long timeoutMillis;
+    private final int clientCount;
+    private final Map<String, Long> stageMillis = new ConcurrentHashMap<>();
+    private volatile String status = "PENDING";
+    private volatile long totalMillis = -1;
+
+    @Autowired
+    public CacheWarmUp(CacheService cacheService, ApplicationEventPublisher eventPublisher,
+                       @Value("${cache.warmup.threads:4}") int threads,
+                       @Value("${cache.warmup.timeout:30000}") long timeoutMillis,
+                       @Value("${cache.warmup.client-count:200}") int clientCount) {
+        this.cacheService = cacheService;
+        this.eventPublisher = eventPublisher;
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        this.clientCount = clientCount;
+    }
+
+    /**
+     * @return 是否在時限內全部完成
+     */
+    public boolean warmUp() {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        status = "RUNNING";
+        stageMillis.clear();
+        long start = System.currentTimeMillis();
+        AtomicInteger index = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<Map<Long, RoleModel>> roles = CompletableFuture.supplyAsync(() -> stage("roles", cacheService::getRole), executor);
+            List<CompletableFuture<?>> stages = new ArrayList<>();
+            stages.add(roles);
+            stages.add(CompletableFuture.runAsync(() -> stage("permissions", cacheService::getPermissionMap), executor));
+            stages.add(CompletableFuture.runAsync(() -> stage("routeTable", cacheService::reloadRouteTable), executor));
+            stages.add(CompletableFuture.runAsync(() -> stage("menuTree", cacheService::findMenuTree), executor));
+            stages.add(CompletableFuture.runAsync(() -> stage("departments", cacheService::warmDepartments), executor));
+            stages.add(CompletableFuture.runAsync(() -> stage("clients", () -> cacheService.warmClients(clientCount)), executor));
+            //每個角色的權限和選單樹
+            stages.add(roles.thenComposeAsync(map -> {
+                long roleStart = System.currentTimeMillis();
+                return CompletableFuture.allOf(map.keySet().stream()
+                                .map(id -> CompletableFuture.runAsync(() -> {
+                                    cacheService.getRolePermission(id);
+                                    cacheService.getMenuTree(List.of(id));
+                                }, executor))
+                                .toArray(CompletableFuture[]::new))
+                        .thenRun(() -> stageMillis.put("roleDetails", System.currentTimeMillis() - roleStart));
+            }, executor));
+
+            CompletableFuture.allOf(stages.toArray(CompletableFuture[]::new)).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            status = "DONE";
+            return true;
+        } catch (TimeoutException e) {
+            status = "TIMEOUT";
+            LOG.warn("cache warm up timeout after {0}ms, finished: {1}", timeoutMillis, stageMillis.keySet());
+            return false;
+        } catch (ExecutionException e) {
+            status = "FAILED";
+            LOG.error("cache warm up error: {0}", e.getCause().getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "FAILED";
+            return false;
+        } finally {
+            totalMillis = System.currentTimeMillis() - start;
+            executor.shutdown();
+            LOG.info("cache warm up {0} in {1}ms, stages: {2}", status, totalMillis, stageMillis);
+        }
+    }
+
+    /**
+     * 預熱狀態、總耗時和各項目耗時(ms)
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("status", status);
+        map.put("totalMillis", totalMillis);
+        map.put("stages", Collections.unmodifiableMap(new LinkedHashMap<>(stageMillis)));
+        return map;
+    }
+
+    private <T> T stage(String name, Supplier<T> task) {
+        long start = System.currentTimeMillis();
+        T result = task.get();
+        stageMillis.put(name, System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private void stage(String name, Runnable task) {
+        stage(name, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -1,27 +1,31 @@
 package com.erp.base.config.init;
 
 import com.erp.base.model.dto.request.client.RegisterRequest;
-import com.erp.base.service.CacheService;
 import com.erp.base.service.ClientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 @Component
 public class InitializationRunner implements CommandLineRunner {
-    private final CacheService cacheService;
     private final ClientService clientService;
+    private final CacheWarmUp cacheWarmUp;
+    private final boolean warmUpEnabled;
 
     @Autowired
-    public InitializationRunner(CacheService cacheService, ClientService clientService) {
-        this.cacheService = cacheService;
+    public InitializationRunner(ClientService clientService, CacheWarmUp cacheWarmUp,
+                                @Value("${cache.warmup.enabled:true}") boolean warmUpEnabled) {
         this.clientService = clientService;
+        this.cacheWarmUp = cacheWarmUp;
+        this.warmUpEnabled = warmUpEnabled;
     }
 
     @Override
     public void run(String... args) {
         insertInitSuperAccount();
-        cacheService.refreshAllCache();//刷新所有緩存
+        //不清共用緩存，滾動部署時會把其他節點剛預熱的資料和token黑名單一起清掉；舊格式的值由CacheCodec依格式標記讀取
+        if (warmUpEnabled) cacheWarmUp.warmUp();//預熱完readiness才轉為ACCEPTING_TRAFFIC
     }
 
     /**
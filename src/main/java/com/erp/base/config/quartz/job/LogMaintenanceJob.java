@@ -0,0 +1,39 @@
+package com.erp.base.config.quartz.job;
+
+import com.erp.base.service.LogService;
+import com.erp.base.service.log.LogPartitionManager;
+import com.erp.base.tool.LogFactory;
+import lombok.NoArgsConstructor;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 每小時彙總日誌，並維護log表的分區和保留期限
+ * 先彙總再清過期資料，確保被清掉的小時都已經彙總過
+ * */
+@Component
+@NoArgsConstructor
+public class LogMaintenanceJob implements Job {
+    LogFactory LOG = new LogFactory(LogMaintenanceJob.class);
+    private LogService logService;
+    private LogPartitionManager logPartitionManager;
+
+    @Autowired
+    public void setLogService(LogService logService){
+        this.logService = logService;
+    }
+    @Autowired
+    public void setLogPartitionManager(LogPartitionManager logPartitionManager){
+        this.logPartitionManager = logPartitionManager;
+    }
+    @Override
+    public void execute(JobExecutionContext jobExecutionContext) {
+        int hours = logService.rollup();
+        Map<String, Object> result = logPartitionManager.maintain();
+        LOG.info("log maintenance done, rollup hours: {0}, partition: {1}", hours, result);
+    }
+}
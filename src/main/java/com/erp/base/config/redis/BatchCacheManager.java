@@ -0,0 +1,44 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheKey;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * CacheService用到的批次操作和統計，Redis(NearCacheManager)和純本地(LocalOnlyCacheManager)各自實作
+ */
+public interface BatchCacheManager extends CacheManager {
+    /**
+     * 批次刪除
+     */
+    void evictAll(Collection<CacheKey> keys);
+
+    /**
+     * 批次讀取同一個cacheName的key
+     * @return 有資料的key，值可能為null(緩存的null)
+     */
+    Map<CacheKey, Object> getAll(String cacheName, Collection<CacheKey> keys);
+
+    /**
+     * 批次寫入同一個cacheName的key
+     */
+    void putAll(String cacheName, Map<CacheKey, ?> values);
+
+    /**
+     * 各cacheName的命中、寫入、刪除統計
+     * @param countRedisKeys 是否統計Redis內的key數量，純本地模式忽略
+     */
+    Map<String, Object> getStats(boolean countRedisKeys);
+
+    /**
+     * 各cacheName的載入統計
+     */
+    Map<String, Object> getLoadMetrics();
+
+    /**
+     * 單一cacheName的統計計數，沒有這個cacheName時回傳null
+     */
+    CacheStats getCacheStats(String cacheName);
+}
@@ -0,0 +1,230 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheFormat;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 單一cacheName的值序列化
+ * 格式: [MAGIC][flag][原始長度(壓縮時)][內容]，flag低位為是否壓縮，其餘為CacheFormat
+ * 格式寫在資料內，改設定後舊資料照樣能讀；沒有MAGIC開頭的是舊版JDK序列化資料
+ * 超過門檻才壓縮(Deflater)，壓完沒變小就存原文
+ */
+public class CacheCodec implements RedisSerializer<Object> {
+    private static final byte MAGIC = (byte) 0xCE;
+    private static final int FLAG_COMPRESSED = 1;
+    private static final CacheFormat[] FORMATS = CacheFormat.values();
+    private static final RedisSerializer<Object> JDK = new JdkSerializationRedisSerializer();
+    private static final RedisSerializer<Object> JSON = new GenericJackson2JsonRedisSerializer();
+    private static final RedisSerializer<Object> SMILE = new SmileSerializer();
+    private final String name;
+    private final CacheFormat format;
+    private final int compressThreshold;
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder decodeCount = new LongAdder();
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+
+    public CacheCodec(String name, CacheFormat format, int compressThreshold) {
+        this.name = name;
+        this.format = format;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        long start = System.nanoTime();
+        byte[] raw = serializer(format).serialize(value);
+        if (raw == null) return null;
+        byte[] compressed = compressThreshold >= 0 && raw.length >= compressThreshold ? deflate(raw) : null;
+        byte[] result;
+        if (compressed != null && compressed.length + Integer.BYTES < raw.length) {
+            result = ByteBuffer.allocate(2 + Integer.BYTES + compressed.length)
+                    .put(MAGIC).put((byte) (format.ordinal() << 1 | FLAG_COMPRESSED)).putInt(raw.length).put(compressed).array();
+            compressedCount.increment();
+        } else {
+            result = ByteBuffer.allocate(2 + raw.length).put(MAGIC).put((byte) (format.ordinal() << 1)).put(raw).array();
+        }
+        encodeCount.increment();
+        rawBytes.add(raw.length);
+        storedBytes.add(result.length);
+        encodeNanos.add(System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+        long start = System.nanoTime();
+        try {
+            if (bytes[0] != MAGIC || bytes.length < 2) return JDK.deserialize(bytes);
+            int flag = bytes[1] & 0xFF;
+            int formatIndex = flag >>> 1;
+            if (formatIndex >= FORMATS.length) throw new SerializationException("unknown cache format: " + formatIndex);
+            byte[] raw;
+            if ((flag & FLAG_COMPRESSED) != 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+                raw = inflate(bytes, 2 + Integer.BYTES, buffer.getInt());
+            } else {
+                raw = Arrays.copyOfRange(bytes, 2, bytes.length);
+            }
+            return serializer(FORMATS[formatIndex]).deserialize(raw);
+        } finally {
+            decodeCount.increment();
+            decodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getEncodeCount() {
+        return encodeCount.sum();
+    }
+
+    public long getDecodeCount() {
+        return decodeCount.sum();
+    }
+
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    /**
+     * 寫入的原始/實際大小、壓縮比例和編解碼平均耗時
+     */
+    public Map<String, Object> getMetrics() {
+        long encoded = encodeCount.sum();
+        long decoded = decodeCount.sum();
+        long raw = rawBytes.sum();
+        long stored = storedBytes.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("format", format);
+        map.put("compressThreshold", compressThreshold);
+        map.put("encodeCount", encoded);
+        map.put("compressedCount", compressedCount.sum());
+        map.put("rawBytes", raw);
+        map.put("storedBytes", stored);
+        map.put("avgStoredBytes", encoded == 0 ? 0 : stored / encoded);
+        map.put("ratio", raw == 0 ? 1.0 : (double) stored / raw);
+        map.put("avgEncodeMicros", encoded == 0 ? 0 : encodeNanos.sum() / encoded / 1000);
+        map.put("decodeCount", decoded);
+        map.put("avgDecodeMicros", decoded == 0 ? 0 : decodeNanos.sum() / decoded / 1000);
+        return map;
+    }
+
+    private static RedisSerializer<Object> serializer(CacheFormat format) {
+        return switch (format) {
+            case JSON -> JSON;
+            case SMILE -> SMILE;
+            default -> JDK;
+        };
+    }
+
+    /**
+     * Jackson Smile，和GenericJackson2JsonRedisSerializer預設相同，每個值都帶類別資訊(@class)，取出時不用知道型別
+     * GenericJackson2JsonRedisSerializer解析型別時固定用JSON讀，不能直接換成Smile的ObjectMapper
+     */
+    private static final class SmileSerializer implements RedisSerializer<Object> {
+        private final ObjectMapper mapper;
+
+        private SmileSerializer() {
+            mapper = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+            GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+            mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        }
+
+        @Override
+        public byte[] serialize(Object value) throws SerializationException {
+            try {
+                return mapper.writeValueAsBytes(value);
+            } catch (IOException e) {
+                throw new SerializationException("cache value smile serialize error", e);
+            }
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) throws SerializationException {
+            if (bytes == null || bytes.length == 0) return null;
+            try {
+                return mapper.readValue(bytes, Object.class);
+            } catch (IOException e) {
+                throw new SerializationException("cache value smile deserialize error", e);
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int count = inflater.inflate(raw, read, length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += count;
+            }
+            if (read != length) throw new SerializationException("cache value truncated");
+            return raw;
+        } catch (DataFormatException e) {
+            throw new SerializationException("cache value inflate error", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.erp.base.config.redis;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各cacheName使用的CacheCodec，查詢序列化統計用
+ */
+public class CacheCodecRegistry {
+    private final Map<String, CacheCodec> codecs = new LinkedHashMap<>();
+
+    public CacheCodecRegistry(Collection<CacheCodec> codecs) {
+        codecs.forEach(codec -> this.codecs.put(codec.getName(), codec));
+    }
+
+    public CacheCodec get(String name) {
+        return codecs.get(name);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        codecs.forEach((name, codec) -> map.put(name, codec.getMetrics()));
+        return map;
+    }
+}
@@ -1,24 +1,54 @@
 package com.erp.base.config.redis;
 
+import com.erp.base.model.constant.cache.CacheConstant;
 import com.erp.base.model.constant.cache.CacheEnum;
+import com.erp.base.model.constant.cache.CacheFormat;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
+    @Value("${cache.near.max-size:2000}")
+    private int nearCacheMaxSize;
+    @Value("${cache.near.ttl:60}")
+    private long nearCacheTtl;//sec
+    @Value("${cache.load.lock-ttl:3000}")
+    private long loadLockTtl;//ms
+    @Value("${cache.load.stale-ttl:300}")
+    private long staleTtl;//sec
+    @Value("${cache.load.refresh-ahead-beta:1.0}")
+    private double refreshAheadBeta;
+    @Value("${cache.local.max-size:10000}")
+    private int localCacheMaxSize;
+    @Value("${cache.local.store-by-value:true}")
+    private boolean localStoreByValue;
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
@@ -38,18 +68,87 @@ public class CacheConfig {
         return template;
     }
 
+    /**
+     * 每個cacheName的序列化設定，預設值在CacheEnum
+     * 可用cache.codec.{cacheName}.format/compress-threshold覆寫
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // 使用不同的cacheName配置不同的TTL
+    public CacheCodecRegistry cacheCodecRegistry(Environment environment) {
+        List<CacheCodec> codecs = new ArrayList<>();
+        for (CacheEnum e : CacheEnum.values()) {
+            String prefix = "cache.codec." + e.getEnumName() + ".";
+            String format = environment.getProperty(prefix + "format", e.getFormat().name());
+            int threshold = environment.getProperty(prefix + "compress-threshold", Integer.class, e.getCompressThreshold());
+            codecs.add(new CacheCodec(e.getEnumName(), CacheFormat.valueOf(format.toUpperCase(Locale.ROOT)), threshold));
+        }
+        return new CacheCodecRegistry(codecs);
+    }
+
+    /**
+     * 緩存載入的跨節點鎖和背景刷新，背景刷新時用唯讀交易
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "redis", matchIfMissing = true)
+    public CacheLoadSupport cacheLoadSupport(RedisConnectionFactory connectionFactory, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        PlatformTransactionManager manager = transactionManager.getIfAvailable();
+        TransactionTemplate transactionTemplate = null;
+        if (manager != null) {
+            transactionTemplate = new TransactionTemplate(manager);
+            transactionTemplate.setReadOnly(true);
+        }
+        return new CacheLoadSupport(new StringRedisTemplate(connectionFactory), transactionTemplate, loadLockTtl, staleTtl * 1000, refreshAheadBeta);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "redis", matchIfMissing = true)
+    public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheCodecRegistry cacheCodecRegistry, CacheLoadSupport cacheLoadSupport) {
+        // 使用不同的cacheName配置不同的TTL和序列化
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        //設置TTL
         for (CacheEnum e : CacheEnum.values()) {
-            cacheConfigurations.put(e.getEnumName(), RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(e.getTtl())));
+            cacheConfigurations.put(e.getEnumName(), RedisCacheConfiguration.defaultCacheConfig()
+                    .entryTtl(Duration.ofMinutes(e.getTtl()))
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheCodecRegistry.get(e.getEnumName()))));
         }
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig())
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        //Redis前面再加一層JVM內緩存，省掉驗證流程每次請求的網路來回
+        return new NearCacheManager(redisCacheManager, nearCacheMaxSize, nearCacheTtl * 1000, cacheLoadSupport);
+    }
+
+    /**
+     * 純本地緩存(cache.mode=local)，單節點部署和測試用，TTL同CacheEnum，每個cacheName上限cache.local.max-size筆
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "local")
+    public LocalOnlyCacheManager localOnlyCacheManager(CacheCodecRegistry cacheCodecRegistry) {
+        Map<String, Long> ttlMillis = new HashMap<>();
+        for (CacheEnum e : CacheEnum.values()) {
+            ttlMillis.put(e.getEnumName(), Duration.ofMinutes(e.getTtl()).toMillis());
+        }
+        return new LocalOnlyCacheManager(ttlMillis, Duration.ofMinutes(60).toMillis(), localCacheMaxSize, localStoreByValue, cacheCodecRegistry);
+    }
+
+    /**
+     * 各cacheName的命中、寫入和序列化統計註冊成Micrometer指標
+     */
+    @Bean
+    public MeterBinder cacheMeterBinder(BatchCacheManager cacheManager, CacheCodecRegistry cacheCodecRegistry) {
+        return new CacheMeterBinder(cacheManager, cacheCodecRegistry);
+    }
+
+    /**
+     * 訂閱緩存失效通知，CacheService刷新緩存時會發布，讓所有節點清掉本地層
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "redis", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationContainer(RedisConnectionFactory connectionFactory, List<LocalCacheInvalidator> invalidators) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(new CacheInvalidationListener(invalidators), new ChannelTopic(CacheConstant.INVALIDATE_CHANNEL));
+        return container;
     }
 }
@@ -0,0 +1,53 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.tool.LogFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 接收其他節點刷新緩存的通知，清掉本節點的本地緩存層
+ * 訊息格式為'nodeId message'，自己發出的通知在發布時已經處理過，這邊略過
+ * 連線中斷後重新訂閱時，斷線期間的通知都收不到，本地緩存全部清掉(黑名單過濾器會從Redis重建)
+ */
+public class CacheInvalidationListener implements MessageListener, SubscriptionListener {
+    LogFactory LOG = new LogFactory(CacheInvalidationListener.class);
+    public static final String NODE_ID = UUID.randomUUID().toString();
+    private static final String SEPARATOR = " ";
+    private final List<LocalCacheInvalidator> invalidators;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public CacheInvalidationListener(List<LocalCacheInvalidator> invalidators) {
+        this.invalidators = LocalCacheInvalidator.ordered(invalidators);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(SEPARATOR, 2);
+        if (parts.length != 2 || NODE_ID.equals(parts[0])) return;
+        LOG.debug("cache invalidate from node [{0}]: {1}", parts[0], parts[1]);
+        invalidators.forEach(invalidator -> invalidator.invalidateLocal(parts[1]));
+    }
+
+    /**
+     * 第一次訂閱是啟動時，之後再收到表示斷線重連
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        if (!subscribed.compareAndSet(false, true)) {
+            LOG.warn("cache invalidation channel resubscribed, clear local caches");
+            invalidators.forEach(invalidator -> invalidator.invalidateLocal(CacheConstant.ALL));
+        }
+    }
+
+    public static String wrap(String message) {
+        return NODE_ID + SEPARATOR + message;
+    }
+}
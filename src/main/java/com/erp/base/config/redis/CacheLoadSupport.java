@@ -0,0 +1,196 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.tool.LogFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NearCache載入資料時共用的工具
+ * 跨節點的短鎖(SET NX PX)、背景提前刷新的執行緒池，背景載入時開唯讀交易(懶加載需要session)
+ * 多個key的批次讀取(MGET)、寫入(pipeline SET)和刪除(UNLINK)，一次來回處理完
+ */
+public class CacheLoadSupport {
+    LogFactory LOG = new LogFactory(CacheLoadSupport.class);
+    private static final String LOCK_PREFIX = "lock::";
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final long lockMillis;
+    private final long staleMillis;
+    private final double beta;
+    private volatile boolean unlinkSupported = true;
+
+    /**
+     * @param lockMillis 跨節點載入鎖的時間，也是等待其他節點載入的上限，小於等於0不上鎖
+     * @param staleMillis 過期資料保留時間，載入中的key先返回舊值
+     * @param beta 提前刷新的積極程度(XFetch)，小於等於0不提前刷新
+     */
+    public CacheLoadSupport(StringRedisTemplate redisTemplate, TransactionTemplate transactionTemplate, long lockMillis, long staleMillis, double beta) {
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.lockMillis = lockMillis;
+        this.staleMillis = staleMillis;
+        this.beta = beta;
+        AtomicInteger index = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(1, 2, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(100), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * @return 取得鎖時返回token，用於解鎖；沒取得返回null
+     */
+    public String tryLock(String cacheName, Object key) {
+        if (lockMillis <= 0 || redisTemplate == null) return UUID.randomUUID().toString();
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, Duration.ofMillis(lockMillis));
+            return Boolean.TRUE.equals(locked) ? token : null;
+        } catch (RuntimeException e) {
+            //Redis有問題就不上鎖，直接載入
+            LOG.warn("cache load lock error: {0}", e.getMessage());
+            return token;
+        }
+    }
+
+    public void unlock(String cacheName, Object key, String token) {
+        if (lockMillis <= 0 || redisTemplate == null) return;
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey(cacheName, key)), token);
+        } catch (RuntimeException e) {
+            LOG.warn("cache load unlock error: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return 和keys順序相同，不存在的為null
+     */
+    public List<byte[]> mGet(byte[][] keys) {
+        if (redisTemplate == null || keys.length == 0) return Collections.nCopies(keys.length, null);
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+        return values == null ? Collections.nCopies(keys.length, null) : values;
+    }
+
+    /**
+     * 批次寫入，pipeline送出，key和value都是已序列化的
+     * @param ttlMillis 小於等於0不設過期
+     */
+    public void mSet(Map<byte[], byte[]> entries, long ttlMillis) {
+        if (redisTemplate == null || entries.isEmpty()) return;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> {
+                if (ttlMillis > 0) {
+                    connection.stringCommands().set(key, value, Expiration.milliseconds(ttlMillis), RedisStringCommands.SetOption.upsert());
+                } else {
+                    connection.stringCommands().set(key, value);
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * UNLINK在Redis背景釋放記憶體，舊版Redis不支援時改用DEL
+     */
+    public void unlink(byte[][] keys) {
+        if (redisTemplate == null || keys.length == 0) return;
+        if (unlinkSupported) {
+            try {
+                redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().unlink(keys));
+                return;
+            } catch (RuntimeException e) {
+                LOG.warn("redis unlink not supported, use del: {0}", e.getMessage());
+                unlinkSupported = false;
+            }
+        }
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(keys));
+    }
+
+    /**
+     * SCAN統計cacheName下的key數量
+     */
+    public long countKeys(String cacheName) {
+        if (redisTemplate == null) return 0;
+        long count = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(cacheName + "::*").count(1000).build())) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public <T> T callInTransaction(Callable<T> loader) throws Exception {
+        if (transactionTemplate == null) return loader.call();
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return loader.call();
+                } catch (Exception e) {
+                    throw new LoaderException(e);
+                }
+            });
+        } catch (LoaderException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    public void submitRefresh(Runnable task) {
+        refreshExecutor.execute(task);
+    }
+
+    public long getLockMillis() {
+        return lockMillis;
+    }
+
+    public long getStaleMillis() {
+        return staleMillis;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static String lockKey(String cacheName, Object key) {
+        return LOCK_PREFIX + cacheName + "::" + key;
+    }
+
+    private static class LoaderException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        LoaderException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheEnum;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * CacheStats和CacheCodec的計數註冊到Micrometer，/actuator/metrics或監控後端直接讀，不用輪詢統計API
+ * 名稱沿用Micrometer內建緩存指標(cache.gets/puts/evictions)，以cache標籤區分cacheName
+ */
+public class CacheMeterBinder implements MeterBinder {
+    private final BatchCacheManager cacheManager;
+    private final CacheCodecRegistry cacheCodecRegistry;
+
+    public CacheMeterBinder(BatchCacheManager cacheManager, CacheCodecRegistry cacheCodecRegistry) {
+        this.cacheManager = cacheManager;
+        this.cacheCodecRegistry = cacheCodecRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CacheEnum e : CacheEnum.values()) {
+            String name = e.getEnumName();
+            Tags tags = Tags.of("cache", name);
+            CacheStats stats = cacheManager.getCacheStats(name);
+            if (stats != null) bindStats(registry, tags, stats);
+            CacheCodec codec = cacheCodecRegistry.get(name);
+            if (codec != null) bindCodec(registry, tags, codec);
+        }
+    }
+
+    private static void bindStats(MeterRegistry registry, Tags tags, CacheStats stats) {
+        counter(registry, "cache.gets", tags.and("result", "hit", "tier", "local"), stats, CacheStats::localHitCount, "本地層命中");
+        counter(registry, "cache.gets", tags.and("result", "hit", "tier", "redis"), stats, CacheStats::redisHitCount, "Redis命中");
+        counter(registry, "cache.gets", tags.and("result", "miss", "tier", "none"), stats, CacheStats::missCount, "未命中");
+        counter(registry, "cache.puts", tags, stats, CacheStats::writeCount, "寫入次數");
+        FunctionCounter.builder("cache.puts.size", stats, CacheStats::writeBytes)
+                .tags(tags).baseUnit("bytes").description("寫入的序列化大小").register(registry);
+        counter(registry, "cache.evictions", tags, stats, CacheStats::evictCount, "刪除次數");
+        counter(registry, "cache.clears", tags, stats, CacheStats::clearCount, "整個cacheName清除次數");
+    }
+
+    private static void bindCodec(MeterRegistry registry, Tags tags, CacheCodec codec) {
+        FunctionCounter.builder("cache.codec.size", codec, CacheCodec::getRawBytes)
+                .tags(tags.and("stage", "raw")).baseUnit("bytes").description("壓縮前大小").register(registry);
+        FunctionCounter.builder("cache.codec.size", codec, CacheCodec::getStoredBytes)
+                .tags(tags.and("stage", "stored")).baseUnit("bytes").description("實際寫入大小").register(registry);
+        counter(registry, "cache.codec.compressed", tags, codec, CacheCodec::getCompressedCount, "有壓縮的寫入次數");
+        FunctionTimer.builder("cache.codec.encode", codec, CacheCodec::getEncodeCount, CacheCodec::getEncodeNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).description("序列化").register(registry);
+        FunctionTimer.builder("cache.codec.decode", codec, CacheCodec::getDecodeCount, CacheCodec::getDecodeNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).description("反序列化").register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, Tags tags, T source, ToDoubleFunction<T> function, String description) {
+        FunctionCounter.builder(name, source, function).tags(tags).description(description).register(registry);
+    }
+}
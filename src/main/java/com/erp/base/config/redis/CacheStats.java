@@ -0,0 +1,165 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.tool.LatencyHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 單一cacheName的讀寫統計，依key前綴分組
+ * 前綴為最後一個'_'之前(client_5 -> client_)，沒有'_'的純英文key(roles、systemUser)自成一組，
+ * 其他(token摘要等)和超過上限的前綴歸到'*'，避免組數無限增加
+ */
+public class CacheStats {
+    static final String OTHER_PREFIX = "*";
+    private static final int MAX_PREFIXES = 64;
+    private final Map<String, Counter> prefixes = new ConcurrentHashMap<>();
+    private final LongAdder clearCount = new LongAdder();
+
+    public void localHit(Object key) {
+        counter(key).localHit.increment();
+    }
+
+    public void redisHit(Object key) {
+        counter(key).redisHit.increment();
+    }
+
+    public void miss(Object key) {
+        counter(key).miss.increment();
+    }
+
+    public void load(Object key, long millis, int bytes) {
+        Counter counter = counter(key);
+        counter.loadTime.record(millis);
+        counter.writeCount.increment();
+        counter.writeBytes.add(bytes);
+    }
+
+    public void put(Object key, int bytes) {
+        Counter counter = counter(key);
+        counter.writeCount.increment();
+        counter.writeBytes.add(bytes);
+    }
+
+    public void evict(Object key) {
+        counter(key).evictCount.increment();
+    }
+
+    public void clear() {
+        clearCount.increment();
+    }
+
+    /**
+     * 全部加總和各前綴的命中(本地/Redis)、未命中、命中率、載入耗時分佈、寫入次數和byte、刪除次數
+     */
+    public Map<String, Object> snapshot() {
+        Counter total = new Counter();
+        Map<String, Object> byPrefix = new TreeMap<>();
+        prefixes.forEach((prefix, counter) -> {
+            byPrefix.put(prefix, counter.snapshot());
+            total.add(counter);
+        });
+        Map<String, Object> map = new LinkedHashMap<>(total.snapshot());
+        map.put("clear", clearCount.sum());
+        map.put("prefixes", byPrefix);
+        return map;
+    }
+
+    /**
+     * 各前綴加總，給Micrometer的FunctionCounter讀
+     */
+    public long localHitCount() {
+        return sum(counter -> counter.localHit);
+    }
+
+    public long redisHitCount() {
+        return sum(counter -> counter.redisHit);
+    }
+
+    public long missCount() {
+        return sum(counter -> counter.miss);
+    }
+
+    public long writeCount() {
+        return sum(counter -> counter.writeCount);
+    }
+
+    public long writeBytes() {
+        return sum(counter -> counter.writeBytes);
+    }
+
+    public long evictCount() {
+        return sum(counter -> counter.evictCount);
+    }
+
+    public long clearCount() {
+        return clearCount.sum();
+    }
+
+    private long sum(Function<Counter, LongAdder> field) {
+        long sum = 0;
+        for (Counter counter : prefixes.values()) {
+            sum += field.apply(counter).sum();
+        }
+        return sum;
+    }
+
+    static String prefixOf(Object key) {
+        String text = String.valueOf(key);
+        int index = text.lastIndexOf('_');
+        if (index > 0) return text.substring(0, index + 1);
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isLetter(text.charAt(i))) return OTHER_PREFIX;
+        }
+        return text.isEmpty() ? OTHER_PREFIX : text;
+    }
+
+    private Counter counter(Object key) {
+        String prefix = prefixOf(key);
+        Counter counter = prefixes.get(prefix);
+        if (counter != null) return counter;
+        if (prefixes.size() >= MAX_PREFIXES) prefix = OTHER_PREFIX;
+        return prefixes.computeIfAbsent(prefix, k -> new Counter());
+    }
+
+    private static class Counter {
+        private final LongAdder localHit = new LongAdder();
+        private final LongAdder redisHit = new LongAdder();
+        private final LongAdder miss = new LongAdder();
+        private final LongAdder writeCount = new LongAdder();
+        private final LongAdder writeBytes = new LongAdder();
+        private final LongAdder evictCount = new LongAdder();
+        private final LatencyHistogram loadTime = new LatencyHistogram();
+
+        private void add(Counter other) {
+            localHit.add(other.localHit.sum());
+            redisHit.add(other.redisHit.sum());
+            miss.add(other.miss.sum());
+            writeCount.add(other.writeCount.sum());
+            writeBytes.add(other.writeBytes.sum());
+            evictCount.add(other.evictCount.sum());
+            loadTime.merge(other.loadTime);
+        }
+
+        private Map<String, Object> snapshot() {
+            long hit = localHit.sum() + redisHit.sum();
+            long requests = hit + miss.sum();
+            long writes = writeCount.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("localHit", localHit.sum());
+            map.put("redisHit", redisHit.sum());
+            map.put("miss", miss.sum());
+            map.put("hitRatio", requests == 0 ? 0d : Math.round(hit * 10000d / requests) / 10000d);
+            map.put("write", writes);
+            map.put("writeBytes", writeBytes.sum());
+            map.put("avgBytes", writes == 0 ? 0 : writeBytes.sum() / writes);
+            map.put("evict", evictCount.sum());
+            map.put("loadMillis", loadTime.snapshot());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.erp.base.config.redis;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 節點內本地緩存的失效處理，收到CacheInvalidationListener的通知時呼叫
+ * message格式和CacheService.refreshCache相同: 'cacheName:cacheKey'，'*'代表全部
+ * 依getOrder由小到大執行: 緩存層(CacheManager)要先清，衍生的緩存(權限快照、選單樹等)再升版號，
+ * 否則升版號後重建的請求可能又從緩存層讀回舊資料，存成新版號
+ */
+public interface LocalCacheInvalidator extends Ordered {
+    void invalidateLocal(String message);
+
+    @Override
+    default int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * 依執行順序排序後的副本
+     */
+    static List<LocalCacheInvalidator> ordered(Collection<? extends LocalCacheInvalidator> invalidators) {
+        List<LocalCacheInvalidator> list = new ArrayList<>(invalidators);
+        AnnotationAwareOrderComparator.sort(list);
+        return List.copyOf(list);
+    }
+}
@@ -0,0 +1,182 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.tool.LocalCache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 純JVM內的緩存，單節點部署和測試用，沒有Redis來回
+ * 有序列化器時存序列化後的byte[]，每次取出都是新物件，和Redis模式一樣不共用實例；沒有時直接存物件
+ * get(key, loader)同key只有一個執行緒載入，其他等結果
+ */
+public class LocalOnlyCache extends AbstractValueAdaptingCache {
+    private final String name;
+    private final LocalCache<Object, Object> store;
+    private final RedisSerializer<Object> serializer;
+    private final long ttlMillis;
+    private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final CacheStats stats = new CacheStats();
+
+    /**
+     * @param serializer null表示直接存物件
+     */
+    public LocalOnlyCache(String name, int maxSize, long ttlMillis, RedisSerializer<Object> serializer) {
+        super(true);
+        this.name = name;
+        this.store = new LocalCache<>(maxSize, ttlMillis);
+        this.ttlMillis = ttlMillis;
+        this.serializer = serializer;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object stored = store.get(key);
+        if (stored == null) {
+            stats.miss(key);
+            return null;
+        }
+        stats.localHit(key);
+        return decode(stored);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) return (T) fromStoreValue(value);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCount.increment();
+            try {
+                return (T) fromStoreValue(decode(existing.join()));
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            long start = System.currentTimeMillis();
+            T loaded = valueLoader.call();
+            Object stored = encode(toStoreValue(loaded));
+            store.put(key, stored);
+            loadCount.increment();
+            stats.load(key, System.currentTimeMillis() - start, sizeOf(stored));
+            future.complete(stored);
+            return loaded;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object stored = encode(toStoreValue(value));
+        store.put(key, stored);
+        stats.put(key, sizeOf(stored));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = store.get(key);
+        if (existing != null) return toValueWrapper(decode(existing));
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        stats.evict(key);
+        store.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        stats.clear();
+        store.clear();
+    }
+
+    public List<Object> keys() {
+        return store.keys();
+    }
+
+    public Map<CacheKey, Object> getAll(Collection<CacheKey> keys) {
+        Map<CacheKey, Object> result = new LinkedHashMap<>();
+        for (CacheKey key : keys) {
+            Object value = lookup(key.getKey());
+            if (value != null) result.put(key, fromStoreValue(value));
+        }
+        return result;
+    }
+
+    public void putAll(Map<CacheKey, ?> values) {
+        values.forEach((key, value) -> {
+            if (value != null) put(key.getKey(), value);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("localSize", store.size());
+        map.put("localMaxSize", store.getMaxSize());
+        map.put("localCapacityEvict", store.getEvictionCount());
+        map.put("ttlSeconds", ttlMillis / 1000);
+        map.put("storeByValue", serializer != null);
+        map.putAll(stats.snapshot());
+        return map;
+    }
+
+    public CacheStats getCacheStats() {
+        return stats;
+    }
+
+    /**
+     * 載入次數、同key合併等待的次數
+     */
+    public Map<String, Object> getLoadMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("load", loadCount.sum());
+        map.put("coalesced", coalescedCount.sum());
+        return map;
+    }
+
+    private Object encode(Object value) {
+        if (serializer == null || value == NullValue.INSTANCE) return value;
+        return serializer.serialize(value);
+    }
+
+    private Object decode(Object stored) {
+        if (stored instanceof byte[] bytes && serializer != null) return serializer.deserialize(bytes);
+        return stored;
+    }
+
+    private static int sizeOf(Object stored) {
+        return stored instanceof byte[] bytes ? bytes.length : 0;
+    }
+}
@@ -0,0 +1,115 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 純本地模式(cache.mode=local)的CacheManager，不經過Redis，也不需要跨節點通知
+ * 交易提交後CacheService仍會呼叫invalidateLocal，再清一次避免提交前被其他請求讀回舊資料
+ */
+public class LocalOnlyCacheManager implements BatchCacheManager, LocalCacheInvalidator {
+    private final Map<String, LocalOnlyCache> cacheMap = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long defaultTtlMillis;
+    private final boolean storeByValue;
+    private final CacheCodecRegistry cacheCodecRegistry;
+    private final Map<String, Long> ttlMillis;
+
+    /**
+     * @param ttlMillis 各cacheName的TTL，沒有的用defaultTtlMillis
+     * @param storeByValue 是否序列化後存放(每次取出都是新物件)
+     */
+    public LocalOnlyCacheManager(Map<String, Long> ttlMillis, long defaultTtlMillis, int maxSize, boolean storeByValue, CacheCodecRegistry cacheCodecRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.maxSize = maxSize;
+        this.storeByValue = storeByValue;
+        this.cacheCodecRegistry = cacheCodecRegistry;
+        ttlMillis.keySet().forEach(this::getCache);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        LocalOnlyCache cache = cacheMap.get(name);
+        if (cache != null) return cache;
+        return cacheMap.computeIfAbsent(name, k -> new LocalOnlyCache(name, maxSize, ttlMillis.getOrDefault(name, defaultTtlMillis),
+                storeByValue ? serializer(name) : null));
+    }
+
+    private RedisSerializer<Object> serializer(String name) {
+        CacheCodec codec = cacheCodecRegistry.get(name);
+        return codec == null ? RedisSerializer.java() : codec;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(cacheMap.keySet());
+    }
+
+    /**
+     * 緩存層最先清，衍生的本地緩存才不會重建出舊資料
+     */
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void invalidateLocal(String message) {
+        if (CacheConstant.ALL.equals(message)) {
+            cacheMap.values().forEach(LocalOnlyCache::clear);
+            return;
+        }
+        String[] key = message.split(CacheConstant.SPLIT_CONSTANT, 2);
+        LocalOnlyCache cache = cacheMap.get(key[0]);
+        if (cache == null) return;
+        if (key.length > 1 && !key[1].isEmpty()) {
+            cache.evict(key[1]);
+        } else {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void evictAll(Collection<CacheKey> keys) {
+        keys.forEach(key -> Objects.requireNonNull(getCache(key.getCacheName())).evict(key.getKey()));
+    }
+
+    @Override
+    public Map<CacheKey, Object> getAll(String cacheName, Collection<CacheKey> keys) {
+        return ((LocalOnlyCache) Objects.requireNonNull(getCache(cacheName))).getAll(keys);
+    }
+
+    @Override
+    public void putAll(String cacheName, Map<CacheKey, ?> values) {
+        ((LocalOnlyCache) Objects.requireNonNull(getCache(cacheName))).putAll(values);
+    }
+
+    @Override
+    public Map<String, Object> getStats(boolean countRedisKeys) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        cacheMap.forEach((name, cache) -> map.put(name, cache.getStats()));
+        return map;
+    }
+
+    @Override
+    public Map<String, Object> getLoadMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        cacheMap.forEach((name, cache) -> map.put(name, cache.getLoadMetrics()));
+        return map;
+    }
+
+    @Override
+    public CacheStats getCacheStats(String cacheName) {
+        return ((LocalOnlyCache) getCache(cacheName)).getCacheStats();
+    }
+}
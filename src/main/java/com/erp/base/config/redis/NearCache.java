@@ -0,0 +1,464 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.tool.LocalCache;
+import com.erp.base.tool.LogFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * 兩層緩存: JVM內(LocalCache) + Redis
+ * 本地直接存反序列化後的物件，本地命中不經過codec；同節點共用同一個實例，取出的值只能讀不能修改(要改先複製或重查資料庫)
+ * 本地層只做讀取加速，寫入和刪除都會同步到Redis，跨節點的本地失效由CacheInvalidationListener處理
+ * <p>
+ * get(key, loader)(@Cacheable(sync = true))防止緩存擊穿:
+ * 1. 同節點同key只有一個執行緒載入，其他等結果
+ * 2. 跨節點用Redis短鎖，沒搶到的等其他節點寫入Redis
+ * 3. 載入中有舊值(TTL自然過期的)就先返回舊值，主動刷新/刪除的不保留舊值
+ * 4. 依上次載入耗時在過期前機率性提前背景刷新(XFetch)，只刷新有用registerRefreshLoader註冊載入方法的key，
+ *    不沿用呼叫端的valueLoader(可能帶著請求執行緒的狀態)
+ */
+public class NearCache implements Cache {
+    LogFactory LOG = new LogFactory(NearCache.class);
+    private static final Object NULL_VALUE = new Object();
+    private static final long LOCK_POLL_MILLIS = 50;
+    private final RedisCache redisCache;
+    private final LocalCache<Object, Object> localCache;
+    private final LocalCache<Object, Object> staleCache;
+    private final LocalCache<Object, LoadMeta> loadMeta;
+    private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final List<RefreshLoader> refreshLoaders = new CopyOnWriteArrayList<>();
+    private final RedisSerializationContext.SerializationPair<Object> valuePair;
+    private final CacheLoadSupport loadSupport;
+    private final long redisTtlMillis;
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder lockWaitCount = new LongAdder();
+    private final LongAdder staleServedCount = new LongAdder();
+    private final LongAdder earlyRefreshCount = new LongAdder();
+    private final CacheStats stats = new CacheStats();
+
+    public NearCache(RedisCache redisCache, int maxSize, long ttlMillis) {
+        this(redisCache, maxSize, ttlMillis, null);
+    }
+
+    public NearCache(RedisCache redisCache, int maxSize, long ttlMillis, CacheLoadSupport loadSupport) {
+        this.redisCache = redisCache;
+        this.localCache = new LocalCache<>(maxSize, ttlMillis);
+        this.valuePair = redisCache.getCacheConfiguration().getValueSerializationPair();
+        this.loadSupport = loadSupport;
+        this.redisTtlMillis = redisCache.getCacheConfiguration().getTtl().toMillis();
+        long staleMillis = loadSupport == null ? 0 : loadSupport.getStaleMillis();
+        this.staleCache = new LocalCache<>(maxSize, staleMillis);
+        this.loadMeta = new LocalCache<>(maxSize, redisTtlMillis);
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object local = localCache.get(key);
+        if (local != null) {
+            stats.localHit(key);
+            return new SimpleValueWrapper(fromLocal(local));
+        }
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper != null) {
+            stats.redisHit(key);
+            putLocal(key, wrapper.get());
+        } else {
+            stats.miss(key);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object local = localCache.get(key);
+        if (local != null) {
+            stats.localHit(key);
+        } else {
+            ValueWrapper wrapper = redisCache.get(key);
+            if (wrapper != null) {
+                stats.redisHit(key);
+                local = toLocal(wrapper.get());
+                putLocal(key, wrapper.get());
+            }
+        }
+        if (local != null) {
+            refreshAhead(key);
+            return (T) fromLocal(local);
+        }
+        stats.miss(key);
+        return (T) fromLocal(load(key, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        stats.put(key, write(key, value));
+        putLocal(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        localCache.remove(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictLocal(key);
+        redisCache.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        clearLocal();
+        redisCache.clear();
+    }
+
+    /**
+     * 只清本地層，收到其他節點的失效通知時使用
+     * 主動失效的資料不能再當舊值返回，一起清掉
+     */
+    public void evictLocal(Object key) {
+        stats.evict(key);
+        localCache.remove(key);
+        staleCache.remove(key);
+        loadMeta.remove(key);
+    }
+
+    public void clearLocal() {
+        stats.clear();
+        localCache.clear();
+        staleCache.clear();
+        loadMeta.clear();
+    }
+
+    /**
+     * 註冊背景提前刷新用的載入方法，依ID重新查詢，不能依賴呼叫端的執行緒狀態
+     */
+    public void registerRefreshLoader(CacheKey.Family family, LongFunction<?> loader) {
+        refreshLoaders.add(new RefreshLoader(family, loader));
+    }
+
+    public int localSize() {
+        return localCache.size();
+    }
+
+    /**
+     * 批次讀取，本地沒有的一次MGET從Redis取
+     * @return 有資料的key，值可能為null(緩存的null)
+     */
+    public Map<CacheKey, Object> getAll(Collection<CacheKey> keys) {
+        Map<CacheKey, Object> result = new LinkedHashMap<>();
+        List<CacheKey> misses = new ArrayList<>();
+        for (CacheKey key : keys) {
+            Object local = localCache.get(key.getKey());
+            if (local != null) {
+                stats.localHit(key.getKey());
+                result.put(key, fromLocal(local));
+            } else {
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty() || loadSupport == null) return result;
+        List<byte[]> values = loadSupport.mGet(misses.stream().map(CacheKey::redisKey).toArray(byte[][]::new));
+        for (int i = 0; i < misses.size(); i++) {
+            byte[] bytes = values.get(i);
+            if (bytes == null) {
+                stats.miss(misses.get(i).getKey());
+                continue;
+            }
+            stats.redisHit(misses.get(i).getKey());
+            Object value = valuePair.read(ByteBuffer.wrap(bytes));
+            if (value instanceof NullValue) value = null;
+            putLocal(misses.get(i).getKey(), value);
+            result.put(misses.get(i), value);
+        }
+        return result;
+    }
+
+    /**
+     * 批次寫入，Redis一次pipeline，null值不寫入
+     */
+    public void putAll(Map<CacheKey, ?> values) {
+        if (loadSupport == null) {
+            values.forEach((key, value) -> {
+                if (value != null) put(key.getKey(), value);
+            });
+            return;
+        }
+        Map<byte[], byte[]> entries = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (value == null) return;
+            byte[] bytes = serialize(value);
+            entries.put(key.redisKey(), bytes);
+            putLocal(key.getKey(), value);
+            stats.put(key.getKey(), bytes.length);
+        });
+        loadSupport.mSet(entries, redisTtlMillis);
+    }
+
+    /**
+     * 命中/載入/寫入/刪除統計，加上本地層的數量、上限、因上限淘汰的筆數和Redis的TTL
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("localSize", localCache.size());
+        map.put("localMaxSize", localCache.getMaxSize());
+        map.put("localCapacityEvict", localCache.getEvictionCount());
+        map.put("ttlSeconds", redisTtlMillis / 1000);
+        map.putAll(stats.snapshot());
+        return map;
+    }
+
+    public CacheStats getCacheStats() {
+        return stats;
+    }
+
+    /**
+     * 載入次數、同節點合併等待、等其他節點載入、返回舊值、提前刷新的次數
+     */
+    public Map<String, Object> getLoadMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("load", loadCount.sum());
+        map.put("coalesced", coalescedCount.sum());
+        map.put("lockWait", lockWaitCount.sum());
+        map.put("staleServed", staleServedCount.sum());
+        map.put("earlyRefresh", earlyRefreshCount.sum());
+        return map;
+    }
+
+    /**
+     * 本地和Redis都沒有時載入，同key只有第一個執行緒載入
+     */
+    private Object load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCount.increment();
+            Object stale = staleCache.get(key);
+            if (stale != null) {
+                staleServedCount.increment();
+                return stale;
+            }
+            Object loaded = await(existing, key, valueLoader);
+            //背景刷新沒搶到鎖時沒有結果，自己載入
+            return loaded != null ? loaded : loadWithLock(key, valueLoader, false);
+        }
+        try {
+            Object loaded = loadWithLock(key, valueLoader, false);
+            future.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private Object loadWithLock(Object key, Callable<?> valueLoader, boolean background) {
+        String token = loadSupport == null ? null : loadSupport.tryLock(getName(), key);
+        if (loadSupport != null && token == null) {
+            //其他節點載入中
+            lockWaitCount.increment();
+            Object stale = staleCache.get(key);
+            if (stale != null) {
+                staleServedCount.increment();
+                return stale;
+            }
+            if (background) return null;
+            Object loaded = waitOtherNode(key);
+            if (loaded != null) return loaded;
+        }
+        try {
+            //拿到鎖之前其他節點可能剛寫完
+            if (!background) {
+                ValueWrapper wrapper = redisCache.get(key);
+                if (wrapper != null) {
+                    putLocal(key, wrapper.get());
+                    return toLocal(wrapper.get());
+                }
+            }
+            long start = System.currentTimeMillis();
+            Object value = background ? loadSupport.callInTransaction(valueLoader) : valueLoader.call();
+            long delta = System.currentTimeMillis() - start;
+            loadCount.increment();
+            stats.load(key, delta, write(key, value));
+            putLocal(key, value);
+            if (redisTtlMillis > 0) loadMeta.put(key, new LoadMeta(Math.max(delta, 1), start + delta + redisTtlMillis));
+            return toLocal(value);
+        } catch (ValueRetrievalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (token != null) loadSupport.unlock(getName(), key, token);
+        }
+    }
+
+    /**
+     * 等其他節點寫入Redis，超過鎖的時間還沒有就自己載入
+     */
+    private Object waitOtherNode(Object key) {
+        long deadline = System.currentTimeMillis() + loadSupport.getLockMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper wrapper = redisCache.get(key);
+            if (wrapper != null) {
+                putLocal(key, wrapper.get());
+                return toLocal(wrapper.get());
+            }
+        }
+        return null;
+    }
+
+    private Object await(CompletableFuture<Object> future, Object key, Callable<?> valueLoader) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    /**
+     * XFetch: 剩餘時間 <= 載入耗時 * beta * -ln(random) 時提前刷新，越接近過期、載入越慢越容易觸發
+     */
+    private void refreshAhead(Object key) {
+        if (loadSupport == null || loadSupport.getBeta() <= 0 || refreshLoaders.isEmpty()) return;
+        Callable<?> refreshLoader = refreshLoader(key);
+        if (refreshLoader == null) return;
+        LoadMeta meta = loadMeta.get(key);
+        if (meta == null) return;
+        long remaining = meta.expireAt - System.currentTimeMillis();
+        if (remaining <= 0) return;
+        double gap = meta.delta * loadSupport.getBeta() * -Math.log(ThreadLocalRandom.current().nextDouble());
+        if (gap < remaining) return;
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, future) != null) return;
+        //背景刷新期間其他執行緒拿舊值
+        earlyRefreshCount.increment();
+        try {
+            loadSupport.submitRefresh(() -> {
+                try {
+                    future.complete(loadWithLock(key, refreshLoader, true));
+                } catch (RuntimeException e) {
+                    LOG.warn("cache refresh ahead error: {0}", e.getMessage());
+                    future.completeExceptionally(e);
+                } finally {
+                    loading.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, future);
+        }
+    }
+
+    private Callable<?> refreshLoader(Object key) {
+        for (RefreshLoader refreshLoader : refreshLoaders) {
+            Long id = refreshLoader.family().idOf(key);
+            if (id != null) return () -> refreshLoader.loader().apply(id);
+        }
+        return null;
+    }
+
+    private void putLocal(Object key, Object value) {
+        Object local = toLocal(value);
+        localCache.put(key, local);
+        staleCache.put(key, local);
+    }
+
+    private byte[] serialize(Object value) {
+        return ByteUtils.getBytes(valuePair.write(value));
+    }
+
+    /**
+     * 寫入Redis，只序列化一次，回傳的大小給統計用
+     * null交給RedisCache寫它自己的null標記，讀取時才認得
+     */
+    private int write(Object key, Object value) {
+        if (value == null) {
+            redisCache.put(key, null);
+            return 0;
+        }
+        byte[] bytes = serialize(value);
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        redisCache.getNativeCache().put(getName(), redisKey(configuration, key), bytes, configuration.getTtl());
+        return bytes.length;
+    }
+
+    /**
+     * 和RedisCache相同的key: 前綴 + key轉成的字串
+     */
+    private byte[] redisKey(RedisCacheConfiguration configuration, Object key) {
+        String text;
+        if (key instanceof String string) {
+            text = string;
+        } else if (configuration.getConversionService().canConvert(key.getClass(), String.class)) {
+            text = configuration.getConversionService().convert(key, String.class);
+        } else {
+            text = key.toString();
+        }
+        return ByteUtils.getBytes(configuration.getKeySerializationPair().write(configuration.getKeyPrefixFor(getName()) + text));
+    }
+
+    /**
+     * 緩存的null在本地層用NULL_VALUE表示，和沒有資料區分
+     */
+    private static Object toLocal(Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private static Object fromLocal(Object local) {
+        return local == NULL_VALUE ? null : local;
+    }
+
+    private record LoadMeta(long delta, long expireAt) {
+    }
+
+    private record RefreshLoader(CacheKey.Family family, LongFunction<?> loader) {
+    }
+}
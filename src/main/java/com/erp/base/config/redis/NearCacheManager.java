@@ -0,0 +1,150 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * 包裝RedisCacheManager，每個cacheName前面多一層NearCache
+ */
+public class NearCacheManager implements BatchCacheManager, LocalCacheInvalidator {
+    private final RedisCacheManager redisCacheManager;
+    private final Map<String, NearCache> cacheMap = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final CacheLoadSupport loadSupport;
+
+    public NearCacheManager(RedisCacheManager redisCacheManager, int maxSize, long ttlMillis) {
+        this(redisCacheManager, maxSize, ttlMillis, null);
+    }
+
+    public NearCacheManager(RedisCacheManager redisCacheManager, int maxSize, long ttlMillis, CacheLoadSupport loadSupport) {
+        this.redisCacheManager = redisCacheManager;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.loadSupport = loadSupport;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        NearCache cache = cacheMap.get(name);
+        if (cache != null) return cache;
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) return null;
+        return cacheMap.computeIfAbsent(name, k -> createNearCache((RedisCache) redisCache));
+    }
+
+    /**
+     * 註冊背景提前刷新的載入方法，沒註冊的key不提前刷新
+     */
+    public void registerRefreshLoader(CacheKey.Family family, LongFunction<?> loader) {
+        if (getCache(family.getCacheName()) instanceof NearCache cache) cache.registerRefreshLoader(family, loader);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * 緩存層最先清，衍生的本地緩存才不會重建出舊資料
+     */
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void invalidateLocal(String message) {
+        if (CacheConstant.ALL.equals(message)) {
+            cacheMap.values().forEach(NearCache::clearLocal);
+            return;
+        }
+        String[] key = message.split(CacheConstant.SPLIT_CONSTANT, 2);
+        NearCache cache = cacheMap.get(key[0]);
+        if (cache == null) return;
+        if (key.length > 1 && !key[1].isEmpty()) {
+            cache.evictLocal(key[1]);
+        } else {
+            cache.clearLocal();
+        }
+    }
+
+    /**
+     * 批次刪除，先清各自的本地層，Redis一次UNLINK
+     */
+    @Override
+    public void evictAll(Collection<CacheKey> keys) {
+        if (keys.isEmpty()) return;
+        for (CacheKey key : keys) {
+            if (getCache(key.getCacheName()) instanceof NearCache cache) cache.evictLocal(key.getKey());
+        }
+        if (loadSupport != null) {
+            loadSupport.unlink(keys.stream().map(CacheKey::redisKey).toArray(byte[][]::new));
+        } else {
+            keys.forEach(key -> Objects.requireNonNull(getCache(key.getCacheName())).evict(key.getKey()));
+        }
+    }
+
+    /**
+     * 批次讀取同一個cacheName的key
+     */
+    @Override
+    public Map<CacheKey, Object> getAll(String cacheName, Collection<CacheKey> keys) {
+        return ((NearCache) Objects.requireNonNull(getCache(cacheName))).getAll(keys);
+    }
+
+    /**
+     * 批次寫入同一個cacheName的key
+     */
+    @Override
+    public void putAll(String cacheName, Map<CacheKey, ?> values) {
+        ((NearCache) Objects.requireNonNull(getCache(cacheName))).putAll(values);
+    }
+
+    /**
+     * 各cacheName的命中、寫入、刪除統計
+     * @param countRedisKeys 是否用SCAN統計Redis內的key數量，key多時較慢
+     */
+    @Override
+    public Map<String, Object> getStats(boolean countRedisKeys) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        cacheMap.forEach((name, cache) -> {
+            Map<String, Object> stats = cache.getStats();
+            if (countRedisKeys && loadSupport != null) stats.put("redisKeys", loadSupport.countKeys(name));
+            map.put(name, stats);
+        });
+        return map;
+    }
+
+    /**
+     * 各cacheName的載入統計
+     */
+    @Override
+    public Map<String, Object> getLoadMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        cacheMap.forEach((name, cache) -> map.put(name, cache.getLoadMetrics()));
+        return map;
+    }
+
+    @Override
+    public CacheStats getCacheStats(String cacheName) {
+        return getCache(cacheName) instanceof NearCache cache ? cache.getCacheStats() : null;
+    }
+
+    private NearCache createNearCache(RedisCache redisCache) {
+        //本地層TTL不超過Redis本身的TTL
+        long redisTtl = redisCache.getCacheConfiguration().getTtl().toMillis();
+        long ttl = redisTtl > 0 ? Math.min(ttlMillis, redisTtl) : ttlMillis;
+        return new NearCache(redisCache, maxSize, ttl, loadSupport);
+    }
+}
@@ -0,0 +1,55 @@
+package com.erp.base.config.security;
+
+import com.erp.base.repository.SigningKeyRepository;
+import com.erp.base.service.security.TokenService;
+import com.erp.base.service.security.keyring.*;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.iv.RandomIvGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * JWT簽章金鑰環
+ * security.jwt.key-store: database(預設，多節點共用) / file / memory(重啟失效)
+ */
+@Configuration
+public class KeyRingConfig {
+    @Value("${security.jwt.key-store:database}")
+    private String keyStoreType;
+    @Value("${security.jwt.key-store-path:keyring.properties}")
+    private String keyStorePath;
+    @Value("${security.jwt.key-rotation-hours:24}")
+    private long keyRotationHours;
+    //私鑰加密用的密碼，沒設定就用security.password
+    @Value("${security.jwt.key-password:${security.password}}")
+    private String keyPassword;
+    private KeyRing keyRing;
+
+    @Bean
+    public KeyRing keyRing(SigningKeyRepository signingKeyRepository) {
+        SigningKeyStore store = switch (keyStoreType) {
+            case "file" -> new FileSigningKeyStore(Path.of(keyStorePath));
+            case "memory" -> new InMemorySigningKeyStore();
+            default -> new DatabaseSigningKeyStore(signingKeyRepository);
+        };
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword(keyPassword);
+        encryptor.setAlgorithm("PBEWITHHMACSHA512ANDAES_256");
+        encryptor.setIvGenerator(new RandomIvGenerator());
+        keyRing = new KeyRing(store, encryptor, Duration.ofHours(keyRotationHours).toMillis(), TokenService.REFRESH_TOKEN_EXPIRE_TIME * 1000L);
+        return keyRing;
+    }
+
+    /**
+     * 每個節點定期檢查，輪替和清除由最先發現到期的節點執行，其他節點重新載入即可
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.key-check-interval:600000}", initialDelayString = "${security.jwt.key-check-interval:600000}")
+    public void rotateKey() {
+        if (keyRing != null) keyRing.rotateIfNeeded();
+    }
+}
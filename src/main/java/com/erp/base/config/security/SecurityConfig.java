@@ -2,18 +2,22 @@ package com.erp.base.config.security;
 
 import com.erp.base.filter.jwt.DenyPermissionFilter;
 import com.erp.base.filter.jwt.JwtAuthenticationFilter;
+import com.erp.base.filter.jwt.RequestSecurityContext;
 import com.erp.base.filter.jwt.UserStatusFilter;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.response.FilterExceptionResponse;
 import com.erp.base.model.entity.PermissionModel;
 import com.erp.base.service.CacheService;
 import com.erp.base.service.PermissionService;
+import com.erp.base.service.security.BoundedPasswordEncoder;
 import com.erp.base.service.security.TokenService;
 import com.erp.base.tool.LogFactory;
 import com.erp.base.tool.ObjectTool;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
@@ -50,7 +54,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, BoundedPasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
@@ -66,6 +70,7 @@ public class SecurityConfig {
         http.authorizeHttpRequests(request -> request
                         .requestMatchers("/swagger/swagger-ui.html", "/swagger/swagger-ui/**", "/swagger/api-docs/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()
+                        .requestMatchers(RequestSecurityContext.HEALTH_PATH, RequestSecurityContext.HEALTH_PATH + "/**").permitAll()
                         .anyRequest().authenticated())
                 .csrf(AbstractHttpConfigurer::disable)
                 //按順序:
@@ -93,10 +98,22 @@ public class SecurityConfig {
     }
 
     @Bean
+    @Primary
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * 登入驗證密碼用，限制同時計算BCrypt的執行緒數和排隊數量
+     */
+    @Bean
+    public BoundedPasswordEncoder boundedPasswordEncoder(PasswordEncoder passwordEncoder,
+                                                         @Value("${security.login.threads:0}") int threads,
+                                                         @Value("${security.login.queue-size:200}") int queueSize,
+                                                         @Value("${security.login.timeout:10000}") long timeoutMillis) {
+        return new BoundedPasswordEncoder(passwordEncoder, threads, queueSize, timeoutMillis);
+    }
+
     //動態設定所有權限
     private void configurePermission(HttpSecurity http) throws Exception {
         List<PermissionModel> permissions = permissionService.findAll();
@@ -0,0 +1,105 @@
+package com.erp.base.config.websocket;
+
+import com.erp.base.tool.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket握手限流，避免部署後大量客戶端同時重連打爆CPU和Redis
+ * 節點總量用令牌桶控制，同一用戶在間隔內最多user-burst次握手(多分頁、SockJS降級重試)，超過才拒絕
+ * 拒絕時的重連延遲隨機分散在jitter區間，同一用戶的多個分頁不會同步重試；成功時給客戶端依用戶ID固定的偏移量，讓下一波重連錯開
+ */
+@Component
+public class HandshakeRateLimiter {
+    private final long permitsPerSecond;
+    private final long burst;
+    private final long userIntervalMillis;
+    private final int userBurst;
+    private final long jitterWindowMillis;
+    private final LocalCache<Long, AtomicInteger> recentUsers;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private double available;
+    private long lastRefillNanos = System.nanoTime();
+
+    public HandshakeRateLimiter(@Value("${websocket.handshake.permits-per-second:200}") long permitsPerSecond,
+                                @Value("${websocket.handshake.burst:500}") long burst,
+                                @Value("${websocket.handshake.user-interval:1000}") long userIntervalMillis,
+                                @Value("${websocket.handshake.user-burst:3}") int userBurst,
+                                @Value("${websocket.handshake.jitter-window:5000}") long jitterWindowMillis,
+                                @Value("${websocket.handshake.max-users:20000}") int maxUsers) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(burst, 1);
+        this.userIntervalMillis = userIntervalMillis;
+        this.userBurst = Math.max(userBurst, 1);
+        this.jitterWindowMillis = Math.max(jitterWindowMillis, 1);
+        this.recentUsers = new LocalCache<>(maxUsers, userIntervalMillis);
+        this.available = this.burst;
+    }
+
+    /**
+     * 節點總量，還不知道是誰時使用
+     * @return 0為放行，否則為建議的重連延遲ms
+     */
+    public long admitGlobal() {
+        if (permitsPerSecond <= 0 || tryAcquire()) return 0;
+        rejected.increment();
+        return jitterWindowMillis + ThreadLocalRandom.current().nextLong(jitterWindowMillis);
+    }
+
+    /**
+     * 同一用戶在間隔內的握手次數
+     * @return 0為放行，否則為建議的重連延遲ms
+     */
+    public long admitUser(long uid) {
+        if (userIntervalMillis > 0 && userCounter(uid).incrementAndGet() > userBurst) {
+            rejected.increment();
+            return userIntervalMillis + ThreadLocalRandom.current().nextLong(jitterWindowMillis);
+        }
+        accepted.increment();
+        return 0;
+    }
+
+    /**
+     * 用戶固定的重連偏移量，同一批斷線的用戶會平均分散在jitter區間
+     */
+    public long reconnectHint(long uid) {
+        long hash = uid * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), jitterWindowMillis);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("accepted", accepted.sum());
+        map.put("rejected", rejected.sum());
+        map.put("recentUsers", recentUsers.size());
+        return map;
+    }
+
+    //計數從間隔內第一次握手開始，過期後重新計算
+    private AtomicInteger userCounter(long uid) {
+        synchronized (recentUsers) {
+            AtomicInteger counter = recentUsers.get(uid);
+            if (counter == null) {
+                counter = new AtomicInteger();
+                recentUsers.put(uid, counter);
+            }
+            return counter;
+        }
+    }
+
+    private synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        available = Math.min(burst, available + (now - lastRefillNanos) / 1_000_000_000.0 * permitsPerSecond);
+        lastRefillNanos = now;
+        if (available < 1) return false;
+        available--;
+        return true;
+    }
+}
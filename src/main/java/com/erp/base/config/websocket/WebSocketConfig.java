@@ -22,6 +22,11 @@ import java.util.Map;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private TokenService tokenService;
     private CacheService cacheService;
+    private HandshakeRateLimiter handshakeRateLimiter;
+    @Autowired
+    public void setHandshakeRateLimiter(HandshakeRateLimiter handshakeRateLimiter) {
+        this.handshakeRateLimiter = handshakeRateLimiter;
+    }
     @Autowired
     public void setCacheService(CacheService cacheService) {
         this.cacheService = cacheService;
@@ -50,7 +55,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 })
                 .setAllowedOriginPatterns("*")
                 .withSockJS()
-                .setInterceptors(new UserHandshakeInterceptor(tokenService, cacheService));
+                .setInterceptors(new UserHandshakeInterceptor(tokenService, cacheService, handshakeRateLimiter));
     }
 
 
@@ -11,6 +11,11 @@ public interface WebsocketConstant {
         String CLIENT_STATUS = PREFIX + "/clientStatus";
     }
 
+    interface HANDSHAKE{
+        //建議客戶端下次重連前等待的時間(ms)
+        String RECONNECT_DELAY = "X-Reconnect-Delay";
+    }
+
     interface DESTINATION{
         String PREFIX = "/app";
         String USER = "/user";
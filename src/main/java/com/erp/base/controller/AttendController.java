@@ -2,17 +2,24 @@ package com.erp.base.controller;
 
 import com.erp.base.aspect.Loggable;
 import com.erp.base.model.constant.response.ApiResponseCode;
+import com.erp.base.model.dto.request.attend.AttendRequest;
 import com.erp.base.model.dto.response.ApiResponse;
 import com.erp.base.service.AttendService;
 import com.erp.base.tool.LogFactory;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "AttendController", description = "簽到相關API")
 public class AttendController {
@@ -51,4 +58,12 @@ public class AttendController {
         }
         return response;
     }
+
+    @GetMapping(Router.ATTEND.EXPORT)
+    @Operation(summary = "出缺勤匯出(csv/xlsx)")
+    public void export(@Parameter(description = "出缺勤請求") AttendRequest request,
+                       @Parameter(description = "匯出格式: csv(預設)、xlsx") @RequestParam(required = false) String format,
+                       HttpServletResponse response) throws IOException {
+        attendService.export(request, format, response);
+    }
 }
@@ -42,4 +42,10 @@ public class CacheController {
         }
         return response;
     }
+
+    @GetMapping(Router.CACHE.METRICS)
+    @Operation(summary = "緩存統計")
+    public ResponseEntity<ApiResponse> metrics(@Parameter(description = "是否統計Redis的key數量") Boolean redisKeys) {
+        return ApiResponse.success(ApiResponseCode.SUCCESS, cacheService.getCacheMetrics(Boolean.TRUE.equals(redisKeys)));
+    }
 }
@@ -142,4 +142,9 @@ public class ClientController {
     public ResponseEntity<ApiResponse> systemInfo(){
         return clientService.systemInfo();
     }
+    @GetMapping(Router.CLIENT.LOGIN_METRICS)
+    @Operation(summary = "登入統計(耗時分佈、驗證排隊數)")
+    public ResponseEntity<ApiResponse> loginMetrics(){
+        return clientService.loginMetrics();
+    }
 }
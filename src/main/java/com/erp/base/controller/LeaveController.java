@@ -11,10 +11,13 @@ import com.erp.base.service.LeaveService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "LeaveController", description = "休假相關API")
 public class LeaveController {
@@ -71,4 +74,12 @@ public class LeaveController {
     public ResponseEntity<ApiResponse> enumList(){
         return ApiResponse.success(ApiResponseCode.SUCCESS, LeaveConstant.list());
     }
+
+    @GetMapping(Router.LEAVE.EXPORT)
+    @Operation(summary = "休假匯出(csv/xlsx)")
+    public void export(@Parameter(description = "假單請求") LeaveRequest request,
+                       @Parameter(description = "匯出格式: csv(預設)、xlsx") @RequestParam(required = false) String format,
+                       HttpServletResponse response) throws IOException {
+        leaveService.export(request, format, response);
+    }
 }
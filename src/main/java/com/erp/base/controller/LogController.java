@@ -1,16 +1,21 @@
 package com.erp.base.controller;
 
 import com.erp.base.model.dto.request.log.LogRequest;
+import com.erp.base.model.dto.request.log.LogRollupRequest;
 import com.erp.base.model.dto.response.ApiResponse;
 import com.erp.base.service.LogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "LogController", description = "日誌相關API")
 public class LogController {
@@ -25,4 +30,24 @@ public class LogController {
     public ResponseEntity<ApiResponse> list(@Parameter(description = "日誌清單請求") LogRequest request){
         return logService.findAll(request);
     }
+
+    @GetMapping(Router.LOG.METRICS)
+    @Operation(summary = "日誌寫入統計(佇列數量、批次耗時、丟棄數)")
+    public ResponseEntity<ApiResponse> metrics(){
+        return logService.metrics();
+    }
+
+    @GetMapping(Router.LOG.ROLLUP)
+    @Operation(summary = "日誌統計(每小時彙總)")
+    public ResponseEntity<ApiResponse> rollup(@Parameter(description = "日誌統計請求") LogRollupRequest request){
+        return logService.rollupSummary(request);
+    }
+
+    @GetMapping(Router.LOG.EXPORT)
+    @Operation(summary = "日誌匯出(csv/xlsx)")
+    public void export(@Parameter(description = "日誌清單請求") LogRequest request,
+                       @Parameter(description = "匯出格式: csv(預設)、xlsx") @RequestParam(required = false) String format,
+                       HttpServletResponse response) throws IOException {
+        logService.export(request, format, response);
+    }
 }
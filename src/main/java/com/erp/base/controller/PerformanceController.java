@@ -9,10 +9,13 @@ import com.erp.base.service.PerformanceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "PerformanceController", description = "績效相關API")
 public class PerformanceController {
@@ -62,4 +65,12 @@ public class PerformanceController {
     public ResponseEntity<ApiResponse> calculate(@Parameter(description = "績效ID") Long id) {
         return performanceService.calculate(id);
     }
+
+    @GetMapping(Router.PERFORMANCE.EXPORT)
+    @Operation(summary = "績效匯出(csv/xlsx)")
+    public void export(@Parameter(description = "績效請求") PerformanceRequest request,
+                       @Parameter(description = "匯出格式: csv(預設)、xlsx") @RequestParam(required = false) String format,
+                       HttpServletResponse response) throws IOException {
+        performanceService.export(request, format, response);
+    }
 }
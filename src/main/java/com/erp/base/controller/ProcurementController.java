@@ -7,10 +7,13 @@ import com.erp.base.service.ProcurementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "ProcurementController", description = "採購相關API")
 public class ProcurementController {
@@ -42,4 +45,12 @@ public class ProcurementController {
     public ResponseEntity<ApiResponse> delete(@Parameter(description = "採購單ID") Long id){
         return procurementService.delete(id);
     }
+
+    @GetMapping(Router.PROCUREMENT.EXPORT)
+    @Operation(summary = "採購匯出(csv/xlsx)")
+    public void export(@Parameter(description = "採購請求") ProcurementRequest request,
+                       @Parameter(description = "匯出格式: csv(預設)、xlsx") @RequestParam(required = false) String format,
+                       HttpServletResponse response) throws IOException {
+        procurementService.export(request, format, response);
+    }
 }
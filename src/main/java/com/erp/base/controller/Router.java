@@ -5,6 +5,7 @@ public interface Router {
     interface CACHE{
         String CACHE = "/cache";
         String REFRESH = CACHE + "/refresh";
+        String METRICS = CACHE + "/metrics";
     }
 
     interface  CLIENT{
@@ -23,6 +24,7 @@ public interface Router {
         String LOGOUT = CLIENT + "/logout";
         String REFRESHT = CLIENT + "/refreshT";
         String SYSTEM_INFO = CLIENT + "/systemInfo";
+        String LOGIN_METRICS = CLIENT + "/loginMetrics";
     }
 
     interface ROLE{
@@ -56,6 +58,7 @@ public interface Router {
         String EDIT_ROOT = SALARY + "/editRoot";
         String GET = SALARY + "/get";
         String INFO = SALARY + "/info";
+        String EXPORT = SALARY + "/export";
     }
 
     interface PERFORMANCE{
@@ -67,12 +70,14 @@ public interface Router {
         String REMOVE = PERFORMANCE + "/remove";
         String ACCEPT = PERFORMANCE + "/accept";
         String CALCULATE = PERFORMANCE + "/calculate";
+        String EXPORT = PERFORMANCE + "/export";
     }
 
     interface ATTEND{
         String ATTEND = "/attend";
         String SIGN_IN = ATTEND + "/signIn";
         String SIGN_OUT = ATTEND + "/signOut";
+        String EXPORT = ATTEND + "/export";
     }
 
     interface LEAVE{
@@ -85,6 +90,7 @@ public interface Router {
         String ACCEPT = LEAVE + "/accept";
         String REJECT = LEAVE + "/reject";
         String TYPE_LIST = LEAVE + "/typeList";
+        String EXPORT = LEAVE + "/export";
     }
 
     interface PROJECT{
@@ -103,6 +109,7 @@ public interface Router {
         String ADD = PROCUREMENT + "/add";
         String UPDATE = PROCUREMENT + "/update";
         String DELETE = PROCUREMENT + "/delete";
+        String EXPORT = PROCUREMENT + "/export";
     }
 
     interface JOB{
@@ -135,6 +142,9 @@ public interface Router {
     interface LOG{
         String LOG = "/log";
         String LIST = LOG + "/list";
+        String METRICS = LOG + "/metrics";
+        String ROLLUP = LOG + "/rollup";
+        String EXPORT = LOG + "/export";
     }
 
     interface NOTIFICATION{
@@ -7,13 +7,17 @@ import com.erp.base.service.SalaryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "SalaryController", description = "薪資相關API")
 public class SalaryController {
@@ -49,4 +53,12 @@ public class SalaryController {
     public ResponseEntity<ApiResponse> info(@Parameter(description = "用戶ID") Long id){
         return salaryService.info(id);
     }
+
+    @GetMapping(Router.SALARY.EXPORT)
+    @Operation(summary = "薪資匯出(csv/xlsx)")
+    public void export(@Parameter(description = "薪資請求") SalaryRequest request,
+                       @Parameter(description = "匯出格式: csv(預設)、xlsx") @RequestParam(required = false) String format,
+                       HttpServletResponse response) throws IOException {
+        salaryService.export(request, format, response);
+    }
 }
@@ -22,6 +22,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -94,6 +95,18 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(ApiResponseCode.INVALID_INPUT);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse> rejectedExecutionExceptionHandler(RejectedExecutionException e){
+        LOG.error(e.getMessage());
+        return ApiResponse.error(ApiResponseCode.SERVICE_BUSY);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse> tooManyRequestsExceptionHandler(TooManyRequestsException e){
+        LOG.warn(e.getMessage());
+        return ApiResponse.error(ApiResponseCode.TOO_MANY_REQUESTS);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse> globalHandler(Exception e){
         LOG.error(e);//未知錯誤全展開比較好排查
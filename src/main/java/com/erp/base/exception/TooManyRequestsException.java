@@ -0,0 +1,15 @@
+package com.erp.base.exception;
+
+import java.io.Serial;
+
+/**
+ * 超過同時處理上限，回應429
+ */
+public class TooManyRequestsException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = -9L;
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
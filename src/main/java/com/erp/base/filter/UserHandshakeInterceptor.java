@@ -1,10 +1,14 @@
 package com.erp.base.filter;
 
+import com.erp.base.config.websocket.HandshakeRateLimiter;
+import com.erp.base.config.websocket.WebsocketConstant;
 import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.service.CacheService;
 import com.erp.base.service.security.TokenService;
 import com.erp.base.service.security.UserDetailImpl;
 import com.erp.base.tool.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
@@ -18,20 +22,30 @@ import org.springframework.web.socket.server.HandshakeInterceptor;
 import java.util.Collection;
 import java.util.Map;
 
+/**
+ * WebSocket握手驗證
+ * token驗證和權限都走和api相同的緩存(驗證過的token、權限快照)，重連時不用重新驗簽和合併權限
+ * 握手數量超過限流時返回429和建議的重連延遲
+ */
 public class UserHandshakeInterceptor implements HandshakeInterceptor {
     LogFactory LOG = new LogFactory(UserHandshakeInterceptor.class);
     private final TokenService tokenService;
     private final CacheService cacheService;
+    private final HandshakeRateLimiter rateLimiter;
 
-    public UserHandshakeInterceptor(TokenService tokenService, CacheService cacheService) {
+    public UserHandshakeInterceptor(TokenService tokenService, CacheService cacheService, HandshakeRateLimiter rateLimiter) {
         this.tokenService = tokenService;
         this.cacheService = cacheService;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Map<String, Object> attributes) {
         if (request instanceof ServletServerHttpRequest servletRequest) {
-            return verifyToken(servletRequest.getServletRequest().getParameter("token"), attributes);
+            //先擋總量，驗簽前就拒絕
+            long delay = rateLimiter.admitGlobal();
+            if (delay > 0) return reject(response, delay);
+            return verifyToken(servletRequest.getServletRequest().getParameter("token"), attributes, response);
         }
         return false;
     }
@@ -41,14 +55,19 @@ public class UserHandshakeInterceptor implements HandshakeInterceptor {
         LOG.info("Socket Connected");
     }
 
-    private boolean verifyToken(String authToken, Map<String, Object> attributes) {
-        if (authToken == null) return false;
+    private boolean verifyToken(String authToken, Map<String, Object> attributes, ServerHttpResponse response) {
+        if (authToken == null || cacheService.existsTokenBlackList(authToken)) return false;
         authToken = authToken.replace(TokenService.TOKEN_PREFIX, "");
         try {
             Map<String, Object> payload = tokenService.parseToken(authToken);
             String userId = String.valueOf(payload.get(TokenService.TOKEN_PROPERTIES_UID));
+            long uid = Long.parseLong(userId);
+            long delay = rateLimiter.admitUser(uid);
+            if (delay > 0) return reject(response, delay);
             createAuthentication(userId);
             attributes.put(TokenService.TOKEN_PROPERTIES_UID, userId);
+            //連線斷掉後客戶端依這個值延遲重連
+            response.getHeaders().set(WebsocketConstant.HANDSHAKE.RECONNECT_DELAY, String.valueOf(rateLimiter.reconnectHint(uid)));
         } catch (Exception e) {
             LOG.error("User authentication failed");
             return false;
@@ -56,6 +75,13 @@ public class UserHandshakeInterceptor implements HandshakeInterceptor {
         return true;
     }
 
+    private boolean reject(ServerHttpResponse response, long delay) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf((delay + 999) / 1000));
+        response.getHeaders().set(WebsocketConstant.HANDSHAKE.RECONNECT_DELAY, String.valueOf(delay));
+        return false;
+    }
+
     private void createAuthentication(String userId) {
         ClientIdentityDto client = cacheService.getClient(Long.valueOf(userId));
         if(client == null) return;
@@ -4,7 +4,6 @@ import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.response.FilterExceptionResponse;
 import com.erp.base.service.CacheService;
 import com.erp.base.tool.LogFactory;
-import com.erp.base.tool.ObjectTool;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,7 +12,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
 
 public class DenyPermissionFilter extends OncePerRequestFilter {
     LogFactory LOG = new LogFactory(DenyPermissionFilter.class);
@@ -25,16 +23,15 @@ public class DenyPermissionFilter extends OncePerRequestFilter {
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        String requestedUrl;
-        try {
-            requestedUrl = ObjectTool.extractPath(request.getRequestURI());
-        } catch (URISyntaxException e) {
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        if (context.isPathError()) {
             LOG.error("request path: [{0}] trans error", request.getRequestURI());
             FilterExceptionResponse.error(response, ApiResponseCode.ACCESS_DENIED);
             return;
         }
 
-        if (!StringUtils.isEmpty(requestedUrl) && notEqualSwaggerUrl(requestedUrl) && notEqualWebsocketUrl(requestedUrl)) {
+        String requestedUrl = context.getPath();
+        if (!StringUtils.isEmpty(requestedUrl) && !context.isSwaggerUrl() && !context.isWebsocketUrl() && !context.isHealthUrl()) {
             //檢查路徑狀態是否為deny
             Boolean status = cacheService.permissionStatus(requestedUrl);
             if (status == null || Boolean.FALSE.equals(status)) {
@@ -45,12 +42,4 @@ public class DenyPermissionFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-
-    private boolean notEqualSwaggerUrl(String requestedUrl) {
-        return !requestedUrl.contains("swagger");
-    }
-
-    private boolean notEqualWebsocketUrl(String requestedUrl) {
-        return !requestedUrl.contains("/ws");
-    }
 }
@@ -1,6 +1,5 @@
 package com.erp.base.filter.jwt;
 
-import com.erp.base.config.security.SecurityConfig;
 import com.erp.base.controller.Router;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.response.FilterExceptionResponse;
@@ -9,7 +8,6 @@ import com.erp.base.service.CacheService;
 import com.erp.base.service.security.TokenService;
 import com.erp.base.service.security.UserDetailImpl;
 import com.erp.base.tool.LogFactory;
-import com.erp.base.tool.ObjectTool;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -26,7 +24,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.Map;
 
@@ -45,9 +42,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        if (context.isPathError()) {
+            LOG.error("request path: [{0}] trans error", request.getRequestURI());
+            FilterExceptionResponse.error(response, ApiResponseCode.ACCESS_DENIED);
+            return;
+        }
         try {
-            String url = ObjectTool.extractPath(request.getRequestURI());
-            if (requiresAuthentication(url) && notEqualWebsocketUrl(url)) {
+            String url = context.getPath();
+            if (context.requiresAuthentication()) {
                 String token;
                 //刷Token的請求改成驗證refreshToken
                 if(Router.CLIENT.REFRESHT.equals(url)){
@@ -58,7 +61,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 if(token == null || cacheService.existsTokenBlackList(token)) throw new ExpiredJwtException(null, null, null);
                 Map<String, Object> payload = authenticationToken(token);
                 String uid = String.valueOf(payload.get(TokenService.TOKEN_PROPERTIES_UID));
-                createAuthentication(Long.parseLong(uid), request);
+                createAuthentication(Long.parseLong(uid), request, context);
             }else{
                 createEmptyUserAuth(request);
             }
@@ -68,18 +71,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (SignatureException | AccessDeniedException | MalformedJwtException e) {
             exceptionResponse(e, response, ApiResponseCode.ACCESS_DENIED);
             return;
-        } catch (URISyntaxException e) {
-            LOG.error("request path: [{0}] trans error", request.getRequestURI());
-            exceptionResponse(e, response, ApiResponseCode.ACCESS_DENIED);
-            return;
         }
         filterChain.doFilter(request, response);
     }
 
-    private boolean requiresAuthentication(String url) {
-        return !SecurityConfig.noRequiresAuthenticationSet.contains(url);
-    }
-
     /**
      * 驗證AccessToken
      */
@@ -91,7 +86,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     /**
      * 建立ClientIdentity
      * */
-    private void createAuthentication(Long id, HttpServletRequest request) {
+    private void createAuthentication(Long id, HttpServletRequest request, RequestSecurityContext context) {
         String lang = request.getHeader("User-Lang");
         ClientIdentityDto client = cacheService.getClient(id);
         if(client == null) return;
@@ -99,6 +94,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         Collection<? extends GrantedAuthority> rolePermission = userDetail.getAuthorities();
         Authentication authentication = new UsernamePasswordAuthenticationToken(userDetail, null, rolePermission);
         SecurityContextHolder.getContext().setAuthentication(authentication);
+        context.setPrincipal(userDetail);
     }
 
     /**
@@ -119,8 +115,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         LOG.error(e.getMessage());
         FilterExceptionResponse.error(response, code);
     }
-
-    private boolean notEqualWebsocketUrl(String requestedUrl) {
-        return !requestedUrl.contains("/ws");
-    }
 }
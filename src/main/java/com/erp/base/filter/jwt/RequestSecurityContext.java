@@ -0,0 +1,93 @@
+package com.erp.base.filter.jwt;
+
+import com.erp.base.config.security.SecurityConfig;
+import com.erp.base.service.security.UserDetailImpl;
+import com.erp.base.tool.ObjectTool;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.URISyntaxException;
+import java.util.Objects;
+
+/**
+ * 單次請求的安全檢查資料，第一個filter解析後放在request attribute
+ * 後續filter共用同一份路徑解析結果和principal，不用每個filter各自解析
+ */
+public class RequestSecurityContext {
+    public static final String ATTRIBUTE = RequestSecurityContext.class.getName();
+    //健康檢查探針，不帶token
+    public static final String HEALTH_PATH = "/actuator/health";
+    private final String requestUri;
+    private final String path;
+    private final boolean pathError;
+    private final boolean publicUrl;
+    private final boolean websocketUrl;
+    private final boolean swaggerUrl;
+    private final boolean healthUrl;
+    private UserDetailImpl principal;
+
+    private RequestSecurityContext(String requestUri, String path, boolean pathError) {
+        this.requestUri = requestUri;
+        this.path = path;
+        this.pathError = pathError;
+        this.publicUrl = path != null && SecurityConfig.noRequiresAuthenticationSet.contains(path);
+        this.websocketUrl = path != null && path.contains("/ws");
+        this.swaggerUrl = path != null && path.contains("swagger");
+        this.healthUrl = path != null && (path.equals(HEALTH_PATH) || path.startsWith(HEALTH_PATH + "/"));
+    }
+
+    /**
+     * 取得當前請求的context，還沒建立(或forward後路徑已不同)就解析路徑後放進request
+     */
+    public static RequestSecurityContext resolve(HttpServletRequest request) {
+        String requestUri = request.getRequestURI();
+        Object attribute = request.getAttribute(ATTRIBUTE);
+        if (attribute instanceof RequestSecurityContext context && Objects.equals(context.requestUri, requestUri)) return context;
+        RequestSecurityContext context;
+        try {
+            context = new RequestSecurityContext(requestUri, ObjectTool.extractPath(requestUri), false);
+        } catch (URISyntaxException e) {
+            context = new RequestSecurityContext(requestUri, null, true);
+        }
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isPathError() {
+        return pathError;
+    }
+
+    public boolean isPublicUrl() {
+        return publicUrl;
+    }
+
+    public boolean isWebsocketUrl() {
+        return websocketUrl;
+    }
+
+    public boolean isSwaggerUrl() {
+        return swaggerUrl;
+    }
+
+    public boolean isHealthUrl() {
+        return healthUrl;
+    }
+
+    /**
+     * 需要登入驗證的路徑(非公開API、非websocket且非健康檢查)
+     */
+    public boolean requiresAuthentication() {
+        return !publicUrl && !websocketUrl && !healthUrl;
+    }
+
+    public UserDetailImpl getPrincipal() {
+        return principal;
+    }
+
+    public void setPrincipal(UserDetailImpl principal) {
+        this.principal = principal;
+    }
+}
@@ -1,6 +1,5 @@
 package com.erp.base.filter.jwt;
 
-import com.erp.base.config.security.SecurityConfig;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.response.FilterExceptionResponse;
 import com.erp.base.service.security.UserDetailImpl;
@@ -17,7 +16,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.nio.file.AccessDeniedException;
 
 public class UserStatusFilter extends OncePerRequestFilter {
@@ -30,20 +28,18 @@ public class UserStatusFilter extends OncePerRequestFilter {
      * */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        String url;
-        try {
-            url = ObjectTool.extractPath(request.getRequestURI());
-        } catch (URISyntaxException e) {
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        if (context.isPathError()) {
             LOG.error("request path: [{0}] trans error", request.getRequestURI());
-            exceptionResponse(e, response, ApiResponseCode.ACCESS_DENIED);
+            FilterExceptionResponse.error(response, ApiResponseCode.ACCESS_DENIED);
             return;
         }
         //不包含在公開API才需要驗證
-        if(!SecurityConfig.noRequiresAuthenticationSet.contains(url) && notEqualWebsocketUrl(url)){
+        if(context.requiresAuthentication()){
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication != null && authentication.isAuthenticated()) {
                 try {
-                    isUserLockedOrDisabled(url, authentication);
+                    isUserLockedOrDisabled(context, authentication);
                 } catch (LockedException e) {
                     exceptionResponse(e, response, ApiResponseCode.CLIENT_LOCKED);
                     return;
@@ -59,9 +55,20 @@ public class UserStatusFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private void isUserLockedOrDisabled(String requestURL, Authentication authentication) {
-        UserDetailImpl principal = ObjectTool.convert(authentication.getPrincipal(), UserDetailImpl.class);
-        if (!(requestURL.contains(CLIENT_LOCK_URL) || requestURL.contains(CLIENT_STATUS_URL))) checkClient(principal);//驗證使用者狀態
+    private void isUserLockedOrDisabled(RequestSecurityContext context, Authentication authentication) {
+        String requestURL = context.getPath();
+        if (requestURL != null && (requestURL.contains(CLIENT_LOCK_URL) || requestURL.contains(CLIENT_STATUS_URL))) return;
+        checkClient(getPrincipal(context, authentication));//驗證使用者狀態
+    }
+
+    /**
+     * JwtAuthenticationFilter已經放進context的principal直接用，沒有才從authentication取
+     */
+    private UserDetailImpl getPrincipal(RequestSecurityContext context, Authentication authentication) {
+        if (context.getPrincipal() != null) return context.getPrincipal();
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UserDetailImpl userDetail) return userDetail;
+        return ObjectTool.convert(principal, UserDetailImpl.class);
     }
 
     /**
@@ -76,8 +83,4 @@ public class UserStatusFilter extends OncePerRequestFilter {
         LOG.error(e.getMessage());
         FilterExceptionResponse.error(response, code);
     }
-
-    private boolean notEqualWebsocketUrl(String requestedUrl) {
-        return !requestedUrl.contains("/ws");
-    }
 }
\ No newline at end of file
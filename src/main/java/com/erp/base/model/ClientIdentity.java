@@ -5,6 +5,8 @@ import com.erp.base.service.security.UserDetailImpl;
 import com.erp.base.tool.ObjectTool;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Locale;
 
@@ -16,6 +18,7 @@ import java.util.Locale;
 public class ClientIdentity {
     public static Locale defaultLocale = new Locale("zh", "TW");//預設中文
     private static final String EMPTY_USER = "anonymousUser";//SpringSecurity預設未登入使用者字段
+    private static final String PRINCIPAL_ATTRIBUTE = ClientIdentity.class.getName() + ".principal";
 
     //用dto來做常態性的用戶身分，不然懶加載"極度"難搞
     public static ClientIdentityDto getUser(){
@@ -28,11 +31,29 @@ public class ClientIdentity {
         return principal == null ? defaultLocale : principal.getLocale();
     }
 
-    private static UserDetailImpl getPrincipal(){
+    /**
+     * JwtAuthenticationFilter放的就是UserDetailImpl，直接回傳同一個實例
+     * 其他型別才需要轉換，轉換結果在同一個請求內暫存
+     * */
+    public static UserDetailImpl getPrincipal(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if(authentication == null) return null;
         Object principal = authentication.getPrincipal();
-        if(EMPTY_USER.equals(principal)) return null;
-        return ObjectTool.convert(principal, UserDetailImpl.class);
+        if(principal instanceof UserDetailImpl userDetail) return userDetail;
+        if(principal == null || EMPTY_USER.equals(principal)) return null;
+        return convertPrincipal(principal);
+    }
+
+    private static UserDetailImpl convertPrincipal(Object principal){
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if(attributes == null) return ObjectTool.convert(principal, UserDetailImpl.class);
+        Object memo = attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if(memo instanceof PrincipalMemo principalMemo && principalMemo.source() == principal) return principalMemo.userDetail();
+        UserDetailImpl userDetail = ObjectTool.convert(principal, UserDetailImpl.class);
+        attributes.setAttribute(PRINCIPAL_ATTRIBUTE, new PrincipalMemo(principal, userDetail), RequestAttributes.SCOPE_REQUEST);
+        return userDetail;
+    }
+
+    private record PrincipalMemo(Object source, UserDetailImpl userDetail) {
     }
 }
@@ -1,6 +1,9 @@
 package com.erp.base.model;
 
+import com.erp.base.model.entity.ClientModel;
+import com.erp.base.model.entity.IBaseModel;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
@@ -9,8 +12,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,23 +46,67 @@ public class GenericSpecifications<E> {
     }
 
     public Specification<E> buildAnd() {
-        return (root, query, criteriaBuilder) -> {
+        return new KeyedSpecification<>((root, query, criteriaBuilder) -> {
             Predicate[] predicates = criteriaList.stream()
                     .map(criteria -> comparison(criteriaBuilder, root, criteria))
                     .filter(Objects::nonNull)
                     .toArray(Predicate[]::new);
             return criteriaBuilder.and(predicates);
-        };
+        }, criteriaKey("AND"));
     }
 
     public Specification<E> buildOr() {
-        return (root, query, criteriaBuilder) -> {
+        return new KeyedSpecification<>((root, query, criteriaBuilder) -> {
             Predicate[] predicates = criteriaList.stream()
                     .map(criteria -> comparison(criteriaBuilder, root, criteria))
                     .filter(Objects::nonNull)
                     .toArray(Predicate[]::new);
             return criteriaBuilder.or(predicates);
-        };
+        }, criteriaKey("OR"));
+    }
+
+    /**
+     * 條件正規化成字串，和comparison()一樣略過值為null的條件，並排序(AND/OR與順序無關)
+     * 各欄位以長度前綴編碼(長度:內容)，值帶型別，避免不同條件串接後相同，最後取SHA-256
+     * 有無法轉成穩定字串的值時返回null，該查詢不能緩存
+     */
+    private String criteriaKey(String joiner) {
+        List<String> keys = new ArrayList<>();
+        for (CriteriaObject<?> criteria : criteriaList) {
+            if (criteria == null || criteria.getOperator() == null || criteria.getValue() == null) continue;
+            String value = valueKey(criteria.getValue());
+            if (value == null) return null;
+            keys.add(token(criteria.getKey()) + token(criteria.getOperator()) + value);
+        }
+        Collections.sort(keys);
+        return digest(joiner + keys.size() + ":" + String.join("", keys));
+    }
+
+    private static String valueKey(Object value) {
+        if (value instanceof ClientModel client) return "C" + token(String.valueOf(client.getId()));
+        if (value instanceof IBaseModel) return null;
+        if (value instanceof Collection<?> collection) {
+            StringBuilder builder = new StringBuilder("L").append(collection.size()).append(':');
+            for (Object item : collection) {
+                String key = valueKey(item);
+                if (key == null) return null;
+                builder.append(key);
+            }
+            return builder.toString();
+        }
+        return "V" + token(value.getClass().getName()) + token(String.valueOf(value));
+    }
+
+    private static String token(String text) {
+        return text.length() + ":" + text;
+    }
+
+    private static String digest(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -89,6 +142,50 @@ public class GenericSpecifications<E> {
         return null;
     }
 
+    /**
+     * 帶有條件字串的Specification，用於查詢結果緩存的key
+     * 和其他KeyedSpecification組合(and/or)時保留組合後的條件字串，和其他Specification組合則沒有
+     * 組合的條件字串由固定長度的雜湊和括號組成，不會和其他組合重複
+     */
+    public static class KeyedSpecification<E> implements Specification<E> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final Specification<E> delegate;
+        private final String key;
+
+        KeyedSpecification(Specification<E> delegate, String key) {
+            this.delegate = delegate;
+            this.key = key;
+        }
+
+        /**
+         * @return 條件字串，null表示不能緩存
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Predicate toPredicate(Root<E> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+            return delegate.toPredicate(root, query, criteriaBuilder);
+        }
+
+        @Override
+        public Specification<E> and(Specification<E> other) {
+            return new KeyedSpecification<>(Specification.super.and(other), compose("AND", other));
+        }
+
+        @Override
+        public Specification<E> or(Specification<E> other) {
+            return new KeyedSpecification<>(Specification.super.or(other), compose("OR", other));
+        }
+
+        private String compose(String joiner, Specification<E> other) {
+            if (key == null || !(other instanceof KeyedSpecification<E> keyed) || keyed.key == null) return null;
+            return joiner + "(" + key + "," + keyed.key + ")";
+        }
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -0,0 +1,161 @@
+package com.erp.base.model;
+
+import com.erp.base.model.dto.response.SliceResponse;
+import com.erp.base.tool.ObjectTool;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 游標(keyset)分頁
+ * 依排序欄位查「上一頁最後一筆之後」的資料，多查一筆判斷有沒有下一頁，不用OFFSET也不COUNT，第N頁和第1頁成本相同
+ * 排序最後固定補上id確保順序唯一；游標是最後一筆各排序欄位的值加上排序簽章，Base64後不透明，排序改變時舊游標失效
+ * null視為最小值(SQL Server、H2的預設)，排序欄位需為基本型別的屬性，可用a.b指定關聯的屬性
+ */
+public class KeysetPageable {
+    private static final String ID = "id";
+    private static final String SORT_KEY = "s";
+    private static final String VALUES_KEY = "v";
+    private final Sort sort;
+    private final int size;
+    private final List<?> after;
+
+    private KeysetPageable(Sort sort, int size, List<?> after) {
+        this.sort = sort;
+        this.size = size;
+        this.after = after;
+    }
+
+    /**
+     * @param cursor 上一頁返回的nextCursor，空字串或null為第一頁
+     */
+    public static KeysetPageable of(List<Sort.Order> orders, int size, String cursor) {
+        List<Sort.Order> list = new ArrayList<>(orders);
+        if (list.stream().noneMatch(order -> ID.equals(order.getProperty()))) list.add(Sort.Order.asc(ID));
+        Sort sort = Sort.by(list);
+        return new KeysetPageable(sort, Math.max(size, 1), decode(cursor, sort));
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * 查詢下一頁，原本的條件再加上游標條件
+     */
+    public <E, C> SliceResponse<C> find(JpaSpecificationExecutor<E> repository, Specification<E> specification, Class<C> clazz) {
+        Specification<E> where = Specification.where(specification).and(seek());
+        List<E> rows = repository.findBy(where, query -> query.sortBy(sort).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? encode(content.get(size - 1)) : null;
+        return new SliceResponse<>(new SliceImpl<>(content, PageRequest.of(0, size, sort), hasNext), clazz, next);
+    }
+
+    /**
+     * (a > x) OR (a = x AND b > y) OR ...，降冪的欄位改用 <，null的處理依null為最小值
+     * @return 第一頁返回null(不加條件)
+     */
+    <E> Specification<E> seek() {
+        if (after == null) return null;
+        List<Sort.Order> orders = sort.toList();
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> or = new ArrayList<>();
+            List<Predicate> equals = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                Sort.Order order = orders.get(i);
+                Path<Comparable<Object>> path = path(root, order.getProperty());
+                Comparable<Object> value = value(after.get(i), path.getJavaType());
+                Predicate next = next(criteriaBuilder, path, value, order.isAscending());
+                if (next != null) {
+                    List<Predicate> and = new ArrayList<>(equals);
+                    and.add(next);
+                    or.add(criteriaBuilder.and(and.toArray(Predicate[]::new)));
+                }
+                equals.add(value == null ? criteriaBuilder.isNull(path) : criteriaBuilder.equal(path, value));
+            }
+            return or.isEmpty() ? criteriaBuilder.disjunction() : criteriaBuilder.or(or.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * 最後一筆的排序欄位值編成游標
+     */
+    String encode(Object entity) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(entity);
+        List<Object> values = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Object value = wrapper.isReadableProperty(order.getProperty()) ? wrapper.getPropertyValue(order.getProperty()) : null;
+            if (value != null && !isBasic(value)) throw new IllegalStateException("keyset sort property must be a basic attribute: " + order.getProperty());
+            values.add(value);
+        }
+        String json = ObjectTool.toJson(Map.of(SORT_KEY, signature(sort), VALUES_KEY, values));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<?> decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) return null;
+        Map<String, Object> map;
+        try {
+            map = ObjectTool.fromJson(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("invalid cursor");
+        }
+        if (!signature(sort).equals(map.get(SORT_KEY)) || !(map.get(VALUES_KEY) instanceof List<?> values) || values.size() != sort.toList().size()) {
+            throw new IllegalStateException("cursor does not match sort");
+        }
+        return values;
+    }
+
+    private static String signature(Sort sort) {
+        return sort.stream().map(order -> order.getProperty() + ":" + order.getDirection()).collect(Collectors.joining(","));
+    }
+
+    private static Predicate next(CriteriaBuilder criteriaBuilder, Path<Comparable<Object>> path, Comparable<Object> value, boolean ascending) {
+        if (ascending) return value == null ? criteriaBuilder.isNotNull(path) : criteriaBuilder.greaterThan(path, value);
+        return value == null ? null : criteriaBuilder.or(criteriaBuilder.lessThan(path, value), criteriaBuilder.isNull(path));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Path<Comparable<Object>> path(Root<E> root, String property) {
+        Path<?> path = root;
+        for (String name : property.split("\\.")) path = path.get(name);
+        return (Path<Comparable<Object>>) path;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> value(Object raw, Class<?> type) {
+        if (raw == null) return null;
+        try {
+            return (Comparable<Object>) ObjectTool.convert(raw, type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("invalid cursor");
+        }
+    }
+
+    private static boolean isBasic(Object value) {
+        return value instanceof Number || value instanceof CharSequence || value instanceof Boolean || value instanceof Enum<?>
+                || value instanceof Temporal || value instanceof Date || value instanceof UUID;
+    }
+}
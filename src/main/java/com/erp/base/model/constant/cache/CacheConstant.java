@@ -4,11 +4,13 @@ package com.erp.base.model.constant.cache;
  * */
 public interface CacheConstant {
     String SPLIT_CONSTANT = ":";
+    String ALL = "*";
+    //跨節點本地緩存失效通知的頻道
+    String INVALIDATE_CHANNEL = "cacheInvalidate";
     interface CLIENT{
         String NAME_CLIENT = "client";
         String CLIENT = "client_";
         String CLIENT_NAME_LIST = "clientNameList";
-        String SYSTEM_USER = "systemUser";
     }
 
     interface ROLE_PERMISSION{
@@ -17,7 +19,6 @@ public interface CacheConstant {
         String PERMISSIONS = "permissions";
         String PERMISSIONS_MAP = "permissionMap";
         String ROLE_PERMISSION = "rolePermission_";
-        String PERMISSION_STATUS = "permissionStatus_";
         String DEPARTMENT = "department_";
         String MENU_TREE = "menuTree";
         String ROLE_MENU = "roleMenu_";
@@ -29,7 +30,13 @@ public interface CacheConstant {
     interface OTHER{
         String OTHER = "other";
         String SYSTEM_DEPARTMENT = "systemDepartment";
-        String SYSTEM_PROJECT = "systemProject";
-        String SYSTEM_PROCURE = "systemProcure";
+    }
+    //分頁列表查詢結果(StringRedisTemplate)，不經過CacheManager
+    interface QUERY{
+        String QUERY = "query";
+    }
+    //首頁系統資訊計數(Redis hash)，不經過CacheManager
+    interface SYSTEM_INFO{
+        String SYSTEM_INFO = "systemInfo";
     }
 }
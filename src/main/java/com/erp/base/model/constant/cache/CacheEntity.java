@@ -0,0 +1,35 @@
+package com.erp.base.model.constant.cache;
+
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * 緩存資料的來源實體，以及各自異動時要失效的緩存key
+ * 節點內由這些key衍生的緩存(權限快照、路徑權限表)在收到對應key的失效通知時各自處理
+ * 異動時也一併更新該實體的分頁查詢緩存版本(QueryCache)
+ */
+public enum CacheEntity {
+    ROLE(List.of(id -> CacheKey.ROLES, CacheKey.ROLE_PERMISSION::of, CacheKey.ROLE_MENU::of)),
+    //角色清單內含權限狀態，權限開關時一併失效
+    PERMISSION(List.of(id -> CacheKey.PERMISSIONS, id -> CacheKey.PERMISSIONS_MAP, id -> CacheKey.ROLES)),
+    DEPARTMENT(List.of(CacheKey.DEPARTMENT::of, id -> CacheKey.SYSTEM_DEPARTMENT)),
+    //以下只有分頁查詢緩存
+    LEAVE,
+    PERFORMANCE,
+    PROCUREMENT,
+    SALARY;
+
+    private final List<LongFunction<CacheKey>> dependents;
+
+    CacheEntity() {
+        this(List.of());
+    }
+
+    CacheEntity(List<LongFunction<CacheKey>> dependents) {
+        this.dependents = dependents;
+    }
+
+    public List<CacheKey> dependentKeys(long id) {
+        return dependents.stream().map(dependent -> dependent.apply(id)).toList();
+    }
+}
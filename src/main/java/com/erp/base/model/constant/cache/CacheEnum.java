@@ -3,18 +3,30 @@ package com.erp.base.model.constant.cache;
  * cache組的相關設定
  * */
 public enum CacheEnum {
-    CLIENT(CacheConstant.CLIENT.NAME_CLIENT, 30),
-    ROLE_PERMISSION(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION, 60),
-    TOKEN_BLACK_LIST(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST, 60 * 6),
-    OTHER(CacheConstant.OTHER.OTHER, 60 * 6)
+    CLIENT(CacheConstant.CLIENT.NAME_CLIENT, 30, CacheFormat.SMILE, 1024),//只放DTO
+    ROLE_PERMISSION(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION, 60, CacheFormat.JDK, 1024),
+    TOKEN_BLACK_LIST(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST, 60 * 6, CacheFormat.JDK, -1),
+    OTHER(CacheConstant.OTHER.OTHER, 60 * 6, CacheFormat.JDK, 1024)
     ;
 
     private final String enumName;
     private final int ttl;//min
+    private final CacheFormat format;
+    private final int compressThreshold;//byte，小於0不壓縮
 
-    CacheEnum(String enumName, int ttl) {
+    CacheEnum(String enumName, int ttl, CacheFormat format, int compressThreshold) {
         this.enumName = enumName;
         this.ttl = ttl;
+        this.format = format;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public CacheFormat getFormat() {
+        return format;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
     }
 
     public String getEnumName() {
@@ -0,0 +1,14 @@
+package com.erp.base.model.constant.cache;
+
+/**
+ * 緩存值的序列化格式
+ * JDK: java序列化，實體類都可用
+ * JSON: Jackson(帶類別資訊)，懶加載的實體不適用
+ * SMILE: Jackson的二進位格式(帶類別資訊)，欄位名和重複字串用參照，比JDK和JSON小、編解碼快，適用DTO，懶加載的實體不適用
+ * 序號寫在緩存資料內，只能往後新增
+ */
+public enum CacheFormat {
+    JDK,
+    JSON,
+    SMILE
+}
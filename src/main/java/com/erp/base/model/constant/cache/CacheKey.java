@@ -0,0 +1,133 @@
+package com.erp.base.model.constant.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 緩存key
+ * toString()為'cacheName:cacheKey'(失效通知格式)，redisKey()為Redis實際存的key('cacheName::cacheKey')
+ * 帶ID的key由Family產生，前綴字串和前綴byte[]都預先建好，組Redis key時只需補上ID的數字
+ */
+public final class CacheKey {
+    //Redis的key前綴，和RedisCacheConfiguration預設的CacheKeyPrefix.simple()相同
+    private static final String REDIS_SEPARATOR = "::";
+
+    public static final CacheKey CLIENT_NAME_LIST = new CacheKey(CacheEnum.CLIENT, CacheConstant.CLIENT.CLIENT_NAME_LIST);
+    public static final CacheKey ROLES = new CacheKey(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.ROLES);
+    public static final CacheKey PERMISSIONS = new CacheKey(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.PERMISSIONS);
+    public static final CacheKey PERMISSIONS_MAP = new CacheKey(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.PERMISSIONS_MAP);
+    public static final CacheKey MENU_TREE = new CacheKey(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.MENU_TREE);
+    public static final CacheKey SYSTEM_DEPARTMENT = new CacheKey(CacheEnum.OTHER, CacheConstant.OTHER.SYSTEM_DEPARTMENT);
+
+    public static final Family CLIENT = new Family(CacheEnum.CLIENT, CacheConstant.CLIENT.CLIENT);
+    public static final Family ROLE_PERMISSION = new Family(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.ROLE_PERMISSION);
+    public static final Family ROLE_MENU = new Family(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.ROLE_MENU);
+    public static final Family DEPARTMENT = new Family(CacheEnum.ROLE_PERMISSION, CacheConstant.ROLE_PERMISSION.DEPARTMENT);
+
+    private final CacheEnum cache;
+    private final String key;
+    private final byte[] redisKey;
+
+    private CacheKey(CacheEnum cache, String key) {
+        this(cache, key, (cache.getEnumName() + REDIS_SEPARATOR + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CacheKey(CacheEnum cache, String key, byte[] redisKey) {
+        this.cache = cache;
+        this.key = key;
+        this.redisKey = redisKey;
+    }
+
+    public String getCacheName() {
+        return cache.getEnumName();
+    }
+
+    public CacheEnum getCache() {
+        return cache;
+    }
+
+    /**
+     * cacheName內的key，和@Cacheable的key相同
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public byte[] redisKey() {
+        return redisKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey other)) return false;
+        return cache == other.cache && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cache, key);
+    }
+
+    @Override
+    public String toString() {
+        return cache.getEnumName() + CacheConstant.SPLIT_CONSTANT + key;
+    }
+
+    /**
+     * 同一前綴、後面接ID的一組key
+     */
+    public static final class Family {
+        private final CacheEnum cache;
+        private final String prefix;
+        private final byte[] redisPrefix;
+        private final String message;
+
+        private Family(CacheEnum cache, String prefix) {
+            this.cache = cache;
+            this.prefix = prefix.intern();
+            this.redisPrefix = (cache.getEnumName() + REDIS_SEPARATOR + prefix).getBytes(StandardCharsets.UTF_8);
+            this.message = (cache.getEnumName() + CacheConstant.SPLIT_CONSTANT + prefix).intern();
+        }
+
+        public CacheKey of(long id) {
+            String digits = Long.toString(id);
+            byte[] redisKey = Arrays.copyOf(redisPrefix, redisPrefix.length + digits.length());
+            for (int i = 0; i < digits.length(); i++) {
+                redisKey[redisPrefix.length + i] = (byte) digits.charAt(i);
+            }
+            return new CacheKey(cache, prefix.concat(digits), redisKey);
+        }
+
+        /**
+         * 給@Cacheable的SpEL用
+         */
+        public String key(long id) {
+            return prefix.concat(Long.toString(id));
+        }
+
+        /**
+         * @return key屬於這組時返回後面的ID，否則返回null
+         */
+        public Long idOf(Object key) {
+            if (!(key instanceof String text) || text.length() <= prefix.length() || !text.startsWith(prefix)) return null;
+            try {
+                return Long.parseLong(text.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public String getCacheName() {
+            return cache.getEnumName();
+        }
+
+        /**
+         * 這組key的失效通知前綴('cacheName:prefix')
+         */
+        public String messagePrefix() {
+            return message;
+        }
+    }
+}
@@ -26,6 +26,8 @@ public enum ApiResponseCode {
     NAME_ALREADY_EXIST(HttpStatus.BAD_REQUEST, "response.nameAlreadyExists"),
     SUCCESS(HttpStatus.OK, "response.success"),
     UNKNOWN_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "response.unknownError"),
+    SERVICE_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "response.serviceBusy"),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "response.tooManyRequests"),
     SECURITY_ERROR(HttpStatus.BAD_REQUEST, "response.securityError"),
     IDENTITY_ERROR(HttpStatus.FORBIDDEN, "response.identityError"),
     SIGN_FAILED(HttpStatus.INTERNAL_SERVER_ERROR, "response.signFailed"),
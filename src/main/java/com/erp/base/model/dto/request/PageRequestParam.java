@@ -1,5 +1,6 @@
 package com.erp.base.model.dto.request;
 
+import com.erp.base.model.KeysetPageable;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import org.springframework.data.domain.PageRequest;
@@ -24,13 +25,43 @@ public class PageRequestParam {
     @Schema(description = "排序屬性依據, list傳入依照順序排序", defaultValue = "id")
     private List<String> sortBy;
 
+    @Schema(description = "游標分頁, 第一頁傳空字串, 之後傳上一頁返回的nextCursor, 不計總數也不用pageNum; 不傳則為一般分頁")
+    private String cursor;
+
     public PageRequest getPage() {
+        handleDefault();
+        pageNum--;
+        return PageRequest.of(pageNum, pageSize, Sort.by(handleOrders()));
+    }
+
+    /**
+     * 是否使用游標分頁
+     * */
+    public boolean keysetMode() {
+        return cursor != null;
+    }
+
+    /**
+     * 游標分頁，排序同getPage，最後補上id
+     * */
+    public KeysetPageable getKeyset() {
+        handleDefault();
+        return KeysetPageable.of(handleOrders(), pageSize, cursor);
+    }
+
+    /**
+     * 不分頁時的排序(匯出用)，同getPage
+     * */
+    public Sort toSort() {
+        handleDefault();
+        return Sort.by(handleOrders());
+    }
+
+    private void handleDefault() {
         if(pageNum == null) this.pageNum = 1;
         if(pageSize == null) this.pageSize = 10;
         if(sort == null || sort.isEmpty()) this.sort = Collections.singletonList(1);
         if(sortBy == null || sortBy.isEmpty()) this.sortBy = Collections.singletonList("id");
-        pageNum--;
-        return PageRequest.of(pageNum, pageSize, Sort.by(handleOrders()));
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.erp.base.model.dto.request.attend;
+
+import com.erp.base.model.GenericSpecifications;
+import com.erp.base.model.dto.request.IBaseDto;
+import com.erp.base.model.dto.request.PageRequestParam;
+import com.erp.base.model.entity.AttendModel;
+import com.erp.base.model.entity.ClientModel;
+import com.erp.base.tool.DateTool;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Schema(description = "出缺勤共用請求")
+public class AttendRequest extends PageRequestParam implements IBaseDto<AttendModel> {
+    @Schema(description = "用戶ID")
+    private Long userId;
+    @Schema(description = "開始日期")
+    @DateTimeFormat(pattern = DateTool.YYYY_MM_DD)
+    private LocalDate startDate;
+    @Schema(description = "結束日期")
+    @DateTimeFormat(pattern = DateTool.YYYY_MM_DD)
+    private LocalDate endDate;
+
+    @Override
+    public AttendModel toModel() {
+        return null;
+    }
+
+    @Override
+    @JsonIgnore
+    public Specification<AttendModel> getSpecification() {
+        GenericSpecifications<AttendModel> genericSpecifications = new GenericSpecifications<>();
+        return genericSpecifications
+                .add("user", GenericSpecifications.EQ, userId == null ? null : new ClientModel(userId))
+                .add("date", GenericSpecifications.GOE, startDate)
+                .add("date", GenericSpecifications.LOE, endDate)
+                .buildAnd();
+    }
+}
@@ -0,0 +1,50 @@
+package com.erp.base.model.dto.request.log;
+
+import com.erp.base.model.GenericSpecifications;
+import com.erp.base.model.dto.request.IBaseDto;
+import com.erp.base.model.entity.LogRollupModel;
+import com.erp.base.tool.DateTool;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "日誌統計請求")
+public class LogRollupRequest implements IBaseDto<LogRollupModel> {
+    //沒給開始時間時統計最近的小時數
+    private static final long DEFAULT_HOURS = 24;
+    @Schema(description = "操作人")
+    private String user;
+    @Schema(description = "請求路徑")
+    private String url;
+    @Schema(description = "日誌狀態")
+    private Boolean status;
+    @Schema(description = "開始時間(預設24小時前)")
+    @DateTimeFormat(pattern = DateTool.YYYY_MM_DD_T_HH_MM_SS)
+    private LocalDateTime startTime;
+    @Schema(description = "結束時間")
+    @DateTimeFormat(pattern = DateTool.YYYY_MM_DD_T_HH_MM_SS)
+    private LocalDateTime endTime;
+
+    @Override
+    public LogRollupModel toModel() {
+        return null;
+    }
+
+    @Override
+    @JsonIgnore
+    public Specification<LogRollupModel> getSpecification() {
+        GenericSpecifications<LogRollupModel> genericSpecifications = new GenericSpecifications<>();
+        return genericSpecifications
+                .add("userName", GenericSpecifications.EQ, user)
+                .add("url", GenericSpecifications.EQ, url)
+                .add("status", GenericSpecifications.EQ, status)
+                .add("bucket", GenericSpecifications.GOE, startTime == null ? DateTool.now().minusHours(DEFAULT_HOURS) : startTime)
+                .add("bucket", GenericSpecifications.LOE, endTime)
+                .buildAnd();
+    }
+}
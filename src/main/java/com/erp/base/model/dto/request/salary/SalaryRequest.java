@@ -58,4 +58,15 @@ public class SalaryRequest extends PageRequestParam implements IBaseDto<SalaryMo
                 .add("root", GenericSpecifications.EQ, true)
                 .buildAnd();
     }
+
+    //匯出用，root未傳時薪資設定和薪資單都匯出
+    @JsonIgnore
+    public Specification<SalaryModel> getExportSpecification() {
+        GenericSpecifications<SalaryModel> genericSpecifications = new GenericSpecifications<>();
+        return genericSpecifications
+                .add("id", GenericSpecifications.EQ, id)
+                .add("user", GenericSpecifications.EQ, userId == null ? null : new ClientModel(userId))
+                .add("root", GenericSpecifications.EQ, root)
+                .buildAnd();
+    }
 }
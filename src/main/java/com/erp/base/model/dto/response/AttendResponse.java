@@ -0,0 +1,24 @@
+package com.erp.base.model.dto.response;
+
+import com.erp.base.model.entity.AttendModel;
+import com.erp.base.tool.DateTool;
+import lombok.Data;
+
+@Data
+public class AttendResponse {
+    private long id;
+    private ClientNameObject user;
+    private String date;
+    private String attendTime;
+    private String leaveTime;
+    private String remarks;
+
+    public AttendResponse(AttendModel model) {
+        this.id = model.getId();
+        this.user = new ClientNameObject(model.getUser());
+        this.date = DateTool.formatDate(model.getDate());
+        this.attendTime = DateTool.format(model.getAttendTime());
+        this.leaveTime = DateTool.format(model.getLeaveTime());
+        this.remarks = model.getRemarks();
+    }
+}
@@ -2,10 +2,12 @@ package com.erp.base.model.dto.response;
 
 import com.erp.base.model.entity.ClientModel;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 
 @Data
+@NoArgsConstructor
 public class ClientNameObject implements Serializable {
     private Long id;
     private String username;
@@ -75,10 +75,13 @@ public class ClientResponseModel implements Serializable {
         this.createBy = createName;
         this.mustUpdatePassword = clientModel.isMustUpdatePassword();
         this.attendStatus = clientModel.getAttendStatus();
-        DepartmentNameResponse departmentResponse = new DepartmentNameResponse();
         DepartmentResponse clientDepartment = clientModel.getDepartment();
-        departmentResponse.setId(clientDepartment.getId());
-        departmentResponse.setName(clientDepartment.getName());
-        this.department = departmentResponse;
+        //沒有所屬部門時DTO內是空物件(id為0)
+        if (clientDepartment != null && clientDepartment.getId() != 0) {
+            DepartmentNameResponse departmentResponse = new DepartmentNameResponse();
+            departmentResponse.setId(clientDepartment.getId());
+            departmentResponse.setName(clientDepartment.getName());
+            this.department = departmentResponse;
+        }
     }
 }
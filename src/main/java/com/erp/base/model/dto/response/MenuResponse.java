@@ -29,4 +29,16 @@ public class MenuResponse implements Serializable {
         this.level = model.getLevel();
         this.order = model.getOrderNum();
     }
+
+    //組樹用，複製節點避免改到緩存內的原始物件
+    public MenuResponse(MenuResponse source, List<MenuResponse> child) {
+        this.id = source.id;
+        this.name = source.name;
+        this.path = source.path;
+        this.icon = source.icon;
+        this.parentsId = source.parentsId;
+        this.child = child;
+        this.level = source.level;
+        this.order = source.order;
+    }
 }
@@ -0,0 +1,26 @@
+package com.erp.base.model.dto.response;
+
+import com.erp.base.tool.DtoMapper;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * 游標分頁的結果，不含總筆數/總頁數
+ * nextCursor帶回請求的cursor取下一頁，沒有下一頁時為null
+ * */
+@Data
+public class SliceResponse<C> {
+    private List<C> data;
+    private int pageSize;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public SliceResponse(Slice<?> slice, Class<C> clazz, String nextCursor) {
+        this.data = slice.getContent().stream().map(obj -> DtoMapper.map(obj, clazz)).toList();
+        this.pageSize = slice.getSize();
+        this.hasNext = slice.hasNext();
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,56 @@
+package com.erp.base.model.dto.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.*;
+
+/**
+ * 用戶有效權限的快照，依角色組合預先合併好
+ * 建立後不可變，每次請求直接拿同一份authorities，不用再重新合併各角色的權限
+ */
+public final class AuthoritySnapshot {
+    private final long version;
+    private final List<Long> roleIds;
+    private final long[] permissionIds;//已排序
+    private final List<GrantedAuthority> authorities;
+
+    private AuthoritySnapshot(long version, List<Long> roleIds, long[] permissionIds, List<GrantedAuthority> authorities) {
+        this.version = version;
+        this.roleIds = roleIds;
+        this.permissionIds = permissionIds;
+        this.authorities = authorities;
+    }
+
+    /**
+     * 合併多個角色的權限，依權限id去重排序
+     */
+    public static AuthoritySnapshot of(long version, List<Long> roleIds, Collection<? extends Collection<RolePermissionDto>> rolePermissions) {
+        TreeMap<Long, RolePermissionDto> merged = new TreeMap<>();
+        for (Collection<RolePermissionDto> permissions : rolePermissions) {
+            if (permissions == null) continue;
+            permissions.forEach(permission -> merged.putIfAbsent(permission.getId(), permission));
+        }
+        long[] ids = new long[merged.size()];
+        int i = 0;
+        for (Long id : merged.keySet()) {
+            ids[i++] = id;
+        }
+        return new AuthoritySnapshot(version, List.copyOf(roleIds), ids, List.copyOf(merged.values()));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isSameRoles(List<Long> roleIds) {
+        return this.roleIds.equals(roleIds);
+    }
+
+    public boolean hasPermission(long permissionId) {
+        return Arrays.binarySearch(permissionIds, permissionId) >= 0;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
  * 日誌
  */
 @Entity
-@Table(name = "log")
+@Table(name = "log", indexes = @Index(name = "idx_log_time", columnList = "time"))
 @Getter
 @Setter
 public class LogModel implements IBaseModel {
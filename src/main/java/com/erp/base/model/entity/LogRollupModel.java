@@ -0,0 +1,42 @@
+package com.erp.base.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日誌每小時彙總，依路徑、操作人、狀態分組計數
+ */
+@Entity
+@Table(name = "log_rollup", indexes = @Index(name = "idx_log_rollup_bucket", columnList = "bucket"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class LogRollupModel implements IBaseModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private long id;
+    //該小時的開始時間
+    @Column(name = "bucket", nullable = false)
+    private LocalDateTime bucket;
+    @Column(name = "url")
+    private String url;
+    @Column(name = "user_name")
+    private String userName;
+    @Column(name = "status")
+    private Boolean status;
+    @Column(name = "count", nullable = false)
+    private long count;
+
+    public LogRollupModel(LocalDateTime bucket, String url, String userName, Boolean status, long count) {
+        this.bucket = bucket;
+        this.url = url;
+        this.userName = userName;
+        this.status = status;
+        this.count = count;
+    }
+}
@@ -0,0 +1,34 @@
+package com.erp.base.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * JWT簽章金鑰，多節點共用
+ */
+@Entity
+@Table(name = "signing_key")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SigningKeyModel {
+    @Id
+    @Column(name = "kid", length = 64)
+    private String kid;
+    //X.509編碼後Base64
+    @Column(name = "public_key", length = 1000, nullable = false)
+    private String publicKey;
+    //PKCS#8編碼後Base64，再加密
+    @Column(name = "private_key", length = 4000, nullable = false)
+    private String privateKey;
+    //建立時間(epoch毫秒)，各節點時區不同也能直接比較
+    @Column(name = "create_time", nullable = false)
+    private long createTime;
+}
@@ -11,6 +11,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -21,6 +23,8 @@ public interface ClientRepository extends JpaRepository<ClientModel, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByUsernameAndEmail(String username, String email);
+
+    boolean existsByIdAndUsername(long id, String username);
     @Modifying
     @Query("UPDATE ClientModel c " +
             "SET c.password = :password, c.mustUpdatePassword = :status " +
@@ -29,23 +33,30 @@ public interface ClientRepository extends JpaRepository<ClientModel, Long> {
             "AND (:email IS NULL OR c.email = :email)")
     int updatePasswordByUsernameAndEmailAndId(String password, boolean status, String username, String email,Long id);
     @Modifying
-    @Query("UPDATE ClientModel c SET c.isLock = :status WHERE c.id = :clientId AND c.username = :username")
+    @Query("UPDATE ClientModel c SET c.isLock = :status WHERE c.id = :clientId AND c.username = :username AND c.isLock <> :status")
     int lockClientByIdAndUsername(long clientId, String username, boolean status);
     @Modifying
-    @Query("UPDATE ClientModel c SET c.isActive = :status WHERE c.id = :clientId AND c.username = :username")
+    @Query("UPDATE ClientModel c SET c.isActive = :status WHERE c.id = :clientId AND c.username = :username AND c.isActive <> :status")
     int switchClientStatusByIdAndUsername(long clientId, String username, boolean status);
     Page<ClientModel> findByUsernameContaining(String name, PageRequest page);
+    @Modifying
+    @Query("UPDATE ClientModel c SET c.lastLoginTime = :time WHERE c.id = :id")
+    int updateLastLoginTime(long id, LocalDateTime time);
     @Query("SELECT u FROM ClientModel u WHERE u.isActive AND u.isLock = false " +
             "AND NOT EXISTS " +
             "(SELECT a FROM AttendModel a WHERE a.date = :date AND a.user = u)")
     Set<ClientModel> findActiveUserAndNotExistAttend(LocalDate date);
+    @Query("SELECT u.id FROM ClientModel u WHERE u.isActive AND u.isLock = false AND u.attendStatus <> 1 " +
+            "AND EXISTS " +
+            "(SELECT 1 FROM AttendModel a WHERE a.date = :date AND a.user = u)")
+    List<Long> findIdsToResetAttendStatus(LocalDate date);
     @Modifying
-    @Query("UPDATE ClientModel u SET u.attendStatus = 1 WHERE u.isActive AND u.isLock = false " +
+    @Query("UPDATE ClientModel u SET u.attendStatus = 1 WHERE u.isActive AND u.isLock = false AND u.attendStatus <> 1 " +
             "AND EXISTS " +
             "(SELECT 1 FROM AttendModel a WHERE a.date = :date AND a.user = u)")
     void updateClientAttendStatus(LocalDate date);
     @Modifying
-    @Query("UPDATE ClientModel u SET u.attendStatus = :status WHERE u.id = :id")
+    @Query("UPDATE ClientModel u SET u.attendStatus = :status WHERE u.id = :id AND u.attendStatus <> :status")
     int updateClientAttendStatus(long id, int status);
     //如果是主管(level1) or 管理層(level3)
     @Query("SELECT u FROM ClientModel u JOIN u.roles r WHERE (u.department.id = :departmentId AND r.level = :level1) OR r.level = :levelAll")
@@ -67,6 +78,10 @@ public interface ClientRepository extends JpaRepository<ClientModel, Long> {
             ")) " +
             " FROM ClientModel c WHERE c.id = :id ")
     AnnualLeaveDto getClientLeave(long id);
+    @Query("SELECT c.id FROM ClientModel c WHERE c.lastLoginTime IS NOT NULL ORDER BY c.lastLoginTime DESC")
+    List<Long> findRecentLoginId(PageRequest page);
+    @Query("SELECT DISTINCT c FROM ClientModel c LEFT JOIN FETCH c.roles LEFT JOIN FETCH c.department WHERE c.id IN :ids")
+    List<ClientModel> findWithRolesByIdIn(Collection<Long> ids);
     @Query("SELECT COALESCE(SUM(CASE WHEN c.attendStatus <> 1 THEN 1 ELSE 0 END), 0) AS sum, COUNT(c) AS num FROM ClientModel c WHERE c.isLock <> true AND c.isActive <> false")
     List<Object[]> getSystemUser();
 }
@@ -1,10 +1,33 @@
 package com.erp.base.repository;
 
 import com.erp.base.model.entity.LogModel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface LogRepository extends JpaRepository<LogModel, Long>, JpaSpecificationExecutor<LogModel> {
+    @Query("SELECT MIN(l.time) FROM LogModel l")
+    LocalDateTime findFirstTime();
+
+    @Query("SELECT MIN(l.time) FROM LogModel l WHERE l.time >= :from")
+    LocalDateTime findFirstTimeFrom(LocalDateTime from);
+
+    /**
+     * 區間內依路徑、操作人、狀態分組的筆數
+     * @return [url, userName, status, count]
+     */
+    @Query("SELECT l.url, l.userName, l.status, COUNT(l) FROM LogModel l WHERE l.time >= :from AND l.time < :to GROUP BY l.url, l.userName, l.status")
+    List<Object[]> countGroupBy(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 依時間由舊到新，每批沿著idx_log_time往後取
+     */
+    @Query("SELECT l.id FROM LogModel l WHERE l.time < :before ORDER BY l.time, l.id")
+    List<Long> findIdsBefore(LocalDateTime before, Pageable pageable);
 }
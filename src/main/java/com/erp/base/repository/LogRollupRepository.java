@@ -0,0 +1,24 @@
+package com.erp.base.repository;
+
+import com.erp.base.model.entity.LogRollupModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LogRollupRepository extends JpaRepository<LogRollupModel, Long>, JpaSpecificationExecutor<LogRollupModel> {
+    @Query("SELECT MAX(r.bucket) FROM LogRollupModel r")
+    LocalDateTime findLastBucket();
+
+    @Modifying
+    @Query("DELETE FROM LogRollupModel r WHERE r.bucket >= :from AND r.bucket < :to")
+    int deleteByBucketBetween(LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM LogRollupModel r WHERE r.bucket < :before")
+    int deleteByBucketBefore(LocalDateTime before);
+}
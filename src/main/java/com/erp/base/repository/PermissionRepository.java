@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PermissionRepository extends JpaRepository<PermissionModel, Long> {
-    @Modifying
+    @Modifying(clearAutomatically = true)
     @Query("UPDATE PermissionModel p SET p.status = :status WHERE p.id = :id")
     void updateStatusById(long id, boolean status);
     @Query("SELECT p.status FROM PermissionModel p WHERE p.url = :requestUrl")
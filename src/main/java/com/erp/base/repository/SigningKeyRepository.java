@@ -0,0 +1,9 @@
+package com.erp.base.repository;
+
+import com.erp.base.model.entity.SigningKeyModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKeyModel, String> {
+}
@@ -1,14 +1,19 @@
 package com.erp.base.service;
 
 import com.erp.base.model.ClientIdentity;
-import com.erp.base.model.constant.cache.CacheConstant;
 import com.erp.base.model.constant.response.ApiResponseCode;
+import com.erp.base.model.dto.request.attend.AttendRequest;
 import com.erp.base.model.dto.response.ApiResponse;
+import com.erp.base.model.dto.response.AttendResponse;
 import com.erp.base.model.dto.response.ClientResponseModel;
 import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.entity.AttendModel;
 import com.erp.base.repository.AttendRepository;
+import com.erp.base.service.export.ExportColumn;
+import com.erp.base.service.export.ExportFormat;
+import com.erp.base.service.export.ExportService;
 import com.erp.base.tool.DateTool;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
@@ -16,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,15 +29,29 @@ import java.util.List;
 @Service
 @Transactional
 public class AttendService {
+    private static final List<ExportColumn<AttendResponse>> EXPORT_COLUMNS = List.of(
+            new ExportColumn<>("ID", AttendResponse::getId),
+            new ExportColumn<>("用戶ID", response -> response.getUser().getId()),
+            new ExportColumn<>("用戶", response -> response.getUser().getUsername()),
+            new ExportColumn<>("日期", AttendResponse::getDate),
+            new ExportColumn<>("簽到時間", AttendResponse::getAttendTime),
+            new ExportColumn<>("簽退時間", AttendResponse::getLeaveTime),
+            new ExportColumn<>("備註", AttendResponse::getRemarks)
+    );
     private AttendRepository attendRepository;
     private ClientService clientService;
     private CacheService cacheService;
+    private ExportService exportService;
 
     @Autowired
     public void setCacheService(CacheService cacheService) {
         this.cacheService = cacheService;
     }
     @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
+    @Autowired
     public void setClientService(@Lazy ClientService clientService){
         this.clientService = clientService;
     }
@@ -57,9 +77,8 @@ public class AttendService {
         int status = 1;
         switch(type){
             case 1 -> {
+                //系統用戶計數在更新打卡狀態時增減
                 count = attendRepository.signIn(user.getId(), nowDate, nowTime);
-                //有用戶打卡就刷新系統用戶數量緩存
-                cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.SYSTEM_USER);
                 status = 2;
             }
             case 2 -> {
@@ -80,4 +99,12 @@ public class AttendService {
     public void save(AttendModel attendModel) {
         attendRepository.save(attendModel);
     }
+
+    /**
+     * 出缺勤匯出，可依用戶和日期區間篩選，不分頁
+     */
+    @Transactional(readOnly = true)
+    public void export(AttendRequest request, String format, HttpServletResponse response) throws IOException {
+        exportService.export(response, ExportFormat.of(format), "attend", AttendModel.class, request.getSpecification(), request.toSort(), AttendResponse.class, EXPORT_COLUMNS);
+    }
 }
@@ -1,24 +1,50 @@
 package com.erp.base.service;
 
+import com.erp.base.config.init.CacheWarmUp;
+import com.erp.base.config.redis.BatchCacheManager;
+import com.erp.base.config.redis.CacheCodecRegistry;
+import com.erp.base.config.redis.CacheInvalidationListener;
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.config.redis.LocalOnlyCacheManager;
 import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheEntity;
+import com.erp.base.model.constant.cache.CacheKey;
 import com.erp.base.model.dto.response.ClientNameObject;
 import com.erp.base.model.dto.response.MenuResponse;
 import com.erp.base.model.dto.response.role.PermissionListResponse;
+import com.erp.base.model.dto.security.AuthoritySnapshot;
 import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.dto.security.RolePermissionDto;
 import com.erp.base.model.entity.DepartmentModel;
 import com.erp.base.model.entity.RoleModel;
+import com.erp.base.service.cache.AuthorityCache;
 import com.erp.base.service.cache.ClientCache;
+import com.erp.base.service.cache.MenuTreeCache;
 import com.erp.base.service.cache.OtherCache;
+import com.erp.base.service.cache.PermissionRouteCache;
+import com.erp.base.service.cache.QueryCache;
 import com.erp.base.service.cache.RolePermissionCache;
+import com.erp.base.service.cache.SystemCounter;
 import com.erp.base.service.cache.TokenBlackList;
 import io.micrometer.common.util.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * 所有緩存相關的調用都集中在這個service
@@ -30,15 +56,47 @@ public class CacheService {
     private final RolePermissionCache rolePermissionCache;
     private final TokenBlackList tokenBlackList;
     private final OtherCache otherCache;
+    private final AuthorityCache authorityCache;
+    private final PermissionRouteCache permissionRouteCache;
     private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final List<LocalCacheInvalidator> localCacheInvalidators;
+    private final CacheCodecRegistry cacheCodecRegistry;
+    private final SystemCounter systemCounter;
+    private CacheWarmUp cacheWarmUp;
+    private QueryCache queryCache;
+    private MenuTreeCache menuTreeCache;
 
     @Autowired
-    public CacheService(ClientCache clientCache, RolePermissionCache rolePermissionCache, TokenBlackList tokenBlackList, OtherCache otherCache, CacheManager cacheManager) {
+    public CacheService(ClientCache clientCache, RolePermissionCache rolePermissionCache, TokenBlackList tokenBlackList, OtherCache otherCache, AuthorityCache authorityCache,
+                        PermissionRouteCache permissionRouteCache, CacheManager cacheManager, StringRedisTemplate stringRedisTemplate, List<LocalCacheInvalidator> localCacheInvalidators,
+                        CacheCodecRegistry cacheCodecRegistry, SystemCounter systemCounter) {
+        this.cacheCodecRegistry = cacheCodecRegistry;
+        this.systemCounter = systemCounter;
         this.cacheManager = cacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localCacheInvalidators = LocalCacheInvalidator.ordered(localCacheInvalidators);
+        this.permissionRouteCache = permissionRouteCache;
         this.clientCache = clientCache;
         this.rolePermissionCache = rolePermissionCache;
         this.tokenBlackList = tokenBlackList;
         this.otherCache = otherCache;
+        this.authorityCache = authorityCache;
+    }
+
+    @Autowired
+    public void setCacheWarmUp(@Lazy CacheWarmUp cacheWarmUp) {
+        this.cacheWarmUp = cacheWarmUp;
+    }
+
+    @Autowired
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    @Autowired
+    public void setMenuTreeCache(MenuTreeCache menuTreeCache) {
+        this.menuTreeCache = menuTreeCache;
     }
 
     /**
@@ -46,6 +104,8 @@ public class CacheService {
      */
     public void refreshAllCache() {
         cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        systemCounter.reset();
+        publishInvalidation(CacheConstant.ALL);
     }
 
     public ClientIdentityDto getClient(Long id) {
@@ -60,6 +120,13 @@ public class CacheService {
         return rolePermissionCache.getRolePermission(id);
     }
 
+    /**
+     * 用戶所有角色合併後的權限快照
+     */
+    public AuthoritySnapshot getAuthority(ClientIdentityDto client) {
+        return authorityCache.getAuthority(client);
+    }
+
     public Map<Long, RoleModel> getRole() {
         return rolePermissionCache.getRole();
     }
@@ -69,7 +136,7 @@ public class CacheService {
     }
 
     public Boolean permissionStatus(String requestedUrl) {
-        return rolePermissionCache.permissionStatus(requestedUrl);
+        return permissionRouteCache.permissionStatus(requestedUrl);
     }
 
     public DepartmentModel getDepartment(Long departmentId) {
@@ -77,28 +144,188 @@ public class CacheService {
     }
 
     /**
-     * 傳入param格式為'cacheName.cacheKey'
+     * 傳入param格式為'cacheName.cacheKey'，給手動刷新用，程式內用refreshCache(CacheKey)
      */
     public void refreshCache(String param) {
         if(param.contains(CacheConstant.SPLIT_CONSTANT)){
             String[] key = param.split(CacheConstant.SPLIT_CONSTANT);
             if(StringUtils.isNotEmpty(key[1])){
                 Objects.requireNonNull(cacheManager.getCache(key[0])).evict(key[1]);
+                publishInvalidation(param);
                 return;
             }
             param = key[0];
         }
         Objects.requireNonNull(cacheManager.getCache(param)).clear();
+        publishInvalidation(param);
+    }
+
+    public void refreshCache(CacheKey key) {
+        evict(List.of(key));
+    }
+
+    /**
+     * 批次刷新，Redis一次刪除、失效通知一次pipeline送出
+     * 交易中刪除後，其他請求仍可能在提交前讀到舊資料並寫回Redis，所以提交後再刪一次
+     * 本節點的本地緩存同樣先清一次，同交易後續的讀取(例如權限路由表)才看得到這次異動
+     */
+    public void evict(Collection<CacheKey> keys) {
+        if (keys.isEmpty()) return;
+        List<CacheKey> evictKeys = List.copyOf(keys);
+        evictShared(evictKeys);
+        List<String> messages = evictKeys.stream().map(CacheKey::toString).toList();
+        if (!afterCommit(() -> {
+            evictShared(evictKeys);
+            doPublishInvalidation(messages);
+        })) {
+            doPublishInvalidation(messages);
+            return;
+        }
+        invalidateLocal(messages);
+    }
+
+    private void evictShared(List<CacheKey> keys) {
+        if (cacheManager instanceof BatchCacheManager batchCacheManager) {
+            batchCacheManager.evictAll(keys);
+        } else {
+            keys.forEach(key -> Objects.requireNonNull(cacheManager.getCache(key.getCacheName())).evict(key.getKey()));
+        }
+    }
+
+    /**
+     * 實體異動時只刷新由它衍生的緩存key，不清整個cacheName
+     */
+    public void invalidate(CacheEntity entity, long id) {
+        evict(entity.dependentKeys(id));
+        refreshQuery(entity);
+    }
+
+    /**
+     * 分頁列表查詢，相同條件和頁碼的結果走緩存
+     * @param loader 實際查詢
+     */
+    public Object queryPage(CacheEntity entity, Specification<?> specification, Pageable pageable, Supplier<?> loader) {
+        return queryCache.get(entity, specification, pageable, loader);
+    }
+
+    /**
+     * 實體異動，該實體的分頁查詢緩存換版本
+     */
+    public void refreshQuery(CacheEntity entity) {
+        queryCache.bumpVersion(entity);
+    }
+
+    /**
+     * 批次取用戶，本地和Redis(MGET)都沒有的才個別載入
+     */
+    public Map<Long, ClientIdentityDto> getClients(Collection<Long> ids) {
+        Map<Long, ClientIdentityDto> result = new LinkedHashMap<>();
+        if (!(cacheManager instanceof BatchCacheManager batchCacheManager)) {
+            ids.forEach(id -> result.put(id, clientCache.getClient(id)));
+            return result;
+        }
+        List<CacheKey> keys = ids.stream().map(CacheKey.CLIENT::of).toList();
+        Map<CacheKey, Object> cached = batchCacheManager.getAll(CacheConstant.CLIENT.NAME_CLIENT, keys);
+        Iterator<CacheKey> keyIterator = keys.iterator();
+        for (Long id : ids) {
+            CacheKey key = keyIterator.next();
+            result.put(id, cached.containsKey(key) ? (ClientIdentityDto) cached.get(key) : clientCache.getClient(id));
+        }
+        return result;
+    }
+
+    private void publishInvalidation(String message) {
+        publishInvalidation(List.of(message));
+    }
+
+    /**
+     * 交易提交後才處理本節點的本地緩存，並通知其他節點，避免其他節點讀到未提交前的舊資料
+     */
+    private void publishInvalidation(List<String> messages) {
+        if (!afterCommit(() -> doPublishInvalidation(messages))) doPublishInvalidation(messages);
+    }
+
+    /**
+     * 有交易時登記到提交後執行
+     * @return 沒有交易時回傳false，由呼叫端直接執行
+     */
+    private static boolean afterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return false;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+        return true;
+    }
+
+    private void invalidateLocal(List<String> messages) {
+        for (String message : messages) {
+            localCacheInvalidators.forEach(invalidator -> invalidator.invalidateLocal(message));
+        }
+    }
+
+    private void doPublishInvalidation(List<String> messages) {
+        invalidateLocal(messages);
+        //純本地模式只有單節點，不用通知
+        if (cacheManager instanceof LocalOnlyCacheManager) return;
+        if (messages.size() == 1) {
+            stringRedisTemplate.convertAndSend(CacheConstant.INVALIDATE_CHANNEL, CacheInvalidationListener.wrap(messages.get(0)));
+            return;
+        }
+        byte[] channel = CacheConstant.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            messages.forEach(message -> connection.publish(channel, CacheInvalidationListener.wrap(message).getBytes(StandardCharsets.UTF_8)));
+            return null;
+        });
     }
 
     public void addTokenBlackList(String token) {
-        tokenBlackList.add(token);
+        String digest = tokenBlackList.add(token);
+        publishInvalidation(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST + CacheConstant.SPLIT_CONSTANT + digest);
     }
 
     public boolean existsTokenBlackList(String token) {
         return tokenBlackList.exists(token);
     }
 
+    /**
+     * 啟動預熱，最近登入的用戶一次查出、Redis一次pipeline寫入
+     * @return 預熱筆數
+     */
+    public int warmClients(int limit) {
+        Map<CacheKey, ClientIdentityDto> clients = clientCache.loadRecentClients(limit);
+        putAll(CacheConstant.CLIENT.NAME_CLIENT, clients);
+        return clients.size();
+    }
+
+    /**
+     * 啟動預熱，所有部門一次查出、Redis一次pipeline寫入
+     * @return 預熱筆數
+     */
+    public int warmDepartments() {
+        Map<CacheKey, DepartmentModel> departments = rolePermissionCache.loadDepartments();
+        putAll(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION, departments);
+        return departments.size();
+    }
+
+    public void reloadRouteTable() {
+        permissionRouteCache.reload();
+    }
+
+    private void putAll(String cacheName, Map<CacheKey, ?> values) {
+        if (values.isEmpty()) return;
+        if (cacheManager instanceof BatchCacheManager batchCacheManager) {
+            batchCacheManager.putAll(cacheName, values);
+            return;
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+        values.forEach((key, value) -> {
+            if (value != null) cache.put(key.getKey(), value);
+        });
+    }
+
     public List<MenuResponse> findMenuTree() {
         return rolePermissionCache.findMenuTree();
     }
@@ -107,12 +334,65 @@ public class CacheService {
         return rolePermissionCache.getRoleMenu(id);
     }
 
+    /**
+     * 角色組合的選單樹，節點內共用
+     */
+    public List<MenuResponse> getMenuTree(List<Long> roleIds) {
+        return menuTreeCache.getMenuTree(roleIds);
+    }
+
+    /**
+     * 部門數量照舊走緩存，其他由SystemCounter的計數取得
+     */
     public Map<String, Object> getSystemInfo() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("systemUser", clientCache.getSystemUser());
+        Map<String, Object> map = systemCounter.getSystemInfo();
         map.put("systemDepartment", otherCache.getSystemDepartment());
-        map.put("systemProject", otherCache.getSystemProject());
-        map.put("systemProcure", otherCache.getSystemProcure());
+        return map;
+    }
+
+    /**
+     * 用戶新增或啟用/鎖定/打卡狀態變動時更新系統資訊計數
+     * @param before 變動前的用戶，新增時為null
+     */
+    public void countClient(ClientIdentityDto before, boolean active, boolean lock, int attendStatus) {
+        boolean countedBefore = before != null && before.isActive() && !before.isLock();
+        int attendBefore = before == null ? attendStatus : before.getAttendStatus();
+        countClient(countedBefore, attendBefore, active, lock, attendStatus);
+    }
+
+    /**
+     * @param countedBefore 變動前是否為啟用用戶，由呼叫端依更新結果決定
+     */
+    public void countClient(boolean countedBefore, int attendBefore, boolean active, boolean lock, int attendStatus) {
+        systemCounter.clientChanged(countedBefore, attendBefore, active && !lock, attendStatus);
+    }
+
+    public void resetSystemInfo() {
+        systemCounter.reset();
+    }
+
+    public void countProjectAdded() {
+        systemCounter.projectAdded();
+    }
+
+    /**
+     * 採購單新增/修改/刪除時更新本月進出金額，新增時before為null，刪除時after為null
+     */
+    public void countProcure(LocalDateTime createTime, Integer typeBefore, BigDecimal priceBefore, Integer typeAfter, BigDecimal priceAfter) {
+        systemCounter.procureChanged(createTime, typeBefore, priceBefore, typeAfter, priceAfter);
+    }
+
+    /**
+     * 緩存統計
+     * @param countRedisKeys 是否統計Redis內各cacheName的key數量
+     */
+    public Map<String, Object> getCacheMetrics(boolean countRedisKeys) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (cacheManager instanceof BatchCacheManager batchCacheManager) map.put("caches", batchCacheManager.getStats(countRedisKeys));
+        map.put("codec", cacheCodecRegistry.getMetrics());
+        if (cacheManager instanceof BatchCacheManager batchCacheManager) map.put("load", batchCacheManager.getLoadMetrics());
+        map.put("query", queryCache.getMetrics());
+        if (cacheWarmUp != null) map.put("warmUp", cacheWarmUp.getReport());
         return map;
     }
 }
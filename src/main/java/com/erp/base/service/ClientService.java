@@ -5,7 +5,7 @@ import com.erp.base.model.ClientIdentity;
 import com.erp.base.model.MessageModel;
 import com.erp.base.model.constant.NotificationEnum;
 import com.erp.base.model.constant.RoleConstant;
-import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.client.*;
 import com.erp.base.model.dto.response.ApiResponse;
@@ -16,14 +16,15 @@ import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.entity.*;
 import com.erp.base.model.mail.ResetPasswordModel;
 import com.erp.base.repository.ClientRepository;
+import com.erp.base.service.security.LoginRecorder;
 import com.erp.base.service.security.TokenService;
-import com.erp.base.tool.DateTool;
 import com.erp.base.tool.EncodeTool;
 import jakarta.mail.MessagingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -32,6 +33,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.context.Context;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -49,7 +51,16 @@ public class ClientService {
     private DepartmentService departmentService;
     private AttendService attendService;
     private PerformanceService performanceService;
+    private LoginRecorder loginRecorder;
     private static final String RESET_PREFIX = "##";
+    //打卡狀態 1.未打卡 2.已簽到 3.已簽退
+    private static final int ATTEND_NOT_SIGNED = 1;
+    private static final int ATTEND_SIGN_IN = 2;
+    private static final int ATTEND_SIGN_OUT = 3;
+    @Autowired
+    public void setLoginRecorder(LoginRecorder loginRecorder){
+        this.loginRecorder = loginRecorder;
+    }
     @Autowired
     public void setPerformanceService(@Lazy PerformanceService performanceService){
         this.performanceService = performanceService;
@@ -118,8 +129,8 @@ public class ClientService {
         clientRepository.save(entity);
         //新增空的簽到表
         addNewAttend(entity.getId());
-        //刷新系統用戶緩存
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.SYSTEM_USER);
+        //系統用戶計數
+        cacheService.countClient(null, entity.isActive(), entity.isLock(), entity.getAttendStatus());
         return ApiResponse.success(ApiResponseCode.REGISTER_SUCCESS);
     }
 
@@ -129,17 +140,23 @@ public class ClientService {
     }
 
     public ResponseEntity<ApiResponse> login(LoginRequest request) {
-        HttpHeaders token = tokenService.createToken(request);
-        ClientModel user = findByUsername(request.getUsername());
+        long start = System.nanoTime();
+        //帳密驗證時查到的用戶直接沿用
+        ClientIdentityDto user = tokenService.authenticate(request).getClientModel();
+        HttpHeaders token = tokenService.createToken(user.getId(), request.getRememberMe());
         ClientResponseModel client = new ClientResponseModel(user);
-        updateLastLoginTime(user);
+        //最後登入時間由LoginRecorder批次寫入
+        loginRecorder.recordLogin(user.getId(), start);
         return ApiResponse.success(token, client);
     }
 
-    private void updateLastLoginTime(ClientModel user) {
-        user.setLastLoginTime(DateTool.now());
-        clientRepository.save(user);
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + user.getId());
+    public void updateLastLoginTime(Map<Long, LocalDateTime> lastLoginTime) {
+        lastLoginTime.forEach(clientRepository::updateLastLoginTime);
+        cacheService.evict(lastLoginTime.keySet().stream().map(CacheKey.CLIENT::of).toList());
+    }
+
+    public ResponseEntity<ApiResponse> loginMetrics() {
+        return ApiResponse.success(ApiResponseCode.SUCCESS, loginRecorder.getMetrics());
     }
 
     public PageResponse<ClientResponseModel> list(ClientListRequest param) {
@@ -164,6 +181,15 @@ public class ClientService {
         return clientRepository.findById(id).orElse(null);
     }
 
+    /**
+     * 最近登入的用戶，角色和部門一起查出
+     */
+    public List<ClientIdentityDto> findRecentLoginClients(int limit) {
+        List<Long> ids = clientRepository.findRecentLoginId(PageRequest.of(0, limit));
+        if (ids.isEmpty()) return Collections.emptyList();
+        return clientRepository.findWithRolesByIdIn(ids).stream().map(ClientIdentityDto::new).toList();
+    }
+
     public ResponseEntity<ApiResponse> resetPassword(ResetPasswordRequest resetRequest) throws MessagingException {
         ApiResponseCode code = checkResetPassword(resetRequest);
         if (code != null) return ApiResponse.error(code);
@@ -178,7 +204,7 @@ public class ClientService {
             Context context = mailService.createContext(username, password);
             mailService.sendMail(resetRequest.getEmail(), resetPasswordModel, context, null);
             ClientModel newClient = findByUsername(username);
-            cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + newClient.getId());
+            cacheService.refreshCache(CacheKey.CLIENT.of(newClient.getId()));
             return ApiResponse.success(ApiResponseCode.RESET_PASSWORD_SUCCESS);
         }
         return ApiResponse.error(ApiResponseCode.RESET_PASSWORD_FAILED);
@@ -194,7 +220,7 @@ public class ClientService {
         int result = updatePassword(passwordEncode(request.getPassword()), false, username, client.getEmail(), client.getId());
         //如果不為1代表更改有問題，拋出並回滾
         if (result != 1) throw new IncorrectResultSizeDataAccessException(1, result);
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + client.getId());
+        cacheService.refreshCache(CacheKey.CLIENT.of(client.getId()));
         return ApiResponse.success(ApiResponseCode.UPDATE_PASSWORD_SUCCESS);
     }
 
@@ -262,7 +288,7 @@ public class ClientService {
             annualLeave.setTotalLeave(request.getAnnualLeave());
         }
         ClientModel save = clientRepository.save(client);
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + client.getId());
+        cacheService.refreshCache(CacheKey.CLIENT.of(client.getId()));
         //非本人就發送通知
         checkUserOrSendMessage(client);
         return ApiResponse.success(ApiResponseCode.SUCCESS, new ClientResponseModel(save));
@@ -287,11 +313,15 @@ public class ClientService {
     public ResponseEntity<ApiResponse> lockClient(ClientStatusRequest request) {
         String username = request.getUsername();
         long uid = request.getClientId();
-        int count = clientRepository.lockClientByIdAndUsername(uid, username, request.isStatus());
-        if (count != 1) throw new IncorrectResultSizeDataAccessException(1, count);
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + uid);
-        //刷新系統用戶緩存
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.SYSTEM_USER);
+        ClientIdentityDto before = cacheService.getClient(uid);
+        //更新條件帶舊狀態，只有實際轉換的這次請求會更新到資料
+        if (clientRepository.lockClientByIdAndUsername(uid, username, request.isStatus()) == 1) {
+            cacheService.refreshCache(CacheKey.CLIENT.of(uid));
+            //系統用戶計數，鎖定的前值由更新條件確定
+            if (before != null) cacheService.countClient(before.isActive() && request.isStatus(), before.getAttendStatus(), before.isActive(), request.isStatus(), before.getAttendStatus());
+        } else {
+            checkClientExists(uid, username);
+        }
         //如果是更新成鎖定，就觸發用戶
         if (request.isStatus()) callClientLogout(uid);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
@@ -300,16 +330,24 @@ public class ClientService {
     public ResponseEntity<ApiResponse> clientStatus(ClientStatusRequest request) {
         String username = request.getUsername();
         long uid = request.getClientId();
-        int count = clientRepository.switchClientStatusByIdAndUsername(uid, username, request.isStatus());
-        if (count != 1) throw new IncorrectResultSizeDataAccessException(1, count);
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + uid);
-        //刷新系統用戶緩存
-        cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.SYSTEM_USER);
+        ClientIdentityDto before = cacheService.getClient(uid);
+        if (clientRepository.switchClientStatusByIdAndUsername(uid, username, request.isStatus()) == 1) {
+            cacheService.refreshCache(CacheKey.CLIENT.of(uid));
+            //系統用戶計數，啟用的前值由更新條件確定
+            if (before != null) cacheService.countClient(!request.isStatus() && !before.isLock(), before.getAttendStatus(), request.isStatus(), before.isLock(), before.getAttendStatus());
+        } else {
+            checkClientExists(uid, username);
+        }
         //如果是更新成停用，就觸發用戶
         if (!request.isStatus()) callClientLogout(uid);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
+    //沒有更新到資料時，用戶不存在才是錯誤，否則已是目標狀態
+    private void checkClientExists(long uid, String username) {
+        if (!clientRepository.existsByIdAndUsername(uid, username)) throw new IncorrectResultSizeDataAccessException(1, 0);
+    }
+
     //發websocket觸發，踢出被鎖定用戶
     private void callClientLogout(long uid) {
         MessageModel messageModel = new MessageModel("system", Long.toString(uid), WebsocketConstant.TOPIC.CLIENT_STATUS, "message.kickOut");
@@ -322,7 +360,13 @@ public class ClientService {
 
     //用戶簽到狀態改為未簽
     public void updateClientAttendStatus() {
-        clientRepository.updateClientAttendStatus(LocalDate.now());
+        LocalDate now = LocalDate.now();
+        List<Long> ids = clientRepository.findIdsToResetAttendStatus(now);
+        clientRepository.updateClientAttendStatus(now);
+        //緩存裡的打卡狀態也要清掉，否則重置後第一次簽到會以舊狀態計數
+        cacheService.evict(ids.stream().map(CacheKey.CLIENT::of).toList());
+        //所有人打卡狀態重置，系統用戶計數重算
+        cacheService.resetSystemInfo();
     }
 
     public Set<ClientModel> queryReviewer(Long departmentId) {
@@ -344,8 +388,13 @@ public class ClientService {
     }
 
     public ClientResponseModel updateClientAttendStatus(ClientIdentityDto model, int status) {
-        int resultCount = clientRepository.updateClientAttendStatus(model.getId(), status);
-        if (resultCount == 1) cacheService.refreshCache(CacheConstant.CLIENT.NAME_CLIENT + CacheConstant.SPLIT_CONSTANT + CacheConstant.CLIENT.CLIENT + model.getId());
+        //更新條件帶舊狀態，同時送出的請求只有一個會更新到資料
+        if (clientRepository.updateClientAttendStatus(model.getId(), status) == 1) {
+            cacheService.refreshCache(CacheKey.CLIENT.of(model.getId()));
+            //簽到前必為未打卡、簽退前必為已簽到，前值由轉換決定，不取緩存
+            int attendBefore = status == ATTEND_SIGN_OUT ? ATTEND_SIGN_IN : ATTEND_NOT_SIGNED;
+            cacheService.countClient(model.isActive() && !model.isLock(), attendBefore, model.isActive(), model.isLock(), status);
+        }
         ClientIdentityDto clientDto = cacheService.getClient(model.getId());
         return new ClientResponseModel(clientDto);
     }
@@ -360,6 +409,8 @@ public class ClientService {
     public ResponseEntity<ApiResponse> logout(String accessToken, String refreshToken) {
         if(accessToken != null) cacheService.addTokenBlackList(accessToken);
         if(refreshToken != null) cacheService.addTokenBlackList(refreshToken);
+        tokenService.evictVerifiedToken(accessToken);
+        tokenService.evictVerifiedToken(refreshToken);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
@@ -390,7 +441,11 @@ public class ClientService {
 
     //統計 已打卡/總用戶數
     public String getSystemUser() {
-        Object[] systemUser = clientRepository.getSystemUser().get(0);
+        Object[] systemUser = getSystemUserCount();
         return systemUser[0] + "/" + systemUser[1];
     }
+
+    public Object[] getSystemUserCount() {
+        return clientRepository.getSystemUser().get(0);
+    }
 }
@@ -1,6 +1,6 @@
 package com.erp.base.service;
 
-import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheEntity;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.department.DepartmentEditRequest;
 import com.erp.base.model.dto.request.department.DepartmentRequest;
@@ -14,7 +14,8 @@ import com.erp.base.model.entity.RoleModel;
 import com.erp.base.repository.DepartmentRepository;
 import com.erp.base.tool.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -60,14 +61,21 @@ public class DepartmentService {
         return model;
     }
 
+    public List<DepartmentModel> findAll() {
+        return departmentRepository.findAll();
+    }
+
     public DepartmentModel findById(Long id) {
         Optional<DepartmentModel> byId = departmentRepository.findById(id);
         return byId.orElse(null);
     }
 
     public ResponseEntity<ApiResponse> list(DepartmentRequest request) {
-        Page<DepartmentModel> all = departmentRepository.findAll(request.getSpecification(), request.getPage());
-        return ApiResponse.success(new PageResponse<>(all, DepartmentResponse.class));
+        Specification<DepartmentModel> specification = request.getSpecification();
+        if (request.keysetMode()) return ApiResponse.success(request.getKeyset().find(departmentRepository, specification, DepartmentResponse.class));
+        PageRequest page = request.getPage();
+        return ApiResponse.success(cacheService.queryPage(CacheEntity.DEPARTMENT, specification, page,
+                () -> new PageResponse<>(departmentRepository.findAll(specification, page), DepartmentResponse.class)));
     }
 
     public ResponseEntity<ApiResponse> findStaffById(Long id) {
@@ -85,10 +93,10 @@ public class DepartmentService {
     }
 
     public ResponseEntity<ApiResponse> edit(DepartmentEditRequest request) {
-        departmentRepository.save(request.toModel());
-        cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
-        //刷新系統部門參數
-        cacheService.refreshCache(CacheConstant.OTHER.OTHER + CacheConstant.SPLIT_CONSTANT + CacheConstant.OTHER.SYSTEM_DEPARTMENT);
+        DepartmentModel model = request.toModel();
+        departmentRepository.save(model);
+        //部門緩存、系統部門參數和列表查詢
+        cacheService.invalidate(CacheEntity.DEPARTMENT, model.getId());
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
@@ -96,9 +104,8 @@ public class DepartmentService {
         DepartmentModel model = findById(id);
         if (model != null && (model.getClientModelList() == null || model.getClientModelList().isEmpty())) {
             departmentRepository.deleteById(id);
-            cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
-            //刷新系統部門參數
-            cacheService.refreshCache(CacheConstant.OTHER.OTHER + CacheConstant.SPLIT_CONSTANT + CacheConstant.OTHER.SYSTEM_DEPARTMENT);
+            //部門緩存、系統部門參數和列表查詢
+            cacheService.invalidate(CacheEntity.DEPARTMENT, id);
             return ApiResponse.success(ApiResponseCode.SUCCESS);
         }
         return ApiResponse.error(ApiResponseCode.DEPARTMENT_IN_USE);
@@ -106,6 +113,7 @@ public class DepartmentService {
 
     public void removeRole(Long id) {
         departmentRepository.removeRole(id);
+        cacheService.refreshQuery(CacheEntity.DEPARTMENT);
     }
 
     public String getSystemDepartment() {
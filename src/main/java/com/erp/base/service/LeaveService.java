@@ -6,6 +6,7 @@ import com.erp.base.model.MessageModel;
 import com.erp.base.model.constant.NotificationEnum;
 import com.erp.base.model.constant.RoleConstant;
 import com.erp.base.model.constant.StatusConstant;
+import com.erp.base.model.constant.cache.CacheEntity;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.PageRequestParam;
 import com.erp.base.model.dto.request.leave.LeaveAcceptRequest;
@@ -18,13 +19,21 @@ import com.erp.base.model.entity.ClientModel;
 import com.erp.base.model.entity.LeaveModel;
 import com.erp.base.model.entity.NotificationModel;
 import com.erp.base.repository.LeaveRepository;
+import com.erp.base.service.export.ExportColumn;
+import com.erp.base.service.export.ExportFormat;
+import com.erp.base.service.export.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -32,10 +41,31 @@ import java.util.Set;
 @Service
 @Transactional
 public class LeaveService {
+    private static final List<ExportColumn<LeaveResponse>> EXPORT_COLUMNS = List.of(
+            new ExportColumn<>("ID", LeaveResponse::getId),
+            new ExportColumn<>("用戶ID", response -> response.getUser().getId()),
+            new ExportColumn<>("用戶", response -> response.getUser().getUsername()),
+            new ExportColumn<>("請假類型", response -> response.getType().getName()),
+            new ExportColumn<>("開始時間", LeaveResponse::getStartTime),
+            new ExportColumn<>("結束時間", LeaveResponse::getEndTime),
+            new ExportColumn<>("狀態", LeaveResponse::getStatus),
+            new ExportColumn<>("說明", LeaveResponse::getInfo),
+            new ExportColumn<>("建立時間", LeaveResponse::getCreatedTime)
+    );
     private LeaveRepository leaveRepository;
     private MessageService messageService;
     private NotificationService notificationService;
     private ClientService clientService;
+    private CacheService cacheService;
+    private ExportService exportService;
+    @Autowired
+    public void setCacheService(CacheService cacheService){
+        this.cacheService = cacheService;
+    }
+    @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
     @Autowired
     public void setClientService(ClientService clientService){
         this.clientService = clientService;
@@ -54,8 +84,11 @@ public class LeaveService {
     }
 
     public ResponseEntity<ApiResponse> list(LeaveRequest request) {
-        Page<LeaveModel> leaves = leaveRepository.findAll(request.getSpecification(), request.getPage());
-        return ApiResponse.success(new PageResponse<>(leaves, LeaveResponse.class));
+        Specification<LeaveModel> specification = request.getSpecification();
+        if (request.keysetMode()) return ApiResponse.success(request.getKeyset().find(leaveRepository, specification, LeaveResponse.class));
+        PageRequest page = request.getPage();
+        return ApiResponse.success(cacheService.queryPage(CacheEntity.LEAVE, specification, page,
+                () -> new PageResponse<>(leaveRepository.findAll(specification, page), LeaveResponse.class)));
     }
 
     public ResponseEntity<ApiResponse> add(LeaveRequest request) {
@@ -94,13 +127,17 @@ public class LeaveService {
 
     public ResponseEntity<ApiResponse> delete(long id) {
         int i = leaveRepository.deleteByIdAndStatus(id, StatusConstant.PENDING_NO);
-        if(i == 1) return ApiResponse.success(ApiResponseCode.SUCCESS);
+        if(i == 1) {
+            cacheService.refreshQuery(CacheEntity.LEAVE);
+            return ApiResponse.success(ApiResponseCode.SUCCESS);
+        }
         return ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR, "Id Not Found");
     }
 
     public ResponseEntity<ApiResponse> accept(LeaveAcceptRequest request) {
         int i = leaveRepository.updateLeaveStatus(request.getId(), StatusConstant.PENDING_NO, StatusConstant.APPROVED_NO);
         if(i == 1) {
+            cacheService.refreshQuery(CacheEntity.LEAVE);
             Long eventUserId = request.getEventUserId();
             Set<ClientModel> userSet = new HashSet<>();
             userSet.add(new ClientModel(eventUserId));
@@ -116,6 +153,7 @@ public class LeaveService {
     public ResponseEntity<ApiResponse> reject(LeaveAcceptRequest request) {
         int i = leaveRepository.updateLeaveStatus(request.getId(), StatusConstant.PENDING_NO, StatusConstant.REMOVED_NO);
         if(i == 1) {
+            cacheService.refreshQuery(CacheEntity.LEAVE);
             Long eventUserId = request.getEventUserId();
             Set<ClientModel> userSet = new HashSet<>();
             userSet.add(new ClientModel(eventUserId));
@@ -147,6 +185,16 @@ public class LeaveService {
         if(model.getUser() == null) {
             model.setUser(user);
         }
-        return leaveRepository.save(model);
+        LeaveModel saved = leaveRepository.save(model);
+        cacheService.refreshQuery(CacheEntity.LEAVE);
+        return saved;
+    }
+
+    /**
+     * 休假匯出，條件和排序同清單，不分頁
+     */
+    @Transactional(readOnly = true)
+    public void export(LeaveRequest request, String format, HttpServletResponse response) throws IOException {
+        exportService.export(response, ExportFormat.of(format), "leave", LeaveModel.class, request.getSpecification(), request.toSort(), LeaveResponse.class, EXPORT_COLUMNS);
     }
 }
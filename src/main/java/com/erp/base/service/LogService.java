@@ -1,32 +1,201 @@
 package com.erp.base.service;
 
+import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.log.LogRequest;
+import com.erp.base.model.dto.request.log.LogRollupRequest;
 import com.erp.base.model.dto.response.ApiResponse;
 import com.erp.base.model.dto.response.LogResponse;
 import com.erp.base.model.dto.response.PageResponse;
 import com.erp.base.model.entity.LogModel;
+import com.erp.base.model.entity.LogRollupModel;
 import com.erp.base.repository.LogRepository;
+import com.erp.base.repository.LogRollupRepository;
+import com.erp.base.service.export.ExportColumn;
+import com.erp.base.service.export.ExportFormat;
+import com.erp.base.service.export.ExportService;
+import com.erp.base.service.log.AuditLogWriter;
+import com.erp.base.tool.DateTool;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @Transactional
 public class LogService {
+    private static final List<ExportColumn<LogResponse>> EXPORT_COLUMNS = List.of(
+            new ExportColumn<>("ID", LogResponse::getId),
+            new ExportColumn<>("時間", LogResponse::getTime),
+            new ExportColumn<>("操作人", LogResponse::getUser),
+            new ExportColumn<>("請求路徑", LogResponse::getUrl),
+            new ExportColumn<>("IP", LogResponse::getIp),
+            new ExportColumn<>("成功", LogResponse::getStatus),
+            new ExportColumn<>("參數", LogResponse::getParams),
+            new ExportColumn<>("結果", LogResponse::getResult)
+    );
+    //每次彙總最多處理的小時數，積壓的留給下次
+    private static final int ROLLUP_MAX_HOURS = 24 * 31;
+    //統計中列出的路徑數
+    private static final int TOP_URLS = 20;
     private LogRepository logRepository;
+    private LogRollupRepository logRollupRepository;
+    private ExportService exportService;
+    private AuditLogWriter auditLogWriter;
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
     @Autowired
     public void setLogRepository(LogRepository logRepository){
         this.logRepository = logRepository;
     }
 
+    @Autowired
+    public void setLogRollupRepository(LogRollupRepository logRollupRepository){
+        this.logRollupRepository = logRollupRepository;
+    }
+
+    @Autowired
+    public void setAuditLogWriter(AuditLogWriter auditLogWriter){
+        this.auditLogWriter = auditLogWriter;
+    }
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 啟用非同步寫入時交給AuditLogWriter批次寫入，不開交易
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void save(LogModel model){
+        if(auditLogWriter.isEnabled()){
+            auditLogWriter.submit(model);
+            return;
+        }
         logRepository.save(model);
     }
 
     public ResponseEntity<ApiResponse> findAll(LogRequest request) {
-        Page<LogModel> all = logRepository.findAll(request.getSpecification(), request.getPage());
-        return ApiResponse.success(new PageResponse<>(all, LogResponse.class));
+        Specification<LogModel> specification = request.getSpecification();
+        if (request.keysetMode()) return ApiResponse.success(request.getKeyset().find(logRepository, specification, LogResponse.class));
+        //日誌每次寫入都會異動，分頁結果不走查詢緩存
+        return ApiResponse.success(new PageResponse<>(logRepository.findAll(specification, request.getPage()), LogResponse.class));
+    }
+
+    public ResponseEntity<ApiResponse> metrics() {
+        return ApiResponse.success(ApiResponseCode.SUCCESS, auditLogWriter.getMetrics());
+    }
+
+    /**
+     * 把已結束的小時彙總到log_rollup，從上次彙總的最後一個小時開始重算(補上較晚寫入的日誌)，沒有日誌的區間直接跳過
+     * 每個小時各自一個交易，積壓很多小時時不會長時間鎖住log_rollup，中途失敗也保留已完成的小時
+     * @return 寫入彙總的小時數
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rollup() {
+        LocalDateTime current = DateTool.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime bucket = logRollupRepository.findLastBucket();
+        if (bucket == null) {
+            LocalDateTime first = logRepository.findFirstTime();
+            if (first == null) return 0;
+            bucket = first.truncatedTo(ChronoUnit.HOURS);
+        }
+        int hours = 0;
+        while (bucket.isBefore(current) && hours < ROLLUP_MAX_HOURS) {
+            LocalDateTime from = bucket;
+            LocalDateTime to = bucket.plusHours(1);
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> rollupHour(from, to)))) {
+                LocalDateTime next = logRepository.findFirstTimeFrom(to);
+                if (next == null) break;
+                bucket = next.truncatedTo(ChronoUnit.HOURS);
+                continue;
+            }
+            hours++;
+            bucket = to;
+        }
+        return hours;
+    }
+
+    /**
+     * 重算一個小時的彙總
+     * @return 該小時是否有日誌
+     */
+    private boolean rollupHour(LocalDateTime from, LocalDateTime to) {
+        List<Object[]> rows = logRepository.countGroupBy(from, to);
+        logRollupRepository.deleteByBucketBetween(from, to);
+        if (rows.isEmpty()) return false;
+        logRollupRepository.saveAll(rows.stream()
+                .map(row -> new LogRollupModel(from, (String) row[0], (String) row[1], (Boolean) row[2], ((Number) row[3]).longValue()))
+                .toList());
+        return true;
+    }
+
+    /**
+     * 從每小時彙總統計，不掃描原始日誌
+     * @return total/success/failed、每小時的筆數和失敗數、筆數最多的路徑
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<ApiResponse> rollupSummary(LogRollupRequest request) {
+        List<LogRollupModel> rollups = logRollupRepository.findAll(request.getSpecification());
+        long total = 0;
+        long failed = 0;
+        Map<LocalDateTime, long[]> hourly = new TreeMap<>();
+        Map<String, long[]> urls = new LinkedHashMap<>();
+        for (LogRollupModel rollup : rollups) {
+            long count = rollup.getCount();
+            long fail = Boolean.TRUE.equals(rollup.getStatus()) ? 0 : count;
+            total += count;
+            failed += fail;
+            add(hourly.computeIfAbsent(rollup.getBucket(), k -> new long[2]), count, fail);
+            add(urls.computeIfAbsent(rollup.getUrl(), k -> new long[2]), count, fail);
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("total", total);
+        map.put("success", total - failed);
+        map.put("failed", failed);
+        map.put("hourly", hourly.entrySet().stream().map(e -> countMap("bucket", DateTool.format(e.getKey()), e.getValue())).toList());
+        map.put("topUrls", urls.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed())
+                .limit(TOP_URLS)
+                .map(e -> countMap("url", e.getKey(), e.getValue()))
+                .toList());
+        return ApiResponse.success(ApiResponseCode.SUCCESS, map);
+    }
+
+    private static void add(long[] counts, long count, long fail) {
+        counts[0] += count;
+        counts[1] += fail;
+    }
+
+    private static Map<String, Object> countMap(String name, Object value, long[] counts) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(name, value);
+        map.put("count", counts[0]);
+        map.put("failed", counts[1]);
+        return map;
+    }
+
+    /**
+     * 日誌匯出，條件和排序同清單，不分頁
+     */
+    @Transactional(readOnly = true)
+    public void export(LogRequest request, String format, HttpServletResponse response) throws IOException {
+        exportService.export(response, ExportFormat.of(format), "log", LogModel.class, request.getSpecification(), request.toSort(), LogResponse.class, EXPORT_COLUMNS);
     }
 }
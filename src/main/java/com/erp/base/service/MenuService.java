@@ -34,35 +34,11 @@ public class MenuService {
     }
 
     public List<MenuResponse> findAllTree() {
-        //找出的順序是由最末子節點開始
-        List<MenuModel> all = menuRepository.findAllOrderByParentsAndOrderNum();
-        Map<Long, List<MenuResponse>> menuMap = new HashMap<>();
-        for (MenuModel model : all) {
-            handleMenu(new MenuResponse(model), menuMap);
-        }
-        return menuMap.get(0L);
-    }
-
-    //map中就是待處理的model，最後剩下的就是根
-    private void handleMenu(MenuResponse model, Map<Long, List<MenuResponse>> menuMap) {
-        long id = model.getId();
-        if (menuMap.containsKey(id)) {
-            model.setChild(menuMap.get(id));
-            menuMap.remove(id);
-        }
-        menuMap.computeIfAbsent(model.getParentsId(), k -> new ArrayList<>()).add(model);
+        return buildTree(menuRepository.findAllOrderByParentsAndOrderNum().stream().map(MenuResponse::new).toList());
     }
 
     public ResponseEntity<ApiResponse> pMenu(List<Long> roleIds) {
-        Set<MenuResponse> set = new HashSet<>();
-        roleIds.forEach(id -> set.addAll(cacheService.getRoleMenu(id)));//set去重
-        List<MenuResponse> menuList = new ArrayList<>(set);
-        menuList.sort(new MenuComparator());//轉list排序
-        Map<Long, List<MenuResponse>> menuMap = new HashMap<>();
-        for (MenuResponse model : menuList) {
-            handleMenu(model, menuMap);
-        }//整理成樹狀返回根節點
-        return ApiResponse.success(ApiResponseCode.SUCCESS, menuMap.get(0L) == null ? new ArrayList<>() : menuMap.get(0L));
+        return ApiResponse.success(ApiResponseCode.SUCCESS, cacheService.getMenuTree(roleIds));
     }
 
     public List<MenuResponse> getRoleMenu(long roleId){
@@ -70,21 +46,25 @@ public class MenuService {
         return byRoleId.stream().map(MenuResponse::new).toList();
     }
 
-    private static class MenuComparator implements Comparator<MenuResponse> {
-        @Override
-        public int compare(MenuResponse m1, MenuResponse m2) {
-            // level 降序排列
-            if (!Objects.equals(m1.getLevel(), m2.getLevel())) {
-                return Integer.compare(m2.getLevel(), m1.getLevel()); // m2在前面，以便降序排列
-            }
-
-            // parentId 升序排列
-            if (m1.getParentsId() != m2.getParentsId()) {
-                return Long.compare(m1.getParentsId(), m2.getParentsId());
-            }
-
-            // orderNum 升序排列
-            return Integer.compare(m1.getOrder(), m2.getOrder());
+    /**
+     * 平面選單整理成樹狀返回根節點，同層依orderNum排序，找不到父節點的略過
+     * 節點都是複製出來的，子節點list不可修改，可以直接共用
+     */
+    public static List<MenuResponse> buildTree(Collection<MenuResponse> menus) {
+        Map<Long, List<MenuResponse>> childMap = new HashMap<>();
+        for (MenuResponse menu : menus) {
+            childMap.computeIfAbsent(menu.getParentsId(), k -> new ArrayList<>()).add(menu);
         }
+        List<MenuResponse> root = buildChild(0L, childMap, new HashSet<>());
+        return root == null ? List.of() : root;
+    }
+
+    private static List<MenuResponse> buildChild(long parentsId, Map<Long, List<MenuResponse>> childMap, Set<Long> visited) {
+        List<MenuResponse> children = childMap.get(parentsId);
+        if (children == null || !visited.add(parentsId)) return null;
+        return children.stream()
+                .sorted(Comparator.comparing(MenuResponse::getOrder, Comparator.nullsLast(Integer::compare)))
+                .map(menu -> new MenuResponse(menu, buildChild(menu.getId(), childMap, visited)))
+                .toList();
     }
 }
@@ -6,6 +6,7 @@ import com.erp.base.model.MessageModel;
 import com.erp.base.model.constant.NotificationEnum;
 import com.erp.base.model.constant.RoleConstant;
 import com.erp.base.model.constant.StatusConstant;
+import com.erp.base.model.constant.cache.CacheEntity;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.PageRequestParam;
 import com.erp.base.model.dto.request.performance.PerformanceAcceptRequest;
@@ -16,22 +17,52 @@ import com.erp.base.model.entity.ClientModel;
 import com.erp.base.model.entity.NotificationModel;
 import com.erp.base.model.entity.PerformanceModel;
 import com.erp.base.repository.PerformanceRepository;
+import com.erp.base.service.export.ExportColumn;
+import com.erp.base.service.export.ExportFormat;
+import com.erp.base.service.export.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
 
 @Service
 @Transactional
 public class PerformanceService {
+    private static final List<ExportColumn<PerformanceResponse>> EXPORT_COLUMNS = List.of(
+            new ExportColumn<>("ID", PerformanceResponse::getId),
+            new ExportColumn<>("用戶ID", response -> response.getUser().getId()),
+            new ExportColumn<>("用戶", response -> response.getUser().getUsername()),
+            new ExportColumn<>("事件", PerformanceResponse::getEvent),
+            new ExportColumn<>("固定額度", PerformanceResponse::getFixedBonus),
+            new ExportColumn<>("績效比率", PerformanceResponse::getPerformanceRatio),
+            new ExportColumn<>("事件時間", PerformanceResponse::getEventTime),
+            new ExportColumn<>("建立時間", PerformanceResponse::getCreateTime),
+            new ExportColumn<>("建立人", PerformanceResponse::getCreateBy),
+            new ExportColumn<>("狀態", PerformanceResponse::getStatus)
+    );
     private PerformanceRepository performanceRepository;
     private MessageService messageService;
     private NotificationService notificationService;
     private ClientService clientService;
+    private CacheService cacheService;
+    private ExportService exportService;
+    @Autowired
+    public void setCacheService(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+    @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
     @Autowired
     public void setClientService(ClientService clientService) {
         this.clientService = clientService;
@@ -53,8 +84,11 @@ public class PerformanceService {
     }
 
     public ResponseEntity<ApiResponse> getList(PerformanceRequest request) {
-        Page<PerformanceModel> allPerformance = performanceRepository.findAll(request.getSpecification(), request.getPage());
-        return ApiResponse.success(new PageResponse<>(allPerformance, PerformanceResponse.class));
+        Specification<PerformanceModel> specification = request.getSpecification();
+        if (request.keysetMode()) return ApiResponse.success(request.getKeyset().find(performanceRepository, specification, PerformanceResponse.class));
+        PageRequest page = request.getPage();
+        return ApiResponse.success(cacheService.queryPage(CacheEntity.PERFORMANCE, specification, page,
+                () -> new PageResponse<>(performanceRepository.findAll(specification, page), PerformanceResponse.class)));
     }
 
     public ResponseEntity<ApiResponse> add(PerformanceRequest request) {
@@ -67,6 +101,7 @@ public class PerformanceService {
         entity.setUser(userId == null ? new ClientModel(user.getId()) : new ClientModel(userId));
         entity.setCreateBy(new ClientModel(user.getId()));
         performanceRepository.save(entity);
+        cacheService.refreshQuery(CacheEntity.PERFORMANCE);
         sendMessageToManger(user);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
@@ -96,6 +131,7 @@ public class PerformanceService {
             if (request.getPerformanceRatio() != null) model.setPerformanceRatio(request.getPerformanceRatio());
             if (request.getEventTime() != null) model.setEventTime(request.getEventTime());
             performanceRepository.save(model);
+            cacheService.refreshQuery(CacheEntity.PERFORMANCE);
             return ApiResponse.success(ApiResponseCode.SUCCESS);
         }
         return ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR, "Performance not found: id[" + request.getId() + "]");
@@ -107,7 +143,10 @@ public class PerformanceService {
             return ApiResponse.error(ApiResponseCode.ACCESS_DENIED, "User Identity Not Found");
         }
         int i = performanceRepository.updateStatus(eventId, StatusConstant.PENDING_NO, StatusConstant.REMOVED_NO, new ClientModel(user.getId()));
-        if (i == 1) return ApiResponse.success(ApiResponseCode.SUCCESS);
+        if (i == 1) {
+            cacheService.refreshQuery(CacheEntity.PERFORMANCE);
+            return ApiResponse.success(ApiResponseCode.SUCCESS);
+        }
         return ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR, "Performance id[" + eventId + "] not found");
     }
 
@@ -118,6 +157,7 @@ public class PerformanceService {
         }
         int i = performanceRepository.updateStatus(request.getEventId(), StatusConstant.PENDING_NO, StatusConstant.APPROVED_NO, new ClientModel(user.getId()));
         if (i == 1) {
+            cacheService.refreshQuery(CacheEntity.PERFORMANCE);
             Set<ClientModel> userSet = new HashSet<>();
             userSet.add(new ClientModel(request.getEventUserId()));
             NotificationModel notification = notificationService.createNotificationToUser(NotificationEnum.ACCEPT_PERFORMANCE, userSet);
@@ -164,4 +204,12 @@ public class PerformanceService {
     public PerformanceCountDto getClientPerformance(long uid) {
         return performanceRepository.getClientPerformance(uid);
     }
+
+    /**
+     * 績效匯出，條件和排序同清單，不分頁
+     */
+    @Transactional(readOnly = true)
+    public void export(PerformanceRequest request, String format, HttpServletResponse response) throws IOException {
+        exportService.export(response, ExportFormat.of(format), "performance", PerformanceModel.class, request.getSpecification(), request.toSort(), PerformanceResponse.class, EXPORT_COLUMNS);
+    }
 }
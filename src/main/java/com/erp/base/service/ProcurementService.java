@@ -1,6 +1,6 @@
 package com.erp.base.service;
 
-import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheEntity;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.ClientIdentity;
 import com.erp.base.model.dto.request.procurement.ProcurementRequest;
@@ -10,25 +10,50 @@ import com.erp.base.model.dto.response.ProcurementResponse;
 import com.erp.base.model.entity.ClientModel;
 import com.erp.base.model.entity.ProcurementModel;
 import com.erp.base.repository.ProcurementRepository;
+import com.erp.base.service.export.ExportColumn;
+import com.erp.base.service.export.ExportFormat;
+import com.erp.base.service.export.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class ProcurementService {
+    private static final List<ExportColumn<ProcurementResponse>> EXPORT_COLUMNS = List.of(
+            new ExportColumn<>("ID", ProcurementResponse::getId),
+            new ExportColumn<>("類型", ProcurementResponse::getType),
+            new ExportColumn<>("名稱", ProcurementResponse::getName),
+            new ExportColumn<>("單價", ProcurementResponse::getPrice),
+            new ExportColumn<>("數量", ProcurementResponse::getCount),
+            new ExportColumn<>("總價", ProcurementResponse::getTotal),
+            new ExportColumn<>("說明", ProcurementResponse::getInfo),
+            new ExportColumn<>("建立時間", ProcurementResponse::getCreateTime),
+            new ExportColumn<>("建立人", response -> response.getCreateBy().getUsername()),
+            new ExportColumn<>("狀態", ProcurementResponse::getStatus)
+    );
     private ProcurementRepository procurementRepository;
     private CacheService cacheService;
+    private ExportService exportService;
 
     @Autowired
     public void setCacheService(CacheService cacheService) {
         this.cacheService = cacheService;
     }
+    @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
 
     @Autowired
     public void setProcurementRepository(ProcurementRepository procurementRepository) {
@@ -36,16 +61,20 @@ public class ProcurementService {
     }
 
     public ResponseEntity<ApiResponse> findAll(ProcurementRequest request) {
-        Page<ProcurementModel> pageResult = procurementRepository.findAll(request.getSpecification(), request.getPage());
-        return ApiResponse.success(new PageResponse<>(pageResult, ProcurementResponse.class));
+        Specification<ProcurementModel> specification = request.getSpecification();
+        if (request.keysetMode()) return ApiResponse.success(request.getKeyset().find(procurementRepository, specification, ProcurementResponse.class));
+        PageRequest page = request.getPage();
+        return ApiResponse.success(cacheService.queryPage(CacheEntity.PROCUREMENT, specification, page,
+                () -> new PageResponse<>(procurementRepository.findAll(specification, page), ProcurementResponse.class)));
     }
 
     public ResponseEntity<ApiResponse> add(ProcurementRequest request) {
         ProcurementModel procurementModel = request.toModel();
         procurementModel.setCreateBy(new ClientModel(Objects.requireNonNull(ClientIdentity.getUser()).getId()));
         procurementRepository.save(procurementModel);
-        //更新系統專案參數
-        cacheService.refreshCache(CacheConstant.OTHER.OTHER + CacheConstant.SPLIT_CONSTANT + CacheConstant.OTHER.SYSTEM_PROCURE);
+        //更新本月採購金額計數
+        cacheService.countProcure(procurementModel.getCreateTime(), null, null, procurementModel.getType(), procurementModel.getPrice());
+        cacheService.refreshQuery(CacheEntity.PROCUREMENT);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
@@ -53,6 +82,8 @@ public class ProcurementService {
         Optional<ProcurementModel> model = procurementRepository.findById(request.getId());
         if (model.isPresent()) {
             ProcurementModel procurementModel = model.get();
+            int typeBefore = procurementModel.getType();
+            BigDecimal priceBefore = procurementModel.getPrice();
             if (request.getType() != null) procurementModel.setType(request.getType());
             if (request.getName() != null) procurementModel.setName(request.getName());
             if (request.getPrice() != null) procurementModel.setPrice(request.getPrice());
@@ -60,19 +91,30 @@ public class ProcurementService {
             if (request.getInfo() != null) procurementModel.setInfo(request.getInfo());
             if (request.getStatus() != null) procurementModel.setStatus(request.getStatus());
             procurementRepository.save(procurementModel);
+            cacheService.countProcure(procurementModel.getCreateTime(), typeBefore, priceBefore, procurementModel.getType(), procurementModel.getPrice());
+            cacheService.refreshQuery(CacheEntity.PROCUREMENT);
             return ApiResponse.success(ApiResponseCode.SUCCESS);
         }
         return ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR);
     }
 
     public ResponseEntity<ApiResponse> delete(Long id) {
+        procurementRepository.findById(id).ifPresent(model ->
+                cacheService.countProcure(model.getCreateTime(), model.getType(), model.getPrice(), null, null));
         procurementRepository.deleteById(id);
-        //更新系統專案參數
-        cacheService.refreshCache(CacheConstant.OTHER.OTHER + CacheConstant.SPLIT_CONSTANT + CacheConstant.OTHER.SYSTEM_PROCURE);
+        cacheService.refreshQuery(CacheEntity.PROCUREMENT);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
     public Object[] getSystemProcure() {
         return procurementRepository.getSystemProcure().get(0);
     }
+
+    /**
+     * 採購匯出，條件和排序同清單，不分頁
+     */
+    @Transactional(readOnly = true)
+    public void export(ProcurementRequest request, String format, HttpServletResponse response) throws IOException {
+        exportService.export(response, ExportFormat.of(format), "procurement", ProcurementModel.class, request.getSpecification(), request.toSort(), ProcurementResponse.class, EXPORT_COLUMNS);
+    }
 }
@@ -2,7 +2,6 @@ package com.erp.base.service;
 
 import com.erp.base.model.ClientIdentity;
 import com.erp.base.model.constant.StatusConstant;
-import com.erp.base.model.constant.cache.CacheConstant;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.OrderRequest;
 import com.erp.base.model.dto.request.project.ProjectRequest;
@@ -52,8 +51,8 @@ public class ProjectService {
         ProjectModel projectModel = request.toModel();
         projectModel.setCreateBy(new ClientModel(Objects.requireNonNull(user).getId()));
         projectRepository.save(projectModel);
-        //更新系統專案參數
-        cacheService.refreshCache(CacheConstant.OTHER.OTHER + CacheConstant.SPLIT_CONSTANT + CacheConstant.OTHER.SYSTEM_PROJECT);
+        //更新系統專案計數
+        cacheService.countProjectAdded();
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
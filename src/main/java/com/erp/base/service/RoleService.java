@@ -1,6 +1,7 @@
 package com.erp.base.service;
 
-import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.model.constant.cache.CacheEntity;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.IdRequest;
 import com.erp.base.model.dto.request.role.RoleMenuRequest;
@@ -69,11 +70,11 @@ public class RoleService {
         ResponseEntity<ApiResponse> response = checkRoleName(name, id);
         if (response != null) return response;
 
-        RoleModel model = cacheService.getRole().get(id);
+        RoleModel model = loadRole(id);
         if (model != null) {
             model.setRoleName(name);
             roleRepository.save(model);
-            cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLES);
+            cacheService.refreshCache(CacheKey.ROLES);
             return ApiResponse.success(ApiResponseCode.SUCCESS);
         }
 
@@ -85,7 +86,7 @@ public class RoleService {
         ResponseEntity<ApiResponse> response = checkRoleName(name, null);
         if (response != null) return response;
         RoleModel model = roleRepository.save(new RoleModel(name));
-        cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLES);
+        cacheService.refreshCache(CacheKey.ROLES);
         return ApiResponse.success(ApiResponseCode.SUCCESS, new RoleNameResponse(model));
     }
 
@@ -103,7 +104,7 @@ public class RoleService {
         //確定角色沒人使用，先把部門角色關聯解除
         departmentService.removeRole(id);
         roleRepository.deleteById(id);
-        cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLES);
+        cacheService.invalidate(CacheEntity.ROLE, id);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
@@ -112,25 +113,33 @@ public class RoleService {
         return role.orElse(null);
     }
 
+    /**
+     * 要修改的角色從DB重新讀取，緩存內的物件是各請求共用的唯讀快照，不能直接改
+     */
+    private RoleModel loadRole(Long id) {
+        return id == null ? null : findById(id);
+    }
+
     public ResponseEntity<ApiResponse> updateRolePermission(RolePermissionRequest request) {
         Long id = request.getId();
-        RoleModel roleModel = cacheService.getRole().get(id);
+        RoleModel roleModel = loadRole(id);
         if(roleModel == null) return ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR);
         Set<PermissionModel> permissionSet = request.getPermissionSet();
         roleModel.setPermissions(permissionSet);
         roleRepository.save(roleModel);
-        cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
+        cacheService.invalidate(CacheEntity.ROLE, id);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 
     public ResponseEntity<ApiResponse> updateRoleMenu(RoleMenuRequest request) {
         Long id = request.getId();
-        RoleModel roleModel = cacheService.getRole().get(id);
+        RoleModel roleModel = loadRole(id);
         if(roleModel == null) return ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR);
         Set<MenuModel> set = request.getMenuSet();
         roleModel.setMenus(set);
         roleRepository.save(roleModel);
-        cacheService.refreshCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLE_MENU +id);
+        //角色選單緩存，各節點收到通知後一併清掉該角色和合併的選單樹
+        cacheService.refreshCache(CacheKey.ROLE_MENU.of(id));
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
 }
@@ -4,6 +4,7 @@ import com.erp.base.config.websocket.WebsocketConstant;
 import com.erp.base.model.ClientIdentity;
 import com.erp.base.model.MessageModel;
 import com.erp.base.model.constant.NotificationEnum;
+import com.erp.base.model.constant.cache.CacheEntity;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.salary.SalaryRequest;
 import com.erp.base.model.dto.response.ApiResponse;
@@ -14,22 +15,52 @@ import com.erp.base.model.entity.ClientModel;
 import com.erp.base.model.entity.NotificationModel;
 import com.erp.base.model.entity.SalaryModel;
 import com.erp.base.repository.SalaryRepository;
+import com.erp.base.service.export.ExportColumn;
+import com.erp.base.service.export.ExportFormat;
+import com.erp.base.service.export.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
 
 @Service
 @Transactional
 public class SalaryService {
+    private static final List<ExportColumn<SalaryResponse>> EXPORT_COLUMNS = List.of(
+            new ExportColumn<>("ID", SalaryResponse::getId),
+            new ExportColumn<>("用戶ID", response -> response.getUser().getId()),
+            new ExportColumn<>("用戶", response -> response.getUser().getUsername()),
+            new ExportColumn<>("時間", SalaryResponse::getTime),
+            new ExportColumn<>("本薪", SalaryResponse::getBaseSalary),
+            new ExportColumn<>("餐費", SalaryResponse::getMealAllowance),
+            new ExportColumn<>("加給", SalaryResponse::getBonus),
+            new ExportColumn<>("勞保", SalaryResponse::getLaborInsurance),
+            new ExportColumn<>("健保", SalaryResponse::getNationalHealthInsurance),
+            new ExportColumn<>("扣除合計", SalaryResponse::getReduceTotal),
+            new ExportColumn<>("實領", SalaryResponse::getGrandTotal),
+            new ExportColumn<>("薪資設定", SalaryResponse::isRoot)
+    );
     private SalaryRepository salaryRepository;
     private MessageService messageService;
     private NotificationService notificationService;
     private ClientService clientService;
+    private CacheService cacheService;
+    private ExportService exportService;
+    @Autowired
+    public void setCacheService(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+    @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
 
     @Autowired
     public void setClientService(ClientService clientService) {
@@ -51,8 +82,11 @@ public class SalaryService {
     }
 
     public ResponseEntity<ApiResponse> getRoots(SalaryRequest request) {
-        Page<SalaryModel> roots = salaryRepository.findAll(request.getSpecification(), request.getPage());
-        return ApiResponse.success(new PageResponse<>(roots, SalaryResponse.class));
+        Specification<SalaryModel> specification = request.getSpecification();
+        if (request.keysetMode()) return ApiResponse.success(request.getKeyset().find(salaryRepository, specification, SalaryResponse.class));
+        PageRequest page = request.getPage();
+        return ApiResponse.success(cacheService.queryPage(CacheEntity.SALARY, specification, page,
+                () -> new PageResponse<>(salaryRepository.findAll(specification, page), SalaryResponse.class)));
     }
 
     public ResponseEntity<ApiResponse> editRoot(SalaryRequest request) {
@@ -72,6 +106,7 @@ public class SalaryService {
 
         userSalaryModel.setRoot(true);
         salaryRepository.save(userSalaryModel);
+        cacheService.refreshQuery(CacheEntity.SALARY);
         sendMessage(userId);
         return ApiResponse.success(ApiResponseCode.SUCCESS);
     }
@@ -112,6 +147,16 @@ public class SalaryService {
             root.setRoot(false);
             newList.add(root);
         }
-        return salaryRepository.saveAll(newList);
+        List<SalaryModel> saved = salaryRepository.saveAll(newList);
+        cacheService.refreshQuery(CacheEntity.SALARY);
+        return saved;
+    }
+
+    /**
+     * 薪資匯出，條件和排序同清單，不分頁
+     */
+    @Transactional(readOnly = true)
+    public void export(SalaryRequest request, String format, HttpServletResponse response) throws IOException {
+        exportService.export(response, ExportFormat.of(format), "salary", SalaryModel.class, request.getExportSpecification(), request.toSort(), SalaryResponse.class, EXPORT_COLUMNS);
     }
 }
@@ -0,0 +1,93 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheEnum;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.model.dto.security.AuthoritySnapshot;
+import com.erp.base.model.dto.security.ClientIdentityDto;
+import com.erp.base.model.dto.security.RolePermissionDto;
+import com.erp.base.tool.LocalCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用戶有效權限快照，只存在節點內
+ * 快照版號為全域版號加上各角色版號的總和(都只增不減)，任一個有異動版號就不同，舊快照在下次取用時重建
+ * 單一角色權限被刷新(rolePermission_X)只升該角色版號，整個rolePermission被刷新才升全域版號
+ * 用戶角色變動時ClientIdentityDto的roleId不同，也會重建
+ */
+@Service
+public class AuthorityCache implements LocalCacheInvalidator {
+    private static final String ROLE_PERMISSION_KEY = CacheKey.ROLE_PERMISSION.messagePrefix();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<Long, AtomicLong> roleVersions = new ConcurrentHashMap<>();
+    private final LocalCache<Long, AuthoritySnapshot> snapshots;
+    private RolePermissionCache rolePermissionCache;
+
+    public AuthorityCache(@Value("${cache.authority.max-size:5000}") int maxSize) {
+        this.snapshots = new LocalCache<>(maxSize, CacheEnum.ROLE_PERMISSION.getTtl() * 60_000L);
+    }
+
+    @Autowired
+    public void setRolePermissionCache(RolePermissionCache rolePermissionCache) {
+        this.rolePermissionCache = rolePermissionCache;
+    }
+
+    public AuthoritySnapshot getAuthority(ClientIdentityDto client) {
+        List<Long> roleIds = client.getRoleId();
+        long current = version(roleIds);
+        AuthoritySnapshot snapshot = snapshots.get(client.getId());
+        if (snapshot != null && snapshot.getVersion() == current && snapshot.isSameRoles(roleIds)) return snapshot;
+
+        List<Set<RolePermissionDto>> rolePermissions = new ArrayList<>();
+        for (Long role : roleIds) {
+            rolePermissions.add(rolePermissionCache.getRolePermission(role));
+        }
+        snapshot = AuthoritySnapshot.of(current, roleIds, rolePermissions);
+        snapshots.put(client.getId(), snapshot);
+        return snapshot;
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshots.clear();
+    }
+
+    public void invalidateRole(long roleId) {
+        roleVersions.computeIfAbsent(roleId, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public void invalidateLocal(String message) {
+        if (CacheConstant.ALL.equals(message) || CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION.equals(message)) {
+            invalidate();
+            return;
+        }
+        if (message.startsWith(ROLE_PERMISSION_KEY)) {
+            String roleId = message.substring(ROLE_PERMISSION_KEY.length());
+            try {
+                invalidateRole(Long.parseLong(roleId));
+            } catch (NumberFormatException e) {
+                invalidate();
+            }
+        }
+    }
+
+    private long version(List<Long> roleIds) {
+        long current = version.get();
+        for (Long roleId : roleIds) {
+            AtomicLong roleVersion = roleVersions.get(roleId);
+            if (roleVersion != null) current += roleVersion.get();
+        }
+        return current;
+    }
+}
@@ -1,18 +1,23 @@
 package com.erp.base.service.cache;
 
+import com.erp.base.config.redis.NearCacheManager;
 import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
 import com.erp.base.model.dto.response.ClientNameObject;
 import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.entity.ClientModel;
 import com.erp.base.service.ClientService;
 import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用戶相關緩存
@@ -27,8 +32,14 @@ public class ClientCache{
         this.clientService = clientService;
     }
 
+    //背景提前刷新直接呼叫本身的方法重查，不經過緩存代理
+    @Autowired
+    public void setCacheManager(CacheManager cacheManager) {
+        if (cacheManager instanceof NearCacheManager nearCacheManager) nearCacheManager.registerRefreshLoader(CacheKey.CLIENT, this::getClient);
+    }
+
     //有關使用者資訊，密碼有經過springSecurity加密
-    @Cacheable(key = "'" +CacheConstant.CLIENT.CLIENT + "'" + " + #id")
+    @Cacheable(sync = true, key = "T(com.erp.base.model.constant.cache.CacheKey).CLIENT.key(#id)")
     public ClientIdentityDto getClient(Long id) {
         ClientModel model = clientService.findById(id);
         if(model == null) return null;
@@ -36,14 +47,16 @@ public class ClientCache{
         return new ClientIdentityDto(model);
     }
 
-    @Cacheable(key = "'" +CacheConstant.CLIENT.CLIENT_NAME_LIST+ "'")
+    //啟動預熱用，批次查出後由CacheService一次寫入
+    public Map<CacheKey, ClientIdentityDto> loadRecentClients(int limit) {
+        Map<CacheKey, ClientIdentityDto> map = new LinkedHashMap<>();
+        clientService.findRecentLoginClients(limit).forEach(client -> map.put(CacheKey.CLIENT.of(client.getId()), client));
+        return map;
+    }
+
+    @Cacheable(sync = true, key = "'" +CacheConstant.CLIENT.CLIENT_NAME_LIST+ "'")
     public List<ClientNameObject> getClientNameList() {
         return clientService.getClientNameList();
     }
 
-    //系統用戶數量
-    @Cacheable(key = "'" +CacheConstant.CLIENT.SYSTEM_USER+ "'")
-    public String getSystemUser() {
-        return clientService.getSystemUser();
-    }
 }
@@ -0,0 +1,91 @@
+package com.erp.base.service.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 純本地模式(cache.mode=local)的系統資訊計數，存在JVM內，單節點不用Redis
+ * 數量用LongAdder，金額為BigDecimal在鎖內增減；月份為null表示計數不存在，和Redis的hash不存在相同處理
+ */
+@Service
+@ConditionalOnProperty(name = "cache.mode", havingValue = "local")
+public class LocalSystemCounter extends SystemCounter {
+    private final LongAdder activeUser = new LongAdder();
+    private final LongAdder signedUser = new LongAdder();
+    private final LongAdder project = new LongAdder();
+    private final LongAdder version = new LongAdder();
+    private BigDecimal procureIn = BigDecimal.ZERO;
+    private BigDecimal procureOut = BigDecimal.ZERO;
+    private volatile String procureMonth;
+
+    @Override
+    protected synchronized Map<String, String> entries() {
+        if (procureMonth == null) return Map.of();
+        Map<String, String> map = new HashMap<>();
+        map.put(ACTIVE_USER, String.valueOf(activeUser.sum()));
+        map.put(SIGNED_USER, String.valueOf(signedUser.sum()));
+        map.put(PROJECT, String.valueOf(project.sum()));
+        map.put(PROCURE_IN, procureIn.toPlainString());
+        map.put(PROCURE_OUT, procureOut.toPlainString());
+        map.put(PROCURE_MONTH, procureMonth);
+        return map;
+    }
+
+    @Override
+    protected void increment(String field, long delta) {
+        LongAdder adder = adder(field);
+        if (adder == null || procureMonth == null) return;
+        version.increment();
+        adder.add(delta);
+    }
+
+    @Override
+    protected synchronized void increment(String field, BigDecimal delta) {
+        if (procureMonth == null) return;
+        version.increment();
+        if (PROCURE_IN.equals(field)) procureIn = procureIn.add(delta);
+        if (PROCURE_OUT.equals(field)) procureOut = procureOut.add(delta);
+    }
+
+    @Override
+    protected String version() {
+        return procureMonth == null ? null : String.valueOf(version.sum());
+    }
+
+    @Override
+    protected synchronized boolean write(String expectedVersion, Map<String, String> values) {
+        if (!Objects.equals(version(), expectedVersion)) return false;
+        set(activeUser, values.get(ACTIVE_USER));
+        set(signedUser, values.get(SIGNED_USER));
+        set(project, values.get(PROJECT));
+        procureIn = new BigDecimal(values.get(PROCURE_IN));
+        procureOut = new BigDecimal(values.get(PROCURE_OUT));
+        procureMonth = values.get(PROCURE_MONTH);
+        return true;
+    }
+
+    @Override
+    protected synchronized void clear() {
+        procureMonth = null;
+    }
+
+    private LongAdder adder(String field) {
+        return switch (field) {
+            case ACTIVE_USER -> activeUser;
+            case SIGNED_USER -> signedUser;
+            case PROJECT -> project;
+            default -> null;
+        };
+    }
+
+    private static void set(LongAdder adder, String value) {
+        adder.reset();
+        adder.add(new BigDecimal(value).longValue());
+    }
+}
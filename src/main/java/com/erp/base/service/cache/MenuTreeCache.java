@@ -0,0 +1,97 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheEnum;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.model.dto.response.MenuResponse;
+import com.erp.base.service.MenuService;
+import com.erp.base.tool.LocalCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 角色選單樹，只存在節點內
+ * 每個角色的樹建好後不再變動，多角色合併的樹以排序後的角色組合為key共用(同部門用戶角色組合大多相同)
+ * 任一角色選單被刷新(roleMenu_X)就清掉該角色和所有合併的樹；建樹期間有刷新的結果不放入，避免存到舊資料
+ * 單一角色和合併的樹都有數量上限和TTL
+ * 失效順序在緩存層之後(預設LOWEST_PRECEDENCE)，重建時不會再讀到緩存層的舊選單
+ */
+@Service
+public class MenuTreeCache implements LocalCacheInvalidator {
+    private static final String ROLE_MENU_KEY = CacheKey.ROLE_MENU.messagePrefix();
+    private final AtomicLong version = new AtomicLong();
+    private final LocalCache<Long, List<MenuResponse>> roleTrees;
+    private final LocalCache<String, List<MenuResponse>> mergedTrees;
+    private RolePermissionCache rolePermissionCache;
+
+    public MenuTreeCache(@Value("${cache.menu.max-size:1000}") int maxSize) {
+        this.roleTrees = new LocalCache<>(maxSize, CacheEnum.ROLE_PERMISSION.getTtl() * 60_000L);
+        this.mergedTrees = new LocalCache<>(maxSize, CacheEnum.ROLE_PERMISSION.getTtl() * 60_000L);
+    }
+
+    @Autowired
+    public void setRolePermissionCache(RolePermissionCache rolePermissionCache) {
+        this.rolePermissionCache = rolePermissionCache;
+    }
+
+    public List<MenuResponse> getMenuTree(List<Long> roleIds) {
+        List<Long> ids = roleIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (ids.isEmpty()) return List.of();
+        if (ids.size() == 1) return getRoleTree(ids.get(0));
+        String key = ids.toString();
+        List<MenuResponse> tree = mergedTrees.get(key);
+        if (tree != null) return tree;
+        long current = version.get();
+        //同id的選單只留一個
+        Map<Long, MenuResponse> menus = new LinkedHashMap<>();
+        ids.forEach(id -> rolePermissionCache.getRoleMenu(id).forEach(menu -> menus.putIfAbsent(menu.getId(), menu)));
+        tree = MenuService.buildTree(menus.values());
+        if (version.get() == current) mergedTrees.put(key, tree);
+        return tree;
+    }
+
+    public List<MenuResponse> getRoleTree(long roleId) {
+        List<MenuResponse> tree = roleTrees.get(roleId);
+        if (tree != null) return tree;
+        long current = version.get();
+        tree = MenuService.buildTree(rolePermissionCache.getRoleMenu(roleId));
+        if (version.get() == current) roleTrees.put(roleId, tree);
+        return tree;
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        roleTrees.clear();
+        mergedTrees.clear();
+    }
+
+    public void invalidateRole(long roleId) {
+        version.incrementAndGet();
+        roleTrees.remove(roleId);
+        mergedTrees.clear();
+    }
+
+    @Override
+    public void invalidateLocal(String message) {
+        if (CacheConstant.ALL.equals(message) || CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION.equals(message)) {
+            invalidate();
+            return;
+        }
+        if (message.startsWith(ROLE_MENU_KEY)) {
+            String roleId = message.substring(ROLE_MENU_KEY.length());
+            try {
+                invalidateRole(Long.parseLong(roleId));
+            } catch (NumberFormatException e) {
+                invalidate();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.service.PermissionService;
+import com.erp.base.tool.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * 路徑權限狀態，整張permission表編譯成RouteTable放在節點內
+ * 權限狀態變更(刷新rolePermission或其中的permissions)時重新載入並整個替換
+ */
+@Service
+public class PermissionRouteCache implements LocalCacheInvalidator {
+    private static final String PERMISSIONS_KEY = CacheKey.PERMISSIONS.toString();
+    LogFactory LOG = new LogFactory(PermissionRouteCache.class);
+    private PermissionService permissionService;
+    private volatile RouteTable routeTable;
+
+    @Autowired
+    public void setPermissionService(@Lazy PermissionService permissionService) {
+        this.permissionService = permissionService;
+    }
+
+    public Boolean permissionStatus(String path) {
+        RouteTable table = routeTable;
+        if (table == null) table = load();
+        return table.status(path);
+    }
+
+    public synchronized RouteTable reload() {
+        RouteTable table = RouteTable.of(permissionService.findAll());
+        routeTable = table;
+        LOG.info("route table loaded, size: {0}", table.size());
+        return table;
+    }
+
+    private synchronized RouteTable load() {
+        RouteTable table = routeTable;
+        return table == null ? reload() : table;
+    }
+
+    @Override
+    public void invalidateLocal(String message) {
+        if (CacheConstant.ALL.equals(message) || CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION.equals(message) || PERMISSIONS_KEY.equals(message)) reload();
+    }
+}
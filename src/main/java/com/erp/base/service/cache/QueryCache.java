@@ -0,0 +1,179 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.model.GenericSpecifications;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheEntity;
+import com.erp.base.tool.LocalCache;
+import com.erp.base.tool.LogFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 分頁列表查詢結果緩存
+ * key = query::實體::v版本::hash(條件、頁碼、筆數、排序)，實體有異動時版本+1，舊版本的key不再被讀到，等TTL過期
+ * 結果存成JSON，命中時返回JsonNode，序列化後和原本的回應相同；沒有條件字串(非GenericSpecifications組成)的查詢不緩存
+ * 列表內嵌的關聯資料(用戶名稱等)異動不會換版本，最多延遲TTL
+ * 純本地模式(cache.mode=local)結果和版本號存在JVM內，筆數上限同cache.local.max-size
+ */
+@Service
+public class QueryCache {
+    LogFactory LOG = new LogFactory(QueryCache.class);
+    private static final String PREFIX = CacheConstant.QUERY.QUERY + "::";
+    private final boolean enabled;
+    private final Duration ttl;
+    //純本地模式才有，其他為null
+    private final LocalCache<String, String> localStore;
+    private final Map<CacheEntity, AtomicLong> localVersions = new ConcurrentHashMap<>();
+    private final LongAdder hit = new LongAdder();
+    private final LongAdder miss = new LongAdder();
+    private final LongAdder bypass = new LongAdder();
+    private final LongAdder error = new LongAdder();
+    private StringRedisTemplate stringRedisTemplate;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public QueryCache(@Value("${cache.query.enabled:false}") boolean enabled, @Value("${cache.query.ttl:300}") long ttlSeconds,
+                      @Value("${cache.mode:redis}") String mode, @Value("${cache.local.max-size:10000}") int localMaxSize) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.localStore = "local".equals(mode) ? new LocalCache<>(localMaxSize, ttl.toMillis()) : null;
+    }
+
+    @Autowired
+    public void setStringRedisTemplate(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param loader 實際查詢，未命中或Redis異常時呼叫
+     */
+    public Object get(CacheEntity entity, Specification<?> specification, Pageable pageable, Supplier<?> loader) {
+        String criteria = specification instanceof GenericSpecifications.KeyedSpecification<?> keyed ? keyed.getKey() : null;
+        if (!enabled || criteria == null) {
+            bypass.increment();
+            return loader.get();
+        }
+        String key;
+        try {
+            key = PREFIX + entity.name().toLowerCase() + "::v" + version(entity) + "::" + digest(criteria + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort());
+            String json = read(key);
+            if (json != null) {
+                hit.increment();
+                return objectMapper.readTree(json);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            error.increment();
+            LOG.warn("query cache read error: {0}", e.getMessage());
+            return loader.get();
+        }
+        miss.increment();
+        Object result = loader.get();
+        try {
+            write(key, objectMapper.writeValueAsString(result));
+        } catch (JsonProcessingException | RuntimeException e) {
+            error.increment();
+            LOG.warn("query cache write error: {0}", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 實體異動，交易提交後版本+1
+     */
+    public void bumpVersion(CacheEntity entity) {
+        if (!enabled) return;
+        Runnable task = () -> {
+            try {
+                if (localStore != null) {
+                    localVersions.computeIfAbsent(entity, k -> new AtomicLong()).incrementAndGet();
+                } else {
+                    stringRedisTemplate.opsForValue().increment(versionKey(entity));
+                }
+            } catch (RuntimeException e) {
+                error.increment();
+                LOG.warn("query cache version error: {0}", e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+            return;
+        }
+        task.run();
+    }
+
+    public Map<String, Object> getMetrics() {
+        long requests = hit.sum() + miss.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("hit", hit.sum());
+        map.put("miss", miss.sum());
+        map.put("hitRatio", requests == 0 ? 0d : Math.round(hit.sum() * 10000d / requests) / 10000d);
+        map.put("bypass", bypass.sum());
+        map.put("error", error.sum());
+        return map;
+    }
+
+    private String read(String key) {
+        return localStore != null ? localStore.get(key) : stringRedisTemplate.opsForValue().get(key);
+    }
+
+    private void write(String key, String json) {
+        if (localStore != null) {
+            localStore.put(key, json);
+            return;
+        }
+        stringRedisTemplate.opsForValue().set(key, json, ttl);
+    }
+
+    private String version(CacheEntity entity) {
+        if (localStore != null) {
+            AtomicLong version = localVersions.get(entity);
+            return version == null ? "0" : String.valueOf(version.get());
+        }
+        String version = stringRedisTemplate.opsForValue().get(versionKey(entity));
+        return version == null ? "0" : version;
+    }
+
+    private static String versionKey(CacheEntity entity) {
+        return PREFIX + entity.name().toLowerCase() + "::version";
+    }
+
+    private static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 系統資訊計數存在Redis的hash，各節點共用，各寫入點用HINCRBY/HINCRBYFLOAT增減，讀取只要一次HGETALL
+ */
+@Service
+@ConditionalOnProperty(name = "cache.mode", havingValue = "redis", matchIfMissing = true)
+public class RedisSystemCounter extends SystemCounter {
+    private static final String KEY = CacheConstant.SYSTEM_INFO.SYSTEM_INFO;
+    //每次增減都加一的版本號，重算寫回前比對，期間有增減就放棄寫入
+    private static final String VERSION = "version";
+    //hash不存在時不增減，避免只有部分欄位的hash被當成完整資料，等下次讀取重算
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then redis.call('hincrby', KEYS[1], '" + VERSION + "', 1) " +
+            "return redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) end return nil", Long.class);
+    private static final RedisScript<String> INCREMENT_FLOAT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then redis.call('hincrby', KEYS[1], '" + VERSION + "', 1) " +
+            "return redis.call('hincrbyfloat', KEYS[1], ARGV[1], ARGV[2]) end return nil", String.class);
+    //ARGV[1]為讀取SQL前的版本號(不存在時為空字串)，其後為欄位、值
+    private static final RedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('hget', KEYS[1], '" + VERSION + "') or '') ~= ARGV[1] then return 0 end " +
+            "redis.call('hmset', KEYS[1], unpack(ARGV, 2)) return 1", Long.class);
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    public void setStringRedisTemplate(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Override
+    protected Map<String, String> entries() {
+        return hash().entries(KEY);
+    }
+
+    @Override
+    protected void increment(String field, long delta) {
+        stringRedisTemplate.execute(INCREMENT_SCRIPT, List.of(KEY), field, Long.toString(delta));
+    }
+
+    @Override
+    protected void increment(String field, BigDecimal delta) {
+        stringRedisTemplate.execute(INCREMENT_FLOAT_SCRIPT, List.of(KEY), field, delta.toPlainString());
+    }
+
+    @Override
+    protected String version() {
+        return hash().get(KEY, VERSION);
+    }
+
+    @Override
+    protected boolean write(String expectedVersion, Map<String, String> values) {
+        List<String> args = new ArrayList<>();
+        args.add(expectedVersion == null ? "" : expectedVersion);
+        values.forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        Long written = stringRedisTemplate.execute(RECONCILE_SCRIPT, List.of(KEY), args.toArray());
+        return written != null && written != 0;
+    }
+
+    @Override
+    protected void clear() {
+        stringRedisTemplate.delete(KEY);
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return stringRedisTemplate.opsForHash();
+    }
+}
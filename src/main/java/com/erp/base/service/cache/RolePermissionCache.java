@@ -1,6 +1,8 @@
 package com.erp.base.service.cache;
 
+import com.erp.base.config.redis.NearCacheManager;
 import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
 import com.erp.base.model.dto.response.MenuResponse;
 import com.erp.base.model.dto.response.role.PermissionListResponse;
 import com.erp.base.model.dto.security.RolePermissionDto;
@@ -14,6 +16,7 @@ import com.erp.base.service.RoleService;
 import com.erp.base.tool.LogFactory;
 import com.erp.base.tool.ObjectTool;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
@@ -54,20 +57,29 @@ public class RolePermissionCache {
         this.roleService = roleService;
     }
 
-    @Cacheable(key = "'" +CacheConstant.ROLE_PERMISSION.ROLES + "'")
+    //背景提前刷新直接呼叫本身的方法重查，不經過緩存代理；只註冊返回DTO的，實體在交易外序列化會碰到懶加載
+    @Autowired
+    public void setCacheManager(CacheManager cacheManager) {
+        if (cacheManager instanceof NearCacheManager nearCacheManager) {
+            nearCacheManager.registerRefreshLoader(CacheKey.ROLE_PERMISSION, this::getRolePermission);
+            nearCacheManager.registerRefreshLoader(CacheKey.ROLE_MENU, this::getRoleMenu);
+        }
+    }
+
+    @Cacheable(sync = true, key = "'" +CacheConstant.ROLE_PERMISSION.ROLES + "'")
     public Map<Long, RoleModel> getRole() {
         List<RoleModel> allRoles = roleService.findAll();
         return allRoles.stream().collect(Collectors.toMap(RoleModel::getId, role -> role));
     }
 
-    @Cacheable(key = "'" +CacheConstant.ROLE_PERMISSION.PERMISSIONS + "'")
+    @Cacheable(sync = true, key = "'" +CacheConstant.ROLE_PERMISSION.PERMISSIONS + "'")
     public List<PermissionModel> getPermission() {
         List<PermissionModel> allPermission = permissionService.findAll();
         LOG.info("all permission: {0}", ObjectTool.toJson(allPermission));
         return allPermission;
     }
 
-    @Cacheable(key = "'" + CacheConstant.ROLE_PERMISSION.PERMISSIONS_MAP + "'")
+    @Cacheable(sync = true, key = "'" + CacheConstant.ROLE_PERMISSION.PERMISSIONS_MAP + "'")
     public List<PermissionListResponse> getPermissionList() {
         List<PermissionModel> allPermission = getPermission();
         Map<String, List<PermissionModel>> map = new HashMap<>();
@@ -87,28 +99,30 @@ public class RolePermissionCache {
     }
 
     //角色擁有權限
-    @Cacheable(key = "'" + CacheConstant.ROLE_PERMISSION.ROLE_PERMISSION + "'" + " + #id")
+    @Cacheable(sync = true, key = "T(com.erp.base.model.constant.cache.CacheKey).ROLE_PERMISSION.key(#id)")
     public Set<RolePermissionDto> getRolePermission(long id) {
         RoleModel role = roleService.findById(id);
         return role == null ? null : role.getRolePermissionsDto();
     }
 
-    @Cacheable(key = "'" + CacheConstant.ROLE_PERMISSION.PERMISSION_STATUS + "'" + " + #path")
-    public Boolean permissionStatus(String path) {
-        return permissionService.checkPermissionIfDeny(path);
-    }
-
-    @Cacheable(key = "'" + CacheConstant.ROLE_PERMISSION.DEPARTMENT + "'" + " + #id")
+    @Cacheable(sync = true, key = "T(com.erp.base.model.constant.cache.CacheKey).DEPARTMENT.key(#id)")
     public DepartmentModel getDepartment(Long id) {
         return departmentService.findById(id);
     }
 
-    @Cacheable(key = "'" + CacheConstant.ROLE_PERMISSION.MENU_TREE + "'")
+    //啟動預熱用，批次查出後由CacheService一次寫入
+    public Map<CacheKey, DepartmentModel> loadDepartments() {
+        Map<CacheKey, DepartmentModel> map = new LinkedHashMap<>();
+        departmentService.findAll().forEach(department -> map.put(CacheKey.DEPARTMENT.of(department.getId()), department));
+        return map;
+    }
+
+    @Cacheable(sync = true, key = "'" + CacheConstant.ROLE_PERMISSION.MENU_TREE + "'")
     public List<MenuResponse> findMenuTree() {
         return menuService.findAllTree();
     }
 
-    @Cacheable(key = "'" + CacheConstant.ROLE_PERMISSION.ROLE_MENU + "'" + " + #id")
+    @Cacheable(sync = true, key = "T(com.erp.base.model.constant.cache.CacheKey).ROLE_MENU.key(#id)")
     public List<MenuResponse> getRoleMenu(Long id) {
         return menuService.getRoleMenu(id);
     }
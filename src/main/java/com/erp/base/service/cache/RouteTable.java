@@ -0,0 +1,58 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.model.entity.PermissionModel;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.*;
+
+/**
+ * permission表編譯後的路徑狀態表，建立後不可變
+ * 一般路徑直接查HashMap，含萬用字元的路徑(ant pattern)才逐一比對
+ */
+public final class RouteTable {
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+    private final Map<String, Boolean> exact;
+    private final String[] patterns;
+    private final Boolean[] patternStatus;
+
+    private RouteTable(Map<String, Boolean> exact, String[] patterns, Boolean[] patternStatus) {
+        this.exact = exact;
+        this.patterns = patterns;
+        this.patternStatus = patternStatus;
+    }
+
+    public static RouteTable of(List<PermissionModel> permissions) {
+        Map<String, Boolean> exact = new HashMap<>();
+        Map<String, Boolean> patternMap = new HashMap<>();
+        for (PermissionModel permission : permissions) {
+            String url = permission.getUrl();
+            if (url == null) continue;
+            boolean status = Boolean.TRUE.equals(permission.getStatus());
+            if (MATCHER.isPattern(url)) {
+                patternMap.put(url, status);
+            } else {
+                exact.put(url, status);
+            }
+        }
+        //越長的pattern越精確，先比對
+        String[] patterns = patternMap.keySet().stream().sorted(Comparator.comparingInt(String::length).reversed()).toArray(String[]::new);
+        Boolean[] patternStatus = Arrays.stream(patterns).map(patternMap::get).toArray(Boolean[]::new);
+        return new RouteTable(Map.copyOf(exact), patterns, patternStatus);
+    }
+
+    /**
+     * 路徑狀態，不在permission表內的路徑返回null
+     */
+    public Boolean status(String path) {
+        Boolean status = exact.get(path);
+        if (status != null) return status;
+        for (int i = 0; i < patterns.length; i++) {
+            if (MATCHER.match(patterns[i], path)) return patternStatus[i];
+        }
+        return null;
+    }
+
+    public int size() {
+        return exact.size() + patterns.length;
+    }
+}
@@ -0,0 +1,204 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.service.ClientService;
+import com.erp.base.service.ProcurementService;
+import com.erp.base.service.ProjectService;
+import com.erp.base.tool.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 首頁系統資訊的計數，各寫入點增減，讀取不查SQL
+ * 交易內的增減等提交後才送出；計數不存在(首次、全刷後)或跨月時從SQL重算，並定期校正累積的誤差
+ * 存放位置依cache.mode，redis為RedisSystemCounter(多節點共用)，local為LocalSystemCounter(JVM內)
+ */
+public abstract class SystemCounter {
+    LogFactory LOG = new LogFactory(SystemCounter.class);
+    //啟用中(未停用且未鎖定)的用戶數、其中今天已打卡的數量
+    protected static final String ACTIVE_USER = "activeUser";
+    protected static final String SIGNED_USER = "signedUser";
+    protected static final String PROJECT = "project";
+    //本月採購進、出金額，和統計的月份
+    protected static final String PROCURE_IN = "procureIn";
+    protected static final String PROCURE_OUT = "procureOut";
+    protected static final String PROCURE_MONTH = "procureMonth";
+    private static final int NOT_SIGNED = 1;
+    private static final int PROCURE_TYPE_IN = 1;
+    private static final int PROCURE_TYPE_OUT = 2;
+    private ClientService clientService;
+    private ProjectService projectService;
+    private ProcurementService procurementService;
+
+    @Autowired
+    public void setClientService(@Lazy ClientService clientService) {
+        this.clientService = clientService;
+    }
+
+    @Autowired
+    public void setProjectService(@Lazy ProjectService projectService) {
+        this.projectService = projectService;
+    }
+
+    @Autowired
+    public void setProcurementService(@Lazy ProcurementService procurementService) {
+        this.procurementService = procurementService;
+    }
+
+    /**
+     * @return systemUser(已打卡/啟用用戶數)、systemProject(專案數)、systemProcure(本月進、出金額)
+     */
+    public Map<String, Object> getSystemInfo() {
+        Map<String, String> values = entries();
+        if (values.isEmpty() || !currentMonth().equals(values.get(PROCURE_MONTH))) values = reconcile();
+        Map<String, Object> map = new HashMap<>();
+        map.put("systemUser", number(values.get(SIGNED_USER)) + "/" + number(values.get(ACTIVE_USER)));
+        map.put("systemProject", String.valueOf(number(values.get(PROJECT))));
+        map.put("systemProcure", new Object[]{decimal(values.get(PROCURE_IN)), decimal(values.get(PROCURE_OUT))});
+        return map;
+    }
+
+    /**
+     * 用戶狀態變動，不存在的一方傳counted=false
+     * @param countedBefore 變動前是否為啟用用戶
+     * @param attendBefore 變動前的打卡狀態
+     */
+    public void clientChanged(boolean countedBefore, int attendBefore, boolean countedAfter, int attendAfter) {
+        long active = (countedAfter ? 1 : 0) - (countedBefore ? 1 : 0);
+        long signed = signed(countedAfter, attendAfter) - signed(countedBefore, attendBefore);
+        if (active == 0 && signed == 0) return;
+        afterCommit(() -> {
+            if (active != 0) increment(ACTIVE_USER, active);
+            if (signed != 0) increment(SIGNED_USER, signed);
+        });
+    }
+
+    public void projectAdded() {
+        afterCommit(() -> increment(PROJECT, 1));
+    }
+
+    /**
+     * 採購單新增/修改/刪除，只有本月建立的才計入，新增時before傳null，刪除時after傳null
+     */
+    public void procureChanged(LocalDateTime createTime, Integer typeBefore, BigDecimal priceBefore, Integer typeAfter, BigDecimal priceAfter) {
+        if (createTime == null || !YearMonth.from(createTime).toString().equals(currentMonth())) return;
+        Map<String, BigDecimal> delta = new HashMap<>();
+        if (typeBefore != null && priceBefore != null) delta.merge(procureField(typeBefore), priceBefore.negate(), BigDecimal::add);
+        if (typeAfter != null && priceAfter != null) delta.merge(procureField(typeAfter), priceAfter, BigDecimal::add);
+        delta.remove(null);
+        delta.values().removeIf(value -> value.signum() == 0);
+        if (delta.isEmpty()) return;
+        afterCommit(() -> delta.forEach(this::increment));
+    }
+
+    /**
+     * 從SQL重算整組計數，以版本號compare-and-set寫回，重算期間有其他增減時不覆蓋，留給下次校正
+     */
+    @Scheduled(fixedDelayString = "${system-info.reconcile-interval:600000}", initialDelayString = "${system-info.reconcile-interval:600000}")
+    public Map<String, String> reconcile() {
+        String version;
+        try {
+            version = version();
+        } catch (RuntimeException e) {
+            LOG.warn("system info reconcile error: {0}", e.getMessage());
+            version = null;
+        }
+        Object[] user = clientService.getSystemUserCount();
+        Object[] procure = procurementService.getSystemProcure();
+        Map<String, String> values = new HashMap<>();
+        values.put(SIGNED_USER, String.valueOf(user[0]));
+        values.put(ACTIVE_USER, String.valueOf(user[1]));
+        values.put(PROJECT, projectService.getSystemProject());
+        values.put(PROCURE_IN, String.valueOf(procure[0]));
+        values.put(PROCURE_OUT, String.valueOf(procure[1]));
+        values.put(PROCURE_MONTH, currentMonth());
+        try {
+            if (!write(version, values)) LOG.info("system info changed during reconcile, skip write");
+        } catch (RuntimeException e) {
+            LOG.warn("system info reconcile error: {0}", e.getMessage());
+        }
+        return values;
+    }
+
+    /**
+     * 清掉計數，下次讀取時重算
+     */
+    public void reset() {
+        afterCommit(this::clear);
+    }
+
+    /**
+     * 全部計數，不存在時回傳空Map
+     */
+    protected abstract Map<String, String> entries();
+
+    /**
+     * 計數存在時增減並把版本號加一，不存在時不處理，避免只有部分欄位被當成完整資料
+     */
+    protected abstract void increment(String field, long delta);
+
+    protected abstract void increment(String field, BigDecimal delta);
+
+    /**
+     * @return 目前的版本號，計數不存在時為null
+     */
+    protected abstract String version();
+
+    /**
+     * 版本號仍為expectedVersion時寫入重算結果
+     * @return 是否寫入
+     */
+    protected abstract boolean write(String expectedVersion, Map<String, String> values);
+
+    protected abstract void clear();
+
+    private void afterCommit(Runnable task) {
+        Runnable safeTask = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.warn("system info counter error: {0}", e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safeTask.run();
+                }
+            });
+            return;
+        }
+        safeTask.run();
+    }
+
+    private static long signed(boolean counted, int attendStatus) {
+        return counted && attendStatus != NOT_SIGNED ? 1 : 0;
+    }
+
+    private static String procureField(int type) {
+        if (type == PROCURE_TYPE_IN) return PROCURE_IN;
+        if (type == PROCURE_TYPE_OUT) return PROCURE_OUT;
+        return null;
+    }
+
+    private static String currentMonth() {
+        return YearMonth.now().toString();
+    }
+
+    private static long number(String value) {
+        return value == null ? 0 : new BigDecimal(value).longValue();
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value);
+    }
+}
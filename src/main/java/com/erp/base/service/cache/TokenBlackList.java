@@ -1,29 +1,139 @@
 package com.erp.base.service.cache;
 
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.config.redis.LocalOnlyCache;
 import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.service.security.TokenService;
+import com.erp.base.tool.BloomFilter;
+import com.erp.base.tool.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * token黑名單，Redis的key為token的SHA-256(Base64)，不存完整token
+ * 前面放一個節點內的布隆過濾器，確定不在黑名單的token不用查Redis
+ * 其他節點新增的黑名單透過失效通知同步進過濾器，並定期從Redis重建清掉已過期的資料
+ */
 @Service
 @CacheConfig(cacheNames = CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST)
-public class TokenBlackList {
-
+public class TokenBlackList implements LocalCacheInvalidator {
+    LogFactory LOG = new LogFactory(TokenBlackList.class);
+    private static final String KEY_PREFIX = CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST + "::";
+    private static final double FPP = 0.001;
+    private final long expectedSize;
     private Cache cache;
+    private StringRedisTemplate stringRedisTemplate;
+    //null表示還沒建立成功，全部查Redis
+    private volatile BloomFilter filter;
+    //重建期間新增的摘要，SCAN不保證掃到期間新增的key，換上新過濾器後再補進去
+    private volatile Queue<byte[]> pending;
+
+    public TokenBlackList(@Value("${cache.token-black-list.expected-size:100000}") long expectedSize) {
+        this.expectedSize = expectedSize;
+    }
+
     @Autowired
     public void setCacheManager(CacheManager cacheManager){
         this.cache = cacheManager.getCache(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST);
     }
 
-    @Cacheable(key = "#token")
+    @Autowired
+    public void setStringRedisTemplate(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 加入黑名單
+     * @return token摘要，用於通知其他節點
+     */
     public String add(String token) {
-        return token;
+        byte[] hash = hash(token);
+        String digest = Base64.getEncoder().encodeToString(hash);
+        cache.put(digest, Boolean.TRUE);
+        mark(hash);
+        return digest;
     }
 
     public boolean exists(String token){
-        return cache.get(token) != null;
+        byte[] hash = hash(token);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(hash)) return false;
+        return cache.get(Base64.getEncoder().encodeToString(hash)) != null;
+    }
+
+    /**
+     * 從Redis(純本地模式為本地緩存)現有的黑名單重建過濾器，順便清掉已過期的token
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${cache.token-black-list.rebuild-interval:600000}", initialDelayString = "${cache.token-black-list.rebuild-interval:600000}")
+    public synchronized void rebuild() {
+        BloomFilter next = new BloomFilter(expectedSize, FPP);
+        Queue<byte[]> marks = new ConcurrentLinkedQueue<>();
+        pending = marks;
+        int count = 0;
+        try {
+            if (cache instanceof LocalOnlyCache localOnlyCache) {
+                for (Object key : localOnlyCache.keys()) {
+                    next.put(Base64.getDecoder().decode(String.valueOf(key)));
+                    count++;
+                }
+            } else {
+                try (Cursor<String> cursor = stringRedisTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build())) {
+                    while (cursor.hasNext()) {
+                        next.put(Base64.getDecoder().decode(cursor.next().substring(KEY_PREFIX.length())));
+                        count++;
+                    }
+                }
+            }
+            //先換上新過濾器再停止記錄，mark在這之後讀到的一定是新過濾器，之前記錄的由下面補上
+            filter = next;
+            pending = null;
+            for (byte[] hash; (hash = marks.poll()) != null; ) next.put(hash);
+            LOG.info("token black list filter rebuilt, size: {0}", count);
+        } catch (RuntimeException e) {
+            pending = null;
+            LOG.error("token black list filter rebuild error: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * 其他節點新增黑名單時收到'tokenBlackList:摘要'，整個清空時重建
+     */
+    @Override
+    public void invalidateLocal(String message) {
+        if (CacheConstant.ALL.equals(message) || CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST.equals(message)) {
+            rebuild();
+            return;
+        }
+        String prefix = CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST + CacheConstant.SPLIT_CONSTANT;
+        if (message.startsWith(prefix)) mark(Base64.getDecoder().decode(message.substring(prefix.length())));
+    }
+
+    /**
+     * 先記錄到重建佇列再寫入目前的過濾器，順序不能反過來，否則換過濾器的瞬間可能兩邊都沒寫到
+     */
+    private void mark(byte[] hash) {
+        Queue<byte[]> marks = pending;
+        if (marks != null) marks.add(hash);
+        BloomFilter current = filter;
+        if (current != null) current.put(hash);
+    }
+
+    private byte[] hash(String token) {
+        return TokenService.tokenHash(token.replace(TokenService.TOKEN_PREFIX, ""));
     }
 }
@@ -0,0 +1,9 @@
+package com.erp.base.service.export;
+
+import java.util.function.Function;
+
+/**
+ * 匯出欄位: 標題和取值方式
+ */
+public record ExportColumn<T>(String header, Function<? super T, ?> value) {
+}
@@ -0,0 +1,42 @@
+package com.erp.base.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public ExportWriter open(OutputStream out) throws IOException {
+        return this == CSV ? new CsvExportWriter(out) : new XlsxExportWriter(out);
+    }
+
+    /**
+     * 不分大小寫，未傳時為CSV
+     */
+    public static ExportFormat of(String format) {
+        if (format == null || format.isBlank()) return CSV;
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("unsupported export format: " + format);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.erp.base.service.export;
+
+import com.erp.base.exception.TooManyRequestsException;
+import com.erp.base.tool.DtoMapper;
+import com.erp.base.tool.LogFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 清單匯出
+ * 以Specification組查詢，設定fetch size後用getResultStream逐筆讀取(forward-only游標)，轉成DTO後直接寫到response的輸出串流，
+ * 每fetch-size筆清空一次persistence context並送出緩衝內容，記憶體用量和總筆數無關
+ * EAGER的單值關聯(user、createBy及其department等)在同一個查詢裡fetch join，否則Hibernate會每筆另外select，且每次clear後重查
+ * 同時匯出數超過export.max-concurrent時直接拒絕(429)，避免長時間佔用連線和游標
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    LogFactory LOG = new LogFactory(ExportService.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+    private final Semaphore permits;
+
+    public ExportService(@Value("${export.max-concurrent:4}") int maxConcurrent) {
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * @param name 檔名前綴
+     * @param entity 查詢的entity
+     * @param clazz 轉換的DTO，需有以entity為參數的建構子
+     */
+    public <E, C> void export(HttpServletResponse response, ExportFormat format, String name, Class<E> entity,
+                              Specification<E> specification, Sort sort, Class<C> clazz, List<ExportColumn<C>> columns) throws IOException {
+        if (!permits.tryAcquire()) throw new TooManyRequestsException("export " + name + " rejected, too many concurrent exports");
+        try {
+            write(response, format, name, entity, specification, sort, clazz, columns);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private <E, C> void write(HttpServletResponse response, ExportFormat format, String name, Class<E> entity,
+                              Specification<E> specification, Sort sort, Class<C> clazz, List<ExportColumn<C>> columns) throws IOException {
+        long start = System.currentTimeMillis();
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "_" + FILE_TIME.format(LocalDateTime.now()) + "." + format.getExtension(), StandardCharsets.UTF_8)
+                .build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        long count = 0;
+        try (ExportWriter writer = format.open(response.getOutputStream());
+             Stream<E> stream = query(entity, specification, sort).getResultStream()) {
+            writer.writeRow(columns.stream().map(ExportColumn::header).toArray());
+            Function<Object, Object> mapper = null;
+            Class<?> source = null;
+            for (E row : (Iterable<E>) stream::iterator) {
+                if (row.getClass() != source) {
+                    source = row.getClass();
+                    mapper = DtoMapper.mapper(source, clazz);
+                }
+                writer.writeRow(values(clazz.cast(mapper.apply(row)), columns));
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+            writer.finish();
+        } catch (IOException | RuntimeException e) {
+            //還沒送出任何內容時清掉標頭，交給GlobalExceptionHandler回應錯誤
+            if (!response.isCommitted()) response.reset();
+            throw e;
+        }
+        LOG.info("export {0}.{1} rows: {2}, {3}ms", name, format.getExtension(), count, System.currentTimeMillis() - start);
+    }
+
+    private <E> TypedQuery<E> query(Class<E> entity, Specification<E> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = criteriaBuilder.createQuery(entity);
+        Root<E> root = query.from(entity);
+        fetchEager(root, entity, new HashSet<>());
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) query.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    /**
+     * 遞迴fetch join EAGER的ManyToOne/OneToOne，同一路徑上出現過的entity不再往下，避免自我關聯無限展開
+     */
+    private static void fetchEager(FetchParent<?, ?> parent, Class<?> type, Set<Class<?>> path) {
+        path.add(type);
+        for (Field field : type.getDeclaredFields()) {
+            ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+            OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+            FetchType fetchType = manyToOne != null ? manyToOne.fetch() : oneToOne != null ? oneToOne.fetch() : FetchType.LAZY;
+            if (fetchType != FetchType.EAGER || path.contains(field.getType())) continue;
+            fetchEager(parent.fetch(field.getName(), JoinType.LEFT), field.getType(), path);
+        }
+        path.remove(type);
+    }
+
+    private static <C> Object[] values(C dto, List<ExportColumn<C>> columns) {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) values[i] = columns.get(i).value().apply(dto);
+        return values;
+    }
+}
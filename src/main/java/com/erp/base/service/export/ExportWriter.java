@@ -0,0 +1,21 @@
+package com.erp.base.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 逐列寫出的匯出格式，不在記憶體保留已寫出的列
+ */
+public interface ExportWriter extends Closeable {
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * 把緩衝內容送出
+     */
+    void flush() throws IOException;
+
+    /**
+     * 寫完所有列後呼叫，補上檔案結尾
+     */
+    void finish() throws IOException;
+}
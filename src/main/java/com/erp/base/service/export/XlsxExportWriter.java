@@ -0,0 +1,76 @@
+package com.erp.base.service.export;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * SXSSF串流寫入，記憶體只保留最近WINDOW列，其餘寫到壓縮的暫存檔
+ * xlsx是zip格式，內容要到finish時才能寫出；超過單一工作表的列數上限時換下一張工作表並重複標題列
+ */
+public class XlsxExportWriter implements ExportWriter {
+    private static final int WINDOW = 100;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int MAX_TEXT = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private SXSSFSheet sheet;
+    private Object[] header;
+    private int rowIndex;
+
+    public XlsxExportWriter(OutputStream out) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(WINDOW);
+        workbook.setCompressTempFiles(true);
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        if (header == null) header = values;
+        if (sheet == null || rowIndex >= MAX_ROWS) {
+            sheet = workbook.createSheet();
+            rowIndex = 0;
+            if (values != header) write(header);
+        }
+        write(values);
+    }
+
+    @Override
+    public void flush() {
+        //列已依WINDOW寫到暫存檔，不需處理
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheet == null) workbook.createSheet();
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        workbook.dispose();
+    }
+
+    private void write(Object[] values) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) continue;
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                cell.setCellValue(bool);
+            } else {
+                String text = value.toString();
+                cell.setCellValue(text.length() > MAX_TEXT ? text.substring(0, MAX_TEXT) : text);
+            }
+        }
+    }
+}
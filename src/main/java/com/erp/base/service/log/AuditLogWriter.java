@@ -0,0 +1,235 @@
+package com.erp.base.service.log;
+
+import com.erp.base.model.entity.LogModel;
+import com.erp.base.tool.LatencyHistogram;
+import com.erp.base.tool.LogFactory;
+import com.erp.base.tool.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日誌非同步批次寫入
+ * 請求執行緒只把日誌放進環形佇列，背景執行緒每flush-interval或累積到batch-size筆時用JDBC batch寫入
+ * 佇列滿時先喚醒寫入執行緒並等待offer-timeout，仍然放不進去再依overflow處理:
+ * CALLER_RUNS(由請求執行緒直接寫入)、DROP_NEWEST(丟棄這筆)、DROP_OLDEST(丟棄佇列最舊的一筆)
+ * 關閉時停止執行緒並寫完佇列內剩下的日誌
+ */
+@Component
+public class AuditLogWriter {
+    LogFactory LOG = new LogFactory(AuditLogWriter.class);
+    static final String INSERT_SQL = "INSERT INTO log (status, user_name, url, params, result, ip, time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+    private final boolean enabled;
+    private final RingBuffer<LogModel> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Overflow overflow;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public enum Overflow {
+        CALLER_RUNS, DROP_NEWEST, DROP_OLDEST
+    }
+
+    @Autowired
+    public AuditLogWriter(@Value("${log.async.enabled:false}") boolean enabled,
+                          @Value("${log.async.buffer-size:8192}") int bufferSize,
+                          @Value("${log.async.batch-size:200}") int batchSize,
+                          @Value("${log.async.flush-interval:1000}") long flushInterval,
+                          @Value("${log.async.offer-timeout:50}") long offerTimeout,
+                          @Value("${log.async.overflow:caller_runs}") String overflow) {
+        this.enabled = enabled;
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.batchSize = Math.max(batchSize, 1);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(flushInterval, 1));
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(offerTimeout, 0));
+        this.overflow = Overflow.valueOf(overflow.toUpperCase(Locale.ROOT));
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        Thread thread = new Thread(this::run, "audit-log-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 放進佇列，已關閉時直接寫入
+     */
+    public void submit(LogModel model) {
+        if (!running) {
+            write(List.of(model));
+            return;
+        }
+        if (offer(model)) return;
+        //佇列滿: 喚醒寫入執行緒後短暫等待
+        LockSupport.unpark(worker);
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            if (offer(model)) return;
+        }
+        switch (overflow) {
+            case CALLER_RUNS -> {
+                callerRuns.increment();
+                write(List.of(model));
+            }
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> {
+                if (buffer.poll() != null) dropped.increment();
+                if (!offer(model)) dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * 停止寫入執行緒並寫完佇列內剩下的日誌
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        Thread thread = worker;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        LOG.info("audit log writer stopped, written: {0}, failed: {1}, dropped: {2}", written.sum(), failed.sum(), dropped.sum());
+    }
+
+    /**
+     * 寫完佇列目前的內容
+     */
+    public void drain() {
+        List<LogModel> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 佇列容量、目前數量、各項計數和每批寫入耗時分佈
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("overflow", overflow);
+        map.put("capacity", buffer.capacity());
+        map.put("pending", buffer.size());
+        map.put("accepted", accepted.sum());
+        map.put("written", written.sum());
+        map.put("failed", failed.sum());
+        map.put("dropped", dropped.sum());
+        map.put("callerRuns", callerRuns.sum());
+        map.put("batches", batches.sum());
+        map.put("batchMillis", batchLatency.snapshot());
+        return map;
+    }
+
+    private boolean offer(LogModel model) {
+        if (!buffer.offer(model)) return false;
+        accepted.increment();
+        if (!running) {
+            //關閉途中放進來的，由自己寫入
+            drain();
+        } else if (buffer.size() >= batchSize) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            if (buffer.size() < batchSize) LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                LOG.error("audit log writer error: {0}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 同一批在一個交易內batch insert，失敗時改逐筆寫入，只略過寫不進去的那幾筆
+     */
+    private void write(List<LogModel> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), AuditLogWriter::setValues));
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            LOG.warn("audit log batch insert error: {0}, retry one by one", e.getMessage());
+            for (LogModel model : batch) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, ps -> setValues(ps, model));
+                    written.increment();
+                } catch (RuntimeException ex) {
+                    failed.increment();
+                    LOG.error("audit log insert error: {0}, url: {1}", ex.getMessage(), model.getUrl());
+                }
+            }
+        } finally {
+            batches.increment();
+            batchLatency.recordNanos(start);
+        }
+    }
+
+    private static void setValues(PreparedStatement ps, LogModel model) throws SQLException {
+        ps.setObject(1, model.getStatus());
+        ps.setString(2, model.getUserName());
+        ps.setString(3, model.getUrl());
+        ps.setString(4, model.getParams());
+        ps.setString(5, model.getResult());
+        ps.setString(6, model.getIp());
+        ps.setTimestamp(7, model.getTime() == null ? null : Timestamp.valueOf(model.getTime()));
+    }
+}
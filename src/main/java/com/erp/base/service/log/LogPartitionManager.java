@@ -0,0 +1,215 @@
+package com.erp.base.service.log;
+
+import com.erp.base.repository.LogRepository;
+import com.erp.base.repository.LogRollupRepository;
+import com.erp.base.tool.DateTool;
+import com.erp.base.tool.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * log表的時間分區和保留期限
+ * SQL Server下以time做RANGE RIGHT分區(每日或每月一個分區)，現有表轉成分區表會重建clustered index並鎖表，
+ * 不在排程內執行，由sql/log-partition_sqlServer.sql在維護時段手動轉換
+ * 已是分區表時，每次維護先建好未來的分區，超過保留期限的分區用TRUNCATE ... WITH (PARTITIONS)清空再MERGE掉，不逐筆DELETE
+ * 其他資料庫(測試用的H2)、關閉分區或尚未轉換時，過期資料改為分批刪除；彙總資料另有自己的保留期限
+ */
+@Component
+public class LogPartitionManager {
+    LogFactory LOG = new LogFactory(LogPartitionManager.class);
+    static final String FUNCTION = "pf_log_time";
+    static final String SCHEME = "ps_log_time";
+    private static final String SQL_SERVER = "Microsoft SQL Server";
+    private static final int DELETE_CHUNK = 1000;
+    private final boolean enabled;
+    private final Granularity granularity;
+    private final int ahead;
+    private final int retentionDays;
+    private final int rollupRetentionDays;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private LogRepository logRepository;
+    private LogRollupRepository logRollupRepository;
+    private Boolean supported;
+
+    public enum Granularity {
+        DAY, MONTH
+    }
+
+    @Autowired
+    public LogPartitionManager(@Value("${log.partition.enabled:false}") boolean enabled,
+                               @Value("${log.partition.granularity:month}") String granularity,
+                               @Value("${log.partition.ahead:2}") int ahead,
+                               @Value("${log.retention.days:0}") int retentionDays,
+                               @Value("${log.rollup.retention-days:0}") int rollupRetentionDays) {
+        this.enabled = enabled;
+        this.granularity = Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        this.ahead = Math.max(ahead, 1);
+        this.retentionDays = retentionDays;
+        this.rollupRetentionDays = rollupRetentionDays;
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Autowired
+    public void setLogRepository(LogRepository logRepository) {
+        this.logRepository = logRepository;
+    }
+
+    @Autowired
+    public void setLogRollupRepository(LogRollupRepository logRollupRepository) {
+        this.logRollupRepository = logRollupRepository;
+    }
+
+    /**
+     * 建立未來的分區並清掉過期資料，只處理已經轉成分區表的log表
+     * @return 執行結果，記log用
+     */
+    public Map<String, Object> maintain() {
+        LocalDateTime now = DateTool.now();
+        Map<String, Object> result = new LinkedHashMap<>();
+        boolean partitioned = enabled && isSupported() && isPartitioned();
+        result.put("partitioned", partitioned);
+        if (partitioned) result.put("created", createAhead(now));
+        if (retentionDays > 0) {
+            LocalDateTime cutoff = now.minusDays(retentionDays);
+            if (partitioned) {
+                result.put("droppedPartitions", dropBefore(periodStart(cutoff, granularity)));
+            } else {
+                result.put("deletedRows", deleteBefore(cutoff));
+            }
+        }
+        if (rollupRetentionDays > 0) {
+            LocalDateTime cutoff = now.minusDays(rollupRetentionDays);
+            result.put("deletedRollups", transactionTemplate.execute(status -> logRollupRepository.deleteByBucketBefore(cutoff)));
+        }
+        return result;
+    }
+
+    /**
+     * 目前的分區邊界
+     */
+    public List<LocalDateTime> boundaries() {
+        return jdbcTemplate.queryForList("SELECT CAST(v.value AS datetime2(0)) FROM sys.partition_range_values v " +
+                "JOIN sys.partition_functions f ON v.function_id = f.function_id WHERE f.name = ? ORDER BY v.boundary_id",
+                LocalDateTime.class, FUNCTION);
+    }
+
+    private boolean isSupported() {
+        if (supported == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            supported = SQL_SERVER.equals(product);
+            if (!supported) LOG.warn("log partition not supported on {0}, retention falls back to delete", product);
+        }
+        return supported;
+    }
+
+    /**
+     * log表的clustered index是否已在分區配置上，尚未轉換時不動表結構
+     */
+    private boolean isPartitioned() {
+        if (exists("SELECT COUNT(*) FROM sys.indexes i JOIN sys.partition_schemes s ON i.data_space_id = s.data_space_id " +
+                "WHERE i.object_id = OBJECT_ID('log') AND i.index_id <= 1 AND s.name = ?", SCHEME)) return true;
+        LOG.warn("log table not partitioned, run sql/log-partition_sqlServer.sql first, retention falls back to delete");
+        return false;
+    }
+
+    /**
+     * 補上到now之後ahead個週期的分區，只切最右邊(未來、無資料)的分區
+     * @return 新增的分區數
+     */
+    private int createAhead(LocalDateTime now) {
+        List<LocalDateTime> existing = boundaries();
+        LocalDateTime last = existing.isEmpty() ? null : existing.get(existing.size() - 1);
+        LocalDateTime target = plus(periodStart(now, granularity), ahead, granularity);
+        int created = 0;
+        for (LocalDateTime bound : periods(periodStart(now, granularity), target, granularity)) {
+            if (last != null && !bound.isAfter(last)) continue;
+            jdbcTemplate.execute("ALTER PARTITION SCHEME " + SCHEME + " NEXT USED [PRIMARY]");
+            jdbcTemplate.execute("ALTER PARTITION FUNCTION " + FUNCTION + "() SPLIT RANGE (" + literal(bound) + ")");
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * RANGE RIGHT下第1個分區是最小邊界之前的資料，邊界不晚於cutoff時清空第1個分區再合併掉這個邊界
+     * @return 清掉的分區數
+     */
+    private int dropBefore(LocalDateTime cutoff) {
+        int dropped = 0;
+        for (LocalDateTime bound : boundaries()) {
+            if (bound.isAfter(cutoff)) break;
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("TRUNCATE TABLE log WITH (PARTITIONS (1))");
+                jdbcTemplate.execute("ALTER PARTITION FUNCTION " + FUNCTION + "() MERGE RANGE (" + literal(bound) + ")");
+            });
+            dropped++;
+        }
+        if (dropped > 0) LOG.info("log partitions before {0} dropped: {1}", DateTool.format(cutoff), dropped);
+        return dropped;
+    }
+
+    /**
+     * 沒有分區時分批刪除，避免一次刪除鎖住整張表
+     * @return 刪除筆數
+     */
+    private long deleteBefore(LocalDateTime cutoff) {
+        long deleted = 0;
+        while (true) {
+            List<Long> ids = logRepository.findIdsBefore(cutoff, PageRequest.of(0, DELETE_CHUNK));
+            if (ids.isEmpty()) return deleted;
+            transactionTemplate.executeWithoutResult(status -> logRepository.deleteAllByIdInBatch(ids));
+            deleted += ids.size();
+        }
+    }
+
+    private boolean exists(String sql, String name) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, name);
+        return count != null && count > 0;
+    }
+
+    static LocalDateTime periodStart(LocalDateTime time, Granularity granularity) {
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return granularity == Granularity.MONTH ? day.withDayOfMonth(1) : day;
+    }
+
+    static LocalDateTime plus(LocalDateTime time, int periods, Granularity granularity) {
+        return granularity == Granularity.MONTH ? time.plusMonths(periods) : time.plusDays(periods);
+    }
+
+    /**
+     * from到to(皆含)之間每個週期的開始時間
+     */
+    static List<LocalDateTime> periods(LocalDateTime from, LocalDateTime to, Granularity granularity) {
+        List<LocalDateTime> list = new ArrayList<>();
+        for (LocalDateTime time = from; !time.isAfter(to); time = plus(time, 1, granularity)) list.add(time);
+        return list;
+    }
+
+    private static String literal(LocalDateTime time) {
+        return "'" + DateTool.format(time) + "'";
+    }
+}
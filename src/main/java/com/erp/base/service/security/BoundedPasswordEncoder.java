@@ -0,0 +1,108 @@
+package com.erp.base.service.security;
+
+import com.erp.base.tool.LatencyHistogram;
+import com.erp.base.tool.LogFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 登入驗證密碼用，BCrypt很吃CPU，丟到固定大小的執行緒池做
+ * 排隊超過上限或等太久直接拋RejectedExecutionException(返回503)，不讓登入高峰佔滿所有request thread的CPU
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    LogFactory LOG = new LogFactory(BoundedPasswordEncoder.class);
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int queueSize;
+    private final long timeoutMillis;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param threads 執行緒數，小於等於0則為CPU核心數
+     * @param queueSize 排隊上限
+     * @param timeoutMillis 等待結果的上限
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, long timeoutMillis) {
+        this.delegate = delegate;
+        this.queueSize = queueSize;
+        this.timeoutMillis = timeoutMillis;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "password-encoder-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOG.warn("password encoder queue full, size: {0}", executor.getQueue().size());
+            throw e;
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new RejectedExecutionException("password encoder timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RejectedExecutionException("password encoder interrupted");
+        } finally {
+            latency.recordNanos(start);
+        }
+    }
+
+    /**
+     * 執行緒池狀態和耗時分佈(含排隊時間)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("poolSize", executor.getMaximumPoolSize());
+        map.put("active", executor.getActiveCount());
+        map.put("queueDepth", executor.getQueue().size());
+        map.put("queueCapacity", queueSize);
+        map.put("rejected", rejected.sum());
+        map.put("latency", latency.snapshot());
+        return map;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
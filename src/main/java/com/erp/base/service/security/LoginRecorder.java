@@ -0,0 +1,78 @@
+package com.erp.base.service.security;
+
+import com.erp.base.service.ClientService;
+import com.erp.base.tool.DateTool;
+import com.erp.base.tool.LatencyHistogram;
+import com.erp.base.tool.LogFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登入紀錄
+ * 最後登入時間先放記憶體，定期批次寫回，同一用戶在間隔內多次登入只寫最後一次
+ */
+@Component
+public class LoginRecorder {
+    LogFactory LOG = new LogFactory(LoginRecorder.class);
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final LatencyHistogram loginLatency = new LatencyHistogram();
+    private ClientService clientService;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    public void setClientService(@Lazy ClientService clientService) {
+        this.clientService = clientService;
+    }
+
+    @Autowired
+    public void setPasswordEncoder(BoundedPasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    public void recordLogin(long uid, long startNanos) {
+        pending.put(uid, DateTool.now());
+        loginLatency.recordNanos(startNanos);
+    }
+
+    @Scheduled(fixedDelayString = "${security.login.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Long uid : pending.keySet()) {
+            LocalDateTime time = pending.remove(uid);
+            if (time != null) batch.put(uid, time);
+        }
+        try {
+            clientService.updateLastLoginTime(batch);
+        } catch (RuntimeException e) {
+            LOG.error("update last login time error: {0}", e.getMessage());
+            //寫入失敗放回去下次再寫，期間有更新的以新的為準
+            batch.forEach(pending::putIfAbsent);
+        }
+    }
+
+    /**
+     * 關閉前把還沒寫回的登入時間寫完
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("loginLatency", loginLatency.snapshot());
+        map.put("pendingLoginTime", pending.size());
+        map.put("passwordEncoder", passwordEncoder.getMetrics());
+        return map;
+    }
+}
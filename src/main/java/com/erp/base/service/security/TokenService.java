@@ -4,13 +4,11 @@ import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.client.LoginRequest;
 import com.erp.base.model.dto.request.permission.SecurityConfirmRequest;
 import com.erp.base.model.dto.response.ApiResponse;
-import com.erp.base.model.entity.ClientModel;
-import com.erp.base.service.ClientService;
+import com.erp.base.service.security.keyring.InMemorySigningKeyStore;
+import com.erp.base.service.security.keyring.KeyRing;
+import com.erp.base.tool.LocalCache;
 import com.erp.base.tool.ObjectTool;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,73 +22,147 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.KeyPair;
-import java.security.PrivateKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.time.Instant;
-import java.util.Base64;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Transactional
 public class TokenService {
     @Value("${security.password}")
     private String securityPassword;
-    private KeyPair keyPair;
+    private KeyRing keyRing;
+    private JwtParser jwtParser;
     private AuthenticationProvider authenticationProvider;
-    private ClientService clientService;
     public static final String ACCESS_TOKEN = "X-Access-Token";
     public static final int ACCESS_TOKEN_EXPIRE_TIME = 60 * 30;//30分鐘刷新(秒為單位)
     public static final String REFRESH_TOKEN = "X-Refresh-Token";
     public static final int REFRESH_TOKEN_EXPIRE_TIME = 60 * 60 * 6;//6hr(秒為單位)
     public static final String TOKEN_PROPERTIES_UID = "uid";
     public static final String TOKEN_PREFIX = "Bearer ";
+    private static final int VERIFIED_TOKEN_MAX_SIZE = 10000;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TokenService::sha256);
+    //已驗證過簽名的token，key為token的SHA-256，存到token過期為止
+    private final LocalCache<String, Map<String, Object>> verifiedTokens = new LocalCache<>(VERIFIED_TOKEN_MAX_SIZE, REFRESH_TOKEN_EXPIRE_TIME * 1000L);
+    private final LongAdder verifiedHit = new LongAdder();
+    private final LongAdder verifiedMiss = new LongAdder();
 
     @Autowired
     public void setAuthenticationProvider(@Lazy AuthenticationProvider authenticationProvider) {
         this.authenticationProvider = authenticationProvider;
     }
 
-    @Autowired
-    public void setClientService(@Lazy ClientService clientService) {
-        this.clientService = clientService;
+    @Autowired(required = false)
+    public void setKeyRing(KeyRing keyRing) {
+        this.keyRing = keyRing;
     }
 
     @PostConstruct
     public void init(){
-        keyPair = Keys.keyPairFor(SignatureAlgorithm.RS256); //做非對稱，伺服器重啟時刷新
+        //沒有注入金鑰環(單元測試)時只放記憶體，重啟刷新
+        if (keyRing == null) keyRing = new KeyRing(new InMemorySigningKeyStore(), null, Long.MAX_VALUE, REFRESH_TOKEN_EXPIRE_TIME * 1000L);
+        keyRing.init();
+        //依header的kid找公鑰，parser建立後不可變，可共用
+        jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            //jjwt 0.11的介面簽名就是原始型別JwsHeader，覆寫時無法加泛型，只取kid後交給resolvePublicKey
+            @Override
+            @SuppressWarnings("rawtypes")
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolvePublicKey(header.getKeyId());
+            }
+        }).build();
+        verifiedTokens.clear();
+    }
+
+    private PublicKey resolvePublicKey(String kid) {
+        PublicKey publicKey = keyRing.getPublicKey(kid);
+        if (publicKey == null) throw new SignatureException("Unknown JWT signing key");
+        return publicKey;
     }
 
-    public HttpHeaders createToken(LoginRequest request){
-        Boolean rememberMe = request.getRememberMe();
-        String username = request.getUsername();
+    /**
+     * security執行帳密認證，返回驗證時查到的用戶，不需要再查一次
+     */
+    public UserDetailImpl authenticate(LoginRequest request){
         // 封裝帳密
-        Authentication authentication = new UsernamePasswordAuthenticationToken(username, request.getPassword());
-        // security執行帳密認證
-        authenticationProvider.authenticate(authentication);
-        ClientModel clientByUsername = clientService.findByUsername(username);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword());
+        return (UserDetailImpl) authenticationProvider.authenticate(authentication).getPrincipal();
+    }
+
+    public HttpHeaders createToken(long uid, Boolean rememberMe){
         // 產token
         HttpHeaders httpHeaders = new HttpHeaders();
-        String accessToken = createToken(ACCESS_TOKEN, clientByUsername.getId(), ACCESS_TOKEN_EXPIRE_TIME);
+        String accessToken = createToken(ACCESS_TOKEN, uid, ACCESS_TOKEN_EXPIRE_TIME);
         httpHeaders.add(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + accessToken);
         //rememberMe才發refreshToken
         if(Boolean.TRUE.equals(rememberMe)) {
-            String refreshToken = createToken(REFRESH_TOKEN, clientByUsername.getId(), REFRESH_TOKEN_EXPIRE_TIME);
+            String refreshToken = createToken(REFRESH_TOKEN, uid, REFRESH_TOKEN_EXPIRE_TIME);
             httpHeaders.add(REFRESH_TOKEN, refreshToken);
         }
         return httpHeaders;
     }
 
-    //公鑰解密
+    //公鑰解密，同一個token驗證過就直接用緩存的claims
     public Map<String,Object> parseToken(String token){
+        String digest = tokenDigest(token);
+        Map<String, Object> verified = verifiedTokens.get(digest);
+        if (verified != null) {
+            verifiedHit.increment();
+            return new HashMap<>(verified);
+        }
+        verifiedMiss.increment();
         checkJWTHeader(token);
-        PublicKey publicKey = keyPair.getPublic();
-        Claims claims = Jwts.parserBuilder().setSigningKey(publicKey).build().parseClaimsJws(token).getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        long ttl = claims.getExpiration() == null ? 0 : claims.getExpiration().getTime() - System.currentTimeMillis();
+        verifiedTokens.put(digest, Collections.unmodifiableMap(new HashMap<>(claims)), ttl);
         return new HashMap<>(claims);
     }
 
+    /**
+     * 登出加入黑名單的token，從已驗證緩存中移除
+     */
+    public void evictVerifiedToken(String token) {
+        if (token == null) return;
+        verifiedTokens.remove(tokenDigest(token.replace(TOKEN_PREFIX, "")));
+    }
+
+    public Map<String, Long> getVerifiedTokenStats() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("hit", verifiedHit.sum());
+        map.put("miss", verifiedMiss.sum());
+        map.put("size", (long) verifiedTokens.size());
+        return map;
+    }
+
+    /**
+     * token的SHA-256(Base64)，固定長度，拿來當緩存key
+     */
+    public static String tokenDigest(String token) {
+        return Base64.getEncoder().encodeToString(tokenHash(token));
+    }
+
+    /**
+     * token的SHA-256，固定32 bytes
+     */
+    public static byte[] tokenHash(String token) {
+        MessageDigest messageDigest = SHA_256.get();
+        messageDigest.reset();
+        return messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void checkJWTHeader(String token) {
         String[] parts = token.split("\\.");
         if (parts.length != 3) {
@@ -117,11 +189,12 @@ public class TokenService {
         claims.setExpiration(new Date(expirationMillis));
         claims.put(TOKEN_PROPERTIES_UID, uid);
 
-        // 簽名後產生 token
-        PrivateKey privateKey = keyPair.getPrivate();
+        // 用目前的簽章金鑰簽名後產生 token，header帶kid
+        KeyRing.SigningKey signingKey = keyRing.getSigningKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setClaims(claims)
-                .signWith(privateKey, SignatureAlgorithm.RS256) // 明確指定使用RS256算法
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.RS256) // 明確指定使用RS256算法
                 .compact();
     }
 
@@ -134,7 +207,7 @@ public class TokenService {
 
     public ResponseEntity<ApiResponse> getPublicKey(SecurityConfirmRequest request) {
         if (securityPassword.equals(request.getSecurityPassword())){
-            PublicKey publicKey = keyPair.getPublic();
+            PublicKey publicKey = keyRing.getSigningKey().publicKey();
             return ApiResponse.success(Base64.getEncoder().encodeToString(publicKey.getEncoded()));
         }
         return ApiResponse.error(ApiResponseCode.SECURITY_ERROR, false);
@@ -1,7 +1,7 @@
 package com.erp.base.service.security;
 
+import com.erp.base.model.dto.security.AuthoritySnapshot;
 import com.erp.base.model.dto.security.ClientIdentityDto;
-import com.erp.base.model.dto.security.RolePermissionDto;
 import com.erp.base.service.CacheService;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
@@ -11,9 +11,8 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Locale;
-import java.util.Set;
 
 @Getter
 @Setter
@@ -77,12 +76,9 @@ public class UserDetailImpl implements UserDetails {
         return true;
     }
 
+    //角色權限合併好的快照，角色或權限沒異動就直接共用
     private Collection<? extends GrantedAuthority> getRolePermission() {
-        ClientIdentityDto client = cacheService.getClient(clientModel.getId());
-        Set<RolePermissionDto> set = new HashSet<>();
-        for (Long role : client.getRoleId()) {
-            set.addAll(cacheService.getRolePermission(role));
-        }
-        return set;
+        AuthoritySnapshot snapshot = cacheService.getAuthority(clientModel);
+        return snapshot == null ? Collections.emptyList() : snapshot.getAuthorities();
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserDetailServiceImpl implements UserDetailsService {
@@ -24,7 +25,9 @@ public class UserDetailServiceImpl implements UserDetailsService {
         this.userDetailFactory = userDetailFactory;
     }
 
+    //在交易內建完ClientIdentityDto(roles是懶加載)，驗證密碼時不佔用連線
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         ClientModel client = clientService.findByUsername(username);
         if (client == null) {
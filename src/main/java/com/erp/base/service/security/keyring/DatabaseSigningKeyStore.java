@@ -0,0 +1,32 @@
+package com.erp.base.service.security.keyring;
+
+import com.erp.base.model.entity.SigningKeyModel;
+import com.erp.base.repository.SigningKeyRepository;
+
+import java.util.List;
+
+/**
+ * 金鑰存資料庫(signing_key)，多節點共用同一份
+ */
+public class DatabaseSigningKeyStore implements SigningKeyStore {
+    private final SigningKeyRepository signingKeyRepository;
+
+    public DatabaseSigningKeyStore(SigningKeyRepository signingKeyRepository) {
+        this.signingKeyRepository = signingKeyRepository;
+    }
+
+    @Override
+    public List<SigningKeyModel> loadAll() {
+        return signingKeyRepository.findAll();
+    }
+
+    @Override
+    public void save(SigningKeyModel key) {
+        signingKeyRepository.save(key);
+    }
+
+    @Override
+    public void delete(String kid) {
+        signingKeyRepository.deleteById(kid);
+    }
+}
@@ -0,0 +1,94 @@
+package com.erp.base.service.security.keyring;
+
+import com.erp.base.model.entity.SigningKeyModel;
+import com.erp.base.tool.LogFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 金鑰存本地檔案(properties格式)，適合單節點或共用掛載目錄
+ * 每把金鑰三個欄位: {kid}.public / {kid}.private / {kid}.create
+ */
+public class FileSigningKeyStore implements SigningKeyStore {
+    LogFactory LOG = new LogFactory(FileSigningKeyStore.class);
+    private static final String PUBLIC = ".public";
+    private static final String PRIVATE = ".private";
+    private static final String CREATE = ".create";
+    private final Path path;
+
+    public FileSigningKeyStore(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized List<SigningKeyModel> loadAll() {
+        Properties properties = read();
+        List<SigningKeyModel> keys = new ArrayList<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.endsWith(PUBLIC)) continue;
+            String kid = name.substring(0, name.length() - PUBLIC.length());
+            String privateKey = properties.getProperty(kid + PRIVATE);
+            String createTime = properties.getProperty(kid + CREATE);
+            if (privateKey == null || createTime == null) continue;
+            keys.add(new SigningKeyModel(kid, properties.getProperty(name), privateKey, Long.parseLong(createTime)));
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized void save(SigningKeyModel key) {
+        Properties properties = read();
+        properties.setProperty(key.getKid() + PUBLIC, key.getPublicKey());
+        properties.setProperty(key.getKid() + PRIVATE, key.getPrivateKey());
+        properties.setProperty(key.getKid() + CREATE, String.valueOf(key.getCreateTime()));
+        write(properties);
+    }
+
+    @Override
+    public synchronized void delete(String kid) {
+        Properties properties = read();
+        properties.remove(kid + PUBLIC);
+        properties.remove(kid + PRIVATE);
+        properties.remove(kid + CREATE);
+        write(properties);
+    }
+
+    private Properties read() {
+        Properties properties = new Properties();
+        if (!Files.exists(path)) return properties;
+        try (InputStream input = Files.newInputStream(path)) {
+            properties.load(input);
+        } catch (IOException e) {
+            LOG.error("read key store [{0}] error: {1}", path, e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+
+    /**
+     * 先寫暫存檔再搬過去，避免寫到一半被讀到
+     */
+    private void write(Properties properties) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "keyring", ".tmp");
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, "jwt signing keys");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error("write key store [{0}] error: {1}", path, e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.erp.base.service.security.keyring;
+
+import com.erp.base.model.entity.SigningKeyModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 金鑰只放記憶體，重啟就失效(原本的行為)，單元測試或單節點開發用
+ */
+public class InMemorySigningKeyStore implements SigningKeyStore {
+    private final Map<String, SigningKeyModel> keys = new ConcurrentHashMap<>();
+
+    @Override
+    public List<SigningKeyModel> loadAll() {
+        return new ArrayList<>(keys.values());
+    }
+
+    @Override
+    public void save(SigningKeyModel key) {
+        keys.put(key.getKid(), key);
+    }
+
+    @Override
+    public void delete(String kid) {
+        keys.remove(kid);
+    }
+}
@@ -0,0 +1,154 @@
+package com.erp.base.service.security.keyring;
+
+import com.erp.base.model.entity.SigningKeyModel;
+import com.erp.base.tool.LogFactory;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.jasypt.encryption.StringEncryptor;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JWT簽章金鑰環
+ * 最新的一把金鑰用來簽章，token header帶kid，驗證時用kid直接找公鑰
+ * 金鑰存在SigningKeyStore，所有節點共用，重啟後舊token仍可驗證
+ * 超過輪替時間就產新金鑰，舊金鑰保留到用它簽的token都過期才刪除
+ * 公鑰表、目前簽章金鑰和載入時間放在同一個Ring，整組一次替換，讀取端不會看到新舊混在一起的狀態；載入和輪替都在鎖內執行
+ */
+public class KeyRing {
+    LogFactory LOG = new LogFactory(KeyRing.class);
+    private static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.RS256;
+    //找不到kid時重新從store載入的最短間隔，避免亂帶kid的請求一直打store
+    private static final long RELOAD_INTERVAL = 5000;
+    private final SigningKeyStore store;
+    private final StringEncryptor encryptor;
+    private final long rotationMillis;
+    private final long retentionMillis;
+    private final AtomicReference<Ring> ring = new AtomicReference<>(new Ring(Map.of(), null, 0));
+
+    /**
+     * @param encryptor 私鑰加密，null則明文存放
+     * @param rotationMillis 簽章金鑰使用多久後輪替
+     * @param tokenLifetimeMillis token最長有效時間，輪替後舊公鑰至少要保留這麼久
+     */
+    public KeyRing(SigningKeyStore store, StringEncryptor encryptor, long rotationMillis, long tokenLifetimeMillis) {
+        this.store = store;
+        this.encryptor = encryptor;
+        this.rotationMillis = rotationMillis;
+        this.retentionMillis = rotationMillis > Long.MAX_VALUE - tokenLifetimeMillis ? Long.MAX_VALUE : rotationMillis + tokenLifetimeMillis;
+    }
+
+    public synchronized void init() {
+        rotateIfNeeded();
+    }
+
+    public SigningKey getSigningKey() {
+        SigningKey current = ring.get().current();
+        if (current == null) {
+            init();
+            current = ring.get().current();
+        }
+        return current;
+    }
+
+    /**
+     * 依kid找公鑰，不在本節點的話(其他節點剛輪替)重新載入一次
+     */
+    public PublicKey getPublicKey(String kid) {
+        if (kid == null) return null;
+        Ring snapshot = ring.get();
+        PublicKey publicKey = snapshot.publicKeys().get(kid);
+        if (publicKey == null && System.currentTimeMillis() - snapshot.loadedAt() > RELOAD_INTERVAL) {
+            synchronized (this) {
+                //等鎖期間其他執行緒已經換過就不用再載入
+                if (ring.get() == snapshot) reload();
+            }
+            publicKey = ring.get().publicKeys().get(kid);
+        }
+        return publicKey;
+    }
+
+    /**
+     * 重新載入後，目前金鑰超過輪替時間就產生新的，並清掉過了保留期的舊金鑰
+     */
+    public synchronized void rotateIfNeeded() {
+        reload();
+        long now = System.currentTimeMillis();
+        SigningKey current = ring.get().current();
+        if (current == null || now - current.createTime() >= rotationMillis) {
+            store.save(generate(now));
+            LOG.info("jwt signing key rotated");
+            reload();
+        }
+        purge(now);
+    }
+
+    private void purge(long now) {
+        SigningKey current = ring.get().current();
+        String currentKid = current == null ? null : current.kid();
+        boolean purged = false;
+        for (SigningKeyModel model : store.loadAll()) {
+            if (!model.getKid().equals(currentKid) && now - model.getCreateTime() >= retentionMillis) {
+                store.delete(model.getKid());
+                purged = true;
+                LOG.info("jwt signing key [{0}] expired", model.getKid());
+            }
+        }
+        //已刪除的公鑰也要從本節點移除，過期金鑰簽的token不再能驗證
+        if (purged) reload();
+    }
+
+    private void reload() {
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        SigningKeyModel newest = null;
+        for (SigningKeyModel model : store.loadAll()) {
+            try {
+                publicKeys.put(model.getKid(), decodePublicKey(model.getPublicKey()));
+                if (newest == null || model.getCreateTime() > newest.getCreateTime()) newest = model;
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                LOG.error("jwt signing key [{0}] decode error: {1}", model.getKid(), e.getMessage());
+            }
+        }
+        SigningKey current = null;
+        if (newest != null) {
+            try {
+                current = new SigningKey(newest.getKid(), decodePrivateKey(newest.getPrivateKey()), publicKeys.get(newest.getKid()), newest.getCreateTime());
+            } catch (GeneralSecurityException | RuntimeException e) {
+                LOG.error("jwt signing key [{0}] private key decode error: {1}", newest.getKid(), e.getMessage());
+            }
+        }
+        ring.set(new Ring(Map.copyOf(publicKeys), current, System.currentTimeMillis()));
+    }
+
+    private SigningKeyModel generate(long now) {
+        KeyPair keyPair = Keys.keyPairFor(ALGORITHM);
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        String privateKey = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+        if (encryptor != null) privateKey = encryptor.encrypt(privateKey);
+        return new SigningKeyModel(UUID.randomUUID().toString(), publicKey, privateKey, now);
+    }
+
+    private PublicKey decodePublicKey(String encoded) throws GeneralSecurityException {
+        return KeyFactory.getInstance(ALGORITHM.getFamilyName()).generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+    }
+
+    private PrivateKey decodePrivateKey(String encoded) throws GeneralSecurityException {
+        String plain = encryptor == null ? encoded : encryptor.decrypt(encoded);
+        return KeyFactory.getInstance(ALGORITHM.getFamilyName()).generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(plain)));
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, long createTime) {
+    }
+
+    //公鑰表、目前簽章金鑰和載入時間一起替換
+    private record Ring(Map<String, PublicKey> publicKeys, SigningKey current, long loadedAt) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.erp.base.service.security.keyring;
+
+import com.erp.base.model.entity.SigningKeyModel;
+
+import java.util.List;
+
+/**
+ * 簽章金鑰的存放位置
+ */
+public interface SigningKeyStore {
+    List<SigningKeyModel> loadAll();
+
+    void save(SigningKeyModel key);
+
+    void delete(String kid);
+}
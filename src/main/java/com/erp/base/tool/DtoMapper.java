@@ -0,0 +1,84 @@
+package com.erp.base.tool;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Entity轉DTO，DTO需有以entity(或其父類)為參數的public建構子
+ * 每組(entity類別, DTO類別)第一次使用時找建構子並用LambdaMetafactory產生Function，之後直接呼叫，不再反射
+ * Hibernate代理類別往父類找到對應的建構子，同一個代理類別之後也直接命中
+ */
+public class DtoMapper {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ClassValue<Map<Class<?>, Function<Object, Object>>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, Function<Object, Object>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private DtoMapper() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <C> C map(Object source, Class<C> clazz) {
+        if (source == null) return null;
+        if (clazz.isInstance(source)) return (C) source;
+        return (C) mapper(source.getClass(), clazz).apply(source);
+    }
+
+    /**
+     * 取得(或建立)source類別轉成clazz的Function
+     */
+    public static Function<Object, Object> mapper(Class<?> source, Class<?> clazz) {
+        Map<Class<?>, Function<Object, Object>> mappers = MAPPERS.get(clazz);
+        Function<Object, Object> mapper = mappers.get(source);
+        if (mapper != null) return mapper;
+        return mappers.computeIfAbsent(source, type -> create(type, clazz));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> create(Class<?> source, Class<?> clazz) {
+        MethodHandle constructor = findConstructor(source, clazz);
+        Class<?> parameter = constructor.type().parameterType(0);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), constructor, MethodType.methodType(clazz, parameter));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            //無法產生lambda時(例如不同ClassLoader)改用MethodHandle呼叫
+            MethodHandle handle = constructor.asType(MethodType.methodType(Object.class, Object.class));
+            return obj -> {
+                try {
+                    return handle.invokeExact(obj);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new RuntimeException("實例化失敗", ex);
+                }
+            };
+        }
+    }
+
+    /**
+     * 從source往父類找DTO的建構子，介面不列入
+     */
+    private static MethodHandle findConstructor(Class<?> source, Class<?> clazz) {
+        for (Class<?> type = source; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                return LOOKUP.findConstructor(clazz, MethodType.methodType(void.class, type));
+            } catch (NoSuchMethodException e) {
+                //往父類找
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("實例化失敗: " + clazz.getName() + "(" + type.getName() + ") is not accessible", e);
+            }
+        }
+        throw new RuntimeException("實例化失敗: " + clazz.getName() + " has no constructor for " + source.getName());
+    }
+}
@@ -0,0 +1,61 @@
+package com.erp.base.tool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定區間的耗時分佈(毫秒)，記錄時不加鎖
+ */
+public class LatencyHistogram {
+    private static final long[] BOUNDS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    public void record(long millis) {
+        int i = 0;
+        while (i < BOUNDS.length && millis > BOUNDS[i]) i++;
+        buckets[i].increment();
+        count.increment();
+        sum.add(millis);
+        max.accumulate(millis);
+    }
+
+    public void recordNanos(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * 加上另一個分佈的資料，用於加總多組統計
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < buckets.length; i++) buckets[i].add(other.buckets[i].sum());
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 各區間筆數(le_上限)，加上總筆數、總耗時、最大值
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS.length; i++) map.put("le_" + BOUNDS[i], buckets[i].sum());
+        map.put("le_inf", buckets[BOUNDS.length].sum());
+        map.put("count", count.sum());
+        map.put("sumMillis", sum.sum());
+        map.put("maxMillis", max.get());
+        return map;
+    }
+}
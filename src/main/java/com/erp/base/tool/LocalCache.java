@@ -0,0 +1,138 @@
+package com.erp.base.tool;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM內的簡易緩存，有上限數量和TTL
+ * 讀取不加鎖，超過上限時才淘汰:
+ * 1. 整張表清過期資料最多每SWEEP_INTERVAL_MILLIS一次，不是每次寫入都掃描
+ * 2. 否則從輪轉的游標往後抽樣，淘汰其中最早過期的一筆；游標接續上次的位置(起點隨機)，不會一直淘汰同一區的資料
+ */
+public class LocalCache<K, V> {
+    private static final int EVICT_SAMPLE_SIZE = 8;
+    private static final int EVICT_MAX_ROUNDS = 4;
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+    private final Map<K, Entry<V>> map = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongAdder evictionCount = new LongAdder();
+    private final Object evictLock = new Object();
+    private Iterator<Map.Entry<K, Entry<V>>> cursor;
+    private long lastSweep;
+
+    public LocalCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) return null;
+        if (entry.isExpired(System.currentTimeMillis())) {
+            map.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    public void put(K key, V value, long ttlMillis) {
+        if (key == null || value == null || maxSize <= 0 || ttlMillis <= 0) return;
+        if (map.size() >= maxSize && !map.containsKey(key)) evict();
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void remove(K key) {
+        map.remove(key);
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * 未過期的key
+     */
+    public List<K> keys() {
+        long now = System.currentTimeMillis();
+        List<K> keys = new ArrayList<>();
+        map.forEach((key, entry) -> {
+            if (!entry.isExpired(now)) keys.add(key);
+        });
+        return keys;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 因為數量上限被淘汰的筆數(不含過期和主動刪除)
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        synchronized (evictLock) {
+            if (now - lastSweep >= SWEEP_INTERVAL_MILLIS) {
+                lastSweep = now;
+                map.entrySet().removeIf(e -> e.getValue().isExpired(now));
+                if (map.size() < maxSize) return;
+            }
+            //抽樣淘汰最早過期的一筆，抽到已過期的直接清掉；游標是弱一致的，可能抽到已被移除或覆寫的舊節點，這類略過重抽
+            for (int round = 0; round < EVICT_MAX_ROUNDS && map.size() >= maxSize; round++) {
+                K oldestKey = null;
+                Entry<V> oldest = null;
+                for (int i = 0; i < EVICT_SAMPLE_SIZE; i++) {
+                    Map.Entry<K, Entry<V>> next = nextSample();
+                    if (next == null) break;
+                    Entry<V> entry = next.getValue();
+                    if (map.get(next.getKey()) != entry) continue;
+                    if (entry.isExpired(now)) {
+                        map.remove(next.getKey(), entry);
+                        continue;
+                    }
+                    if (oldest == null || entry.expireAt < oldest.expireAt) {
+                        oldest = entry;
+                        oldestKey = next.getKey();
+                    }
+                }
+                if (oldest != null && map.size() >= maxSize && map.remove(oldestKey, oldest)) evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * 游標走到底時從頭開始，並隨機跳過一段
+     */
+    private Map.Entry<K, Entry<V>> nextSample() {
+        if (cursor == null || !cursor.hasNext()) {
+            cursor = map.entrySet().iterator();
+            int skip = ThreadLocalRandom.current().nextInt(Math.max(1, Math.min(map.size(), EVICT_SAMPLE_SIZE * 8)));
+            for (int i = 0; i < skip && cursor.hasNext(); i++) cursor.next();
+            if (!cursor.hasNext()) cursor = map.entrySet().iterator();
+        }
+        return cursor.hasNext() ? cursor.next() : null;
+    }
+
+    private record Entry<V>(V value, long expireAt) {
+        boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+    }
+}
@@ -30,4 +30,7 @@
   drop table salary
   drop table tracking_job
   drop table log
+  drop table log_rollup
+  drop partition scheme ps_log_time
+  drop partition function pf_log_time
   drop table annual_leave
\ No newline at end of file
@@ -0,0 +1,54 @@
+--# log表轉成以time分區的分區表(RANGE RIGHT，每月一個分區)
+--#
+--# 轉換會改time欄位為NOT NULL、重建clustered index和主鍵，期間log表會被鎖住，
+--# 請在維護時段審核後手動執行，執行完再把log.partition.enabled設為true
+--# 排程(LogPartitionManager)只會在已轉換的表上建立未來的分區、清掉過期的分區，不會自動轉換
+--#
+--# 分區函數、配置的名稱需和LogPartitionManager一致(pf_log_time、ps_log_time)
+--# 使用log.partition.granularity=day時，既有資料仍是每月一個分區，之後的分區由排程以每日建立
+--# 分區表上的唯一索引必須包含分區欄位，主鍵改為(id, time)，id本身仍由IDENTITY保證唯一
+--# time上的非叢集索引idx_log_time(LogModel建立)會擋住改欄位，先刪掉，轉換後在分區配置上重建，否則TRUNCATE ... WITH (PARTITIONS)會因索引未對齊失敗
+--# 重複執行時已存在的部分會略過
+
+USE [localdb]
+;
+
+SET XACT_ABORT ON
+;
+
+--從最早一筆日誌的月份到本月，每月一個邊界
+IF NOT EXISTS (SELECT * FROM sys.partition_functions WHERE name = 'pf_log_time')
+BEGIN
+    DECLARE @bound datetime2(6) = DATEADD(MONTH, DATEDIFF(MONTH, 0, ISNULL((SELECT MIN(time) FROM log), SYSDATETIME())), 0);
+    DECLARE @current datetime2(6) = DATEADD(MONTH, DATEDIFF(MONTH, 0, SYSDATETIME()), 0);
+    DECLARE @values nvarchar(max) = N'';
+    WHILE @bound <= @current
+    BEGIN
+        SET @values = @values + CASE WHEN @values = N'' THEN N'' ELSE N', ' END + N'''' + CONVERT(nvarchar(19), @bound, 120) + N'''';
+        SET @bound = DATEADD(MONTH, 1, @bound);
+    END
+    EXEC (N'CREATE PARTITION FUNCTION pf_log_time (datetime2(6)) AS RANGE RIGHT FOR VALUES (' + @values + N')');
+END
+;
+
+IF NOT EXISTS (SELECT * FROM sys.partition_schemes WHERE name = 'ps_log_time')
+    CREATE PARTITION SCHEME ps_log_time AS PARTITION pf_log_time ALL TO ([PRIMARY])
+;
+
+IF NOT EXISTS (SELECT * FROM sys.indexes i JOIN sys.partition_schemes s ON i.data_space_id = s.data_space_id
+               WHERE i.object_id = OBJECT_ID('log') AND i.index_id <= 1 AND s.name = 'ps_log_time')
+BEGIN
+    BEGIN TRANSACTION;
+    --主鍵欄位不可為null，舊資料沒有時間的以轉換當下為準
+    UPDATE log SET time = SYSDATETIME() WHERE time IS NULL;
+    IF EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID('log') AND name = 'idx_log_time')
+        DROP INDEX idx_log_time ON log;
+    ALTER TABLE log ALTER COLUMN time datetime2(6) NOT NULL;
+    DECLARE @pk sysname = (SELECT name FROM sys.key_constraints WHERE parent_object_id = OBJECT_ID('log') AND type = 'PK');
+    IF @pk IS NOT NULL EXEC (N'ALTER TABLE log DROP CONSTRAINT [' + @pk + N']');
+    CREATE CLUSTERED INDEX cix_log_time ON log (time, id) ON ps_log_time(time);
+    ALTER TABLE log ADD CONSTRAINT pk_log PRIMARY KEY NONCLUSTERED (id, time) ON ps_log_time(time);
+    CREATE INDEX idx_log_time ON log (time) ON ps_log_time(time);
+    COMMIT;
+END
+;
@@ -0,0 +1,49 @@
+package com.erp.base.config.init;
+
+import com.erp.base.model.entity.RoleModel;
+import com.erp.base.service.CacheService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmUpTest {
+    @Mock
+    private CacheService cacheService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void warmUp_allStages_ok() {
+        Mockito.when(cacheService.getRole()).thenReturn(Map.of(1L, new RoleModel(1L), 2L, new RoleModel(2L)));
+        CacheWarmUp warmUp = new CacheWarmUp(cacheService, eventPublisher, 2, 10000, 50);
+        Assertions.assertTrue(warmUp.warmUp());
+        Mockito.verify(cacheService).getPermissionMap();
+        Mockito.verify(cacheService).reloadRouteTable();
+        Mockito.verify(cacheService).findMenuTree();
+        Mockito.verify(cacheService).warmDepartments();
+        Mockito.verify(cacheService).warmClients(50);
+        Mockito.verify(cacheService).getRolePermission(1L);
+        Mockito.verify(cacheService).getMenuTree(List.of(2L));
+        Map<String, Object> report = warmUp.getReport();
+        Assertions.assertEquals("DONE", report.get("status"));
+        Assertions.assertTrue(((Map<String, Long>) report.get("stages")).containsKey("roleDetails"));
+    }
+
+    @Test
+    void warmUp_stageError_failed() {
+        Mockito.when(cacheService.getRole()).thenReturn(Map.of());
+        Mockito.when(cacheService.warmClients(50)).thenThrow(new IllegalStateException("db down"));
+        CacheWarmUp warmUp = new CacheWarmUp(cacheService, eventPublisher, 2, 10000, 50);
+        Assertions.assertFalse(warmUp.warmUp());
+        Assertions.assertEquals("FAILED", warmUp.getReport().get("status"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheFormat;
+import com.erp.base.model.dto.response.ClientNameObject;
+import com.erp.base.model.dto.security.ClientIdentityDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CacheCodecTest {
+
+    @Test
+    void serialize_overThreshold_compressed() {
+        CacheCodec codec = new CacheCodec("test", CacheFormat.JDK, 256);
+        List<String> value = new ArrayList<>();
+        for (int i = 0; i < 200; i++) value.add("permission_" + i);
+        byte[] bytes = codec.serialize(value);
+        Assertions.assertEquals(value, codec.deserialize(bytes));
+        Map<String, Object> metrics = codec.getMetrics();
+        Assertions.assertEquals(1L, metrics.get("compressedCount"));
+        Assertions.assertTrue((long) metrics.get("storedBytes") < (long) metrics.get("rawBytes"));
+    }
+
+    @Test
+    void serialize_underThreshold_notCompressed() {
+        CacheCodec codec = new CacheCodec("test", CacheFormat.JDK, 1024);
+        Assertions.assertEquals("value", codec.deserialize(codec.serialize("value")));
+        Assertions.assertEquals(0L, codec.getMetrics().get("compressedCount"));
+    }
+
+    @Test
+    void deserialize_formatChanged_ok() {
+        Map<String, Long> value = new HashMap<>();
+        value.put("id", 1L);
+        byte[] json = new CacheCodec("test", CacheFormat.JSON, 0).serialize(value);
+        //格式寫在資料內，改成JDK之後舊的JSON資料還是能讀
+        Assertions.assertEquals(value, new CacheCodec("test", CacheFormat.JDK, 0).deserialize(json));
+    }
+
+    @Test
+    void deserialize_legacyJdk_ok() {
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize("legacy");
+        Assertions.assertEquals("legacy", new CacheCodec("test", CacheFormat.JDK, -1).deserialize(legacy));
+    }
+
+    @Test
+    void serialize_smile_smallerThanJdk() {
+        ClientIdentityDto client = new ClientIdentityDto();
+        client.setId(1L);
+        client.setUsername("test");
+        client.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        client.setRoleId(new ArrayList<>(List.of(1L, 2L)));
+        client.setActive(true);
+        client.setEmail("test@example.com");
+        client.setLastLoginTime(LocalDateTime.of(2024, 1, 1, 8, 30));
+        client.setCreateTime(LocalDateTime.of(2023, 6, 1, 0, 0));
+        client.getDepartment().setId(3L);
+        client.getDepartment().setName("dept");
+        CacheCodec smile = new CacheCodec("test", CacheFormat.SMILE, -1);
+        byte[] bytes = smile.serialize(client);
+        ClientIdentityDto copy = (ClientIdentityDto) smile.deserialize(bytes);
+        Assertions.assertEquals(client.getUsername(), copy.getUsername());
+        Assertions.assertEquals(client.getRoleId(), copy.getRoleId());
+        Assertions.assertEquals(client.getLastLoginTime(), copy.getLastLoginTime());
+        Assertions.assertEquals(client.getDepartment().getName(), copy.getDepartment().getName());
+        Assertions.assertTrue(copy.isActive());
+        Assertions.assertTrue(bytes.length < new CacheCodec("test", CacheFormat.JDK, -1).serialize(client).length);
+    }
+
+    @Test
+    void serialize_smileList_ok() {
+        List<ClientNameObject> value = new ArrayList<>(List.of(new ClientNameObject(1L, "test")));
+        CacheCodec smile = new CacheCodec("test", CacheFormat.SMILE, 0);
+        Assertions.assertEquals(value, smile.deserialize(smile.serialize(value)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheFormat;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+class CacheMeterBinderTest {
+
+    @Test
+    void bindTo_readLiveCounters() {
+        String name = CacheConstant.CLIENT.NAME_CLIENT;
+        CacheCodecRegistry registry = new CacheCodecRegistry(List.of(new CacheCodec(name, CacheFormat.JDK, 1024)));
+        LocalOnlyCacheManager cacheManager = new LocalOnlyCacheManager(Map.of(name, 60000L), 60000, 100, true, registry);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new CacheMeterBinder(cacheManager, registry).bindTo(meterRegistry);
+
+        Cache cache = cacheManager.getCache(name);
+        cache.put("client_1", "test");
+        cache.get("client_1");
+        cache.get("client_2");
+        cache.evict("client_1");
+
+        Assertions.assertEquals(1d, meterRegistry.get("cache.gets").tags("cache", name, "result", "hit", "tier", "local").functionCounter().count());
+        Assertions.assertEquals(1d, meterRegistry.get("cache.gets").tags("cache", name, "result", "miss").functionCounter().count());
+        Assertions.assertEquals(1d, meterRegistry.get("cache.puts").tag("cache", name).functionCounter().count());
+        Assertions.assertEquals(1d, meterRegistry.get("cache.evictions").tag("cache", name).functionCounter().count());
+        double stored = meterRegistry.get("cache.codec.size").tags("cache", name, "stage", "stored").functionCounter().count();
+        Assertions.assertTrue(stored > 0);
+        Assertions.assertEquals(stored, meterRegistry.get("cache.puts.size").tag("cache", name).functionCounter().count());
+        FunctionTimer encode = meterRegistry.get("cache.codec.encode").tag("cache", name).functionTimer();
+        Assertions.assertEquals(1d, encode.count());
+    }
+}
@@ -0,0 +1,35 @@
+package com.erp.base.config.redis;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+class CacheStatsTest {
+
+    @Test
+    void prefixOf_ok() {
+        Assertions.assertEquals("client_", CacheStats.prefixOf("client_15"));
+        Assertions.assertEquals("systemUser", CacheStats.prefixOf("systemUser"));
+        Assertions.assertEquals(CacheStats.OTHER_PREFIX, CacheStats.prefixOf("n4Bq0sd+2/AbC="));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshot_hitRatio_ok() {
+        CacheStats stats = new CacheStats();
+        stats.localHit("client_1");
+        stats.redisHit("client_2");
+        stats.miss("client_3");
+        stats.load("client_3", 12, 100);
+        stats.miss("roles");
+        stats.evict("client_1");
+        Map<String, Object> snapshot = stats.snapshot();
+        Assertions.assertEquals(0.5d, snapshot.get("hitRatio"));
+        Assertions.assertEquals(100L, snapshot.get("writeBytes"));
+        Map<String, Object> client = (Map<String, Object>) ((Map<String, Object>) snapshot.get("prefixes")).get("client_");
+        Assertions.assertEquals(0.6667d, client.get("hitRatio"));
+        Assertions.assertEquals(1L, client.get("evict"));
+        Assertions.assertEquals(1L, ((Map<String, Long>) client.get("loadMillis")).get("le_25"));
+    }
+}
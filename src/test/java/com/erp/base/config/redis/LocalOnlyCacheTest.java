@@ -0,0 +1,103 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LocalOnlyCacheTest {
+    private LocalOnlyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LocalOnlyCache("test", 100, 60000, RedisSerializer.java());
+    }
+
+    @Test
+    void get_storeByValue_copy() {
+        ArrayList<String> value = new ArrayList<>(List.of("a"));
+        cache.put("key", value);
+        value.add("b");
+        List<?> cached = cache.get("key", List.class);
+        Assertions.assertEquals(List.of("a"), cached);
+        Assertions.assertNotSame(cached, cache.get("key", List.class));
+    }
+
+    @Test
+    void get_storeByReference_same() {
+        LocalOnlyCache byReference = new LocalOnlyCache("test", 100, 60000, null);
+        Object value = new Object();
+        byReference.put("key", value);
+        Assertions.assertSame(value, byReference.get("key", Object.class));
+    }
+
+    @Test
+    void get_nullValue_cached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Callable<String> loader = () -> {
+            calls.incrementAndGet();
+            return null;
+        };
+        Assertions.assertNull(cache.get("key", loader));
+        Assertions.assertNull(cache.get("key", loader));
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertNotNull(cache.get("key"));
+    }
+
+    @Test
+    void get_concurrentMiss_loadOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "value";
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.get("key", loader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> future : futures) {
+                Assertions.assertEquals("value", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void get_loaderError_notCached() {
+        Callable<String> loader = () -> {
+            throw new IllegalStateException("error");
+        };
+        Assertions.assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key", loader));
+        Assertions.assertEquals("value", cache.get("key", () -> "value"));
+    }
+
+    @Test
+    void manager_batchAndInvalidate_ok() {
+        LocalOnlyCacheManager manager = new LocalOnlyCacheManager(Map.of(CacheConstant.CLIENT.NAME_CLIENT, 60000L), 60000, 100, true, new CacheCodecRegistry(List.of()));
+        Assertions.assertTrue(manager.getCacheNames().contains(CacheConstant.CLIENT.NAME_CLIENT));
+        manager.putAll(CacheConstant.CLIENT.NAME_CLIENT, Map.of(CacheKey.CLIENT.of(1), "a", CacheKey.CLIENT.of(2), "b"));
+        Map<CacheKey, Object> all = manager.getAll(CacheConstant.CLIENT.NAME_CLIENT, List.of(CacheKey.CLIENT.of(1), CacheKey.CLIENT.of(2), CacheKey.CLIENT.of(3)));
+        Assertions.assertEquals(Map.of(CacheKey.CLIENT.of(1), "a", CacheKey.CLIENT.of(2), "b"), all);
+        manager.evictAll(List.of(CacheKey.CLIENT.of(1)));
+        Assertions.assertEquals(1, manager.getAll(CacheConstant.CLIENT.NAME_CLIENT, List.of(CacheKey.CLIENT.of(1), CacheKey.CLIENT.of(2))).size());
+        manager.invalidateLocal(CacheKey.CLIENT.of(2).toString());
+        Assertions.assertTrue(manager.getAll(CacheConstant.CLIENT.NAME_CLIENT, List.of(CacheKey.CLIENT.of(2))).isEmpty());
+    }
+}
@@ -0,0 +1,144 @@
+package com.erp.base.config.redis;
+
+import com.erp.base.model.constant.cache.CacheKey;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class NearCacheTest {
+    private RedisCache redisCache;
+    private RedisCacheWriter cacheWriter;
+    private NearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        redisCache = Mockito.mock(RedisCache.class);
+        cacheWriter = Mockito.mock(RedisCacheWriter.class);
+        Mockito.when(redisCache.getName()).thenReturn("test");
+        Mockito.when(redisCache.getNativeCache()).thenReturn(cacheWriter);
+        Mockito.when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(1)));
+        //本地層1ms就過期，每次都會走載入流程
+        nearCache = new NearCache(redisCache, 100, 1, new CacheLoadSupport(null, null, 0, 60000, 0));
+    }
+
+    @Test
+    void get_concurrentMiss_loadOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "value";
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) futures.add(executor.submit(() -> nearCache.get("key", loader)));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> future : futures) Assertions.assertEquals("value", future.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, calls.get());
+        Mockito.verify(cacheWriter, Mockito.times(1)).put(Mockito.eq("test"), Mockito.eq("test::key".getBytes(StandardCharsets.UTF_8)), Mockito.any(), Mockito.eq(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void put_serializeOnce() {
+        AtomicInteger serialized = new AtomicInteger();
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer() {
+            @Override
+            public byte[] serialize(Object object) {
+                serialized.incrementAndGet();
+                return super.serialize(object);
+            }
+        };
+        Mockito.when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(1))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer)));
+        NearCache cache = new NearCache(redisCache, 100, 60000);
+        cache.put("key", "value");
+        Assertions.assertEquals(1, serialized.get());
+        byte[] bytes = serializer.serialize("value");
+        Mockito.verify(cacheWriter).put(Mockito.eq("test"), Mockito.eq("test::key".getBytes(StandardCharsets.UTF_8)),
+                Mockito.argThat(value -> "value".equals(serializer.deserialize(value))), Mockito.eq(Duration.ofMinutes(1)));
+        Assertions.assertEquals((long) bytes.length, cache.getStats().get("writeBytes"));
+    }
+
+    @Test
+    void put_null_writeThroughRedisCache() {
+        nearCache.put("key", null);
+        Mockito.verify(redisCache).put("key", null);
+        Mockito.verifyNoInteractions(cacheWriter);
+    }
+
+    @Test
+    void get_loading_staleServed() throws Exception {
+        nearCache.get("key", () -> "old");
+        Thread.sleep(5);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loading = executor.submit(() -> nearCache.get("key", () -> {
+                release.await();
+                return "new";
+            }));
+            Thread.sleep(100);
+            //載入中先返回舊值
+            Assertions.assertEquals("old", nearCache.get("key", () -> "other"));
+            release.countDown();
+            Assertions.assertEquals("new", loading.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void evict_noStale() throws Exception {
+        nearCache.get("key", () -> "old");
+        nearCache.evict("key");
+        Assertions.assertEquals("new", nearCache.get("key", () -> "new"));
+        Assertions.assertEquals(0L, nearCache.getLoadMetrics().get("staleServed"));
+    }
+
+    @Test
+    void get_loaderError_valueRetrievalException() {
+        Assertions.assertThrows(Cache.ValueRetrievalException.class, () -> nearCache.get("key", () -> {
+            throw new IllegalStateException("error");
+        }));
+    }
+
+    @Test
+    void get_refreshAhead_onlyRegisteredLoader() {
+        //beta很大，本地命中時幾乎一定觸發提前刷新
+        NearCache cache = new NearCache(redisCache, 100, 60000, new CacheLoadSupport(null, null, 0, 60000, 1e9));
+        AtomicInteger calls = new AtomicInteger();
+        String key = CacheKey.CLIENT.key(1);
+        cache.get(key, () -> "v" + calls.incrementAndGet());
+        //沒註冊載入方法，不會在背景沿用呼叫端的valueLoader
+        Assertions.assertEquals("v1", cache.get(key, () -> "v" + calls.incrementAndGet()));
+        Assertions.assertEquals(0L, cache.getLoadMetrics().get("earlyRefresh"));
+
+        cache.registerRefreshLoader(CacheKey.CLIENT, id -> "refreshed" + id);
+        Assertions.assertEquals("v1", cache.get(key, () -> "v" + calls.incrementAndGet()));
+        RedisSerializationContext.SerializationPair<Object> valuePair = redisCache.getCacheConfiguration().getValueSerializationPair();
+        Mockito.verify(cacheWriter, Mockito.timeout(1000)).put(Mockito.eq("test"), Mockito.any(),
+                Mockito.argThat(value -> "refreshed1".equals(valuePair.read(ByteBuffer.wrap(value)))), Mockito.any());
+        Assertions.assertEquals(1, calls.get());
+    }
+}
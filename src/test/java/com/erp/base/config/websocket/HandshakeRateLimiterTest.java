@@ -0,0 +1,55 @@
+package com.erp.base.config.websocket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+class HandshakeRateLimiterTest {
+
+    @Test
+    void admitGlobal_overBurst_rejected() {
+        HandshakeRateLimiter limiter = new HandshakeRateLimiter(1, 2, 0, 1, 5000, 100);
+        Assertions.assertEquals(0, limiter.admitGlobal());
+        Assertions.assertEquals(0, limiter.admitGlobal());
+        long delay = limiter.admitGlobal();
+        Assertions.assertTrue(delay >= 5000 && delay < 10000);
+    }
+
+    @Test
+    void admitUser_overBurst_rejected() {
+        HandshakeRateLimiter limiter = new HandshakeRateLimiter(0, 1, 60000, 2, 5000, 100);
+        Assertions.assertEquals(0, limiter.admitUser(1));
+        Assertions.assertEquals(0, limiter.admitUser(1));
+        long delay = limiter.admitUser(1);
+        Assertions.assertTrue(delay >= 60000 && delay < 65000);
+        Assertions.assertEquals(0, limiter.admitUser(2));
+        Assertions.assertEquals(3L, limiter.getMetrics().get("accepted"));
+        Assertions.assertEquals(1L, limiter.getMetrics().get("rejected"));
+    }
+
+    @Test
+    void admitUser_rejected_delayNotInLockstep() {
+        HandshakeRateLimiter limiter = new HandshakeRateLimiter(0, 1, 60000, 1, 5000, 100);
+        limiter.admitUser(1);
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 20; i++) delays.add(limiter.admitUser(1));
+        //同一用戶多個分頁被拒絕後不會在同一時間重試
+        Assertions.assertTrue(delays.size() > 1);
+    }
+
+    @Test
+    void reconnectHint_spread_ok() {
+        HandshakeRateLimiter limiter = new HandshakeRateLimiter(0, 1, 0, 1, 5000, 100);
+        long[] buckets = new long[5];
+        for (long uid = 1; uid <= 1000; uid++) {
+            long hint = limiter.reconnectHint(uid);
+            Assertions.assertTrue(hint >= 0 && hint < 5000);
+            Assertions.assertEquals(hint, limiter.reconnectHint(uid));
+            buckets[(int) (hint / 1000)]++;
+        }
+        //連續ID也要平均分散
+        for (long bucket : buckets) Assertions.assertTrue(bucket > 100);
+    }
+}
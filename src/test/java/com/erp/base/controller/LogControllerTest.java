@@ -7,6 +7,8 @@ import com.erp.base.model.dto.response.ApiResponse;
 import com.erp.base.model.entity.LogModel;
 import com.erp.base.repository.LogRepository;
 import com.erp.base.tool.DateTool;
+import com.jayway.jsonpath.JsonPath;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -26,6 +28,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @SpringBootTest(classes = TestRedisConfiguration.class)
@@ -210,6 +213,85 @@ class LogControllerTest {
         logRepository.deleteById(log3.getId());
     }
 
+    @Test
+    @DisplayName("日誌清單_游標分頁_時間倒敘_成功")
+    void logList_keyset_ok() throws Exception {
+        logRepository.deleteAll();
+        LogModel log1 = createLog(true, Router.CACHE.REFRESH, HttpStatus.OK.getReasonPhrase());
+        sec++;
+        LogModel log2 = createLog(true, Router.CLIENT.UPDATE, HttpStatus.OK.getReasonPhrase());
+        sec++;
+        LogModel log3 = createLog(false, Router.PERMISSION.BAN, ApiResponseCode.UNKNOWN_ERROR.getMessage());
+        ResponseEntity<ApiResponse> response = ApiResponse.success(ApiResponseCode.SUCCESS);
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(Router.LOG.LIST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .param("cursor", "")
+                .param("pageSize", "2")
+                .param("sort", "2")
+                .param("sortBy", "time")
+                .header(HttpHeaders.AUTHORIZATION, testUtils.createTestToken(DEFAULT_UID));
+        ResultActions resultActions = testUtils.performAndExpectCodeAndMessage(mockMvc, requestBuilder, response);
+        resultActions
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.data.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.data[0].id").value(log3.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.data[1].id").value(log2.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.hasNext").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalElements").doesNotExist());
+        String cursor = JsonPath.read(resultActions.andReturn().getResponse().getContentAsString(), "$.data.nextCursor");
+        requestBuilder = MockMvcRequestBuilders.get(Router.LOG.LIST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .param("cursor", cursor)
+                .param("pageSize", "2")
+                .param("sort", "2")
+                .param("sortBy", "time")
+                .header(HttpHeaders.AUTHORIZATION, testUtils.createTestToken(DEFAULT_UID));
+        testUtils.performAndExpectCodeAndMessage(mockMvc, requestBuilder, response)
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.data.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.data[0].id").value(log1.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.hasNext").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.nextCursor").isEmpty());
+        logRepository.deleteById(log1.getId());
+        logRepository.deleteById(log2.getId());
+        logRepository.deleteById(log3.getId());
+    }
+
+    @Test
+    @DisplayName("日誌匯出_CSV_成功")
+    void logExport_csv_ok() throws Exception {
+        logRepository.deleteAll();
+        LogModel log1 = createLog(true, Router.CACHE.REFRESH, HttpStatus.OK.getReasonPhrase());
+        sec++;
+        LogModel log2 = createLog(false, Router.PERMISSION.BAN, "=1+1");
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(Router.LOG.EXPORT)
+                .param("format", "csv")
+                .param("sort", "2")
+                .param("sortBy", "time")
+                .header(HttpHeaders.AUTHORIZATION, testUtils.createTestToken(DEFAULT_UID));
+        String content = mockMvc.perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, Matchers.startsWith("attachment")))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lines = content.split("\r\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertTrue(lines[0].startsWith("\uFEFFID,"));
+        Assertions.assertTrue(lines[1].startsWith(log2.getId() + ","));
+        Assertions.assertTrue(lines[1].endsWith(",'=1+1"));
+        Assertions.assertTrue(lines[2].startsWith(log1.getId() + ","));
+        logRepository.deleteById(log1.getId());
+        logRepository.deleteById(log2.getId());
+    }
+
+    @Test
+    @DisplayName("日誌匯出_格式錯誤_失敗")
+    void logExport_invalidFormat_error() throws Exception {
+        ResponseEntity<ApiResponse> response = ApiResponse.error(ApiResponseCode.INVALID_INPUT);
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(Router.LOG.EXPORT)
+                .param("format", "pdf")
+                .header(HttpHeaders.AUTHORIZATION, testUtils.createTestToken(DEFAULT_UID));
+        testUtils.performAndExpectCodeAndMessage(mockMvc, requestBuilder, response);
+    }
+
     private LogModel createLog(boolean status, String url, String result){
         LogModel entity = new LogModel();
         entity.setStatus(status);
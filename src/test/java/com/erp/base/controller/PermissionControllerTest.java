@@ -55,7 +55,7 @@ class PermissionControllerTest {
     @Value("${security.password}")
     private String securityPwd;
     private static final long DEFAULT_UID = 1L;
-    private final List<Integer> permissionArray = IntStream.rangeClosed(1, 76).boxed().toList();
+    private final List<Integer> permissionArray = IntStream.rangeClosed(1, 86).boxed().toList();
 
     @Test
     @DisplayName("權限清單_成功")
@@ -77,17 +77,17 @@ class PermissionControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[0].children", Matchers.hasSize(5)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[1].children", Matchers.hasSize(5)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[2].children", Matchers.hasSize(6)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[3].children", Matchers.hasSize(1)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[4].children", Matchers.hasSize(7)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[3].children", Matchers.hasSize(4)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[4].children", Matchers.hasSize(8)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[5].children", Matchers.hasSize(4)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[6].children", Matchers.hasSize(4)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[7].children", Matchers.hasSize(2)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[8].children", Matchers.hasSize(1)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[9].children", Matchers.hasSize(9)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[6].children", Matchers.hasSize(5)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[7].children", Matchers.hasSize(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[8].children", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[9].children", Matchers.hasSize(10)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[10].children", Matchers.hasSize(7)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[11].children", Matchers.hasSize(1)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[12].children", Matchers.hasSize(4)))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data[13].children", Matchers.hasSize(8)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[12].children", Matchers.hasSize(5)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[13].children", Matchers.hasSize(9)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[14].children", Matchers.hasSize(2)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[15].children", Matchers.hasSize(4)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[16].children", Matchers.hasSize(6)));
@@ -118,7 +118,7 @@ class PermissionControllerTest {
         ResultActions resultActions = testUtils.performAndExpectCodeAndMessage(mockMvc, requestBuilder, response);
         resultActions
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data").isArray())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data", Matchers.hasSize(76)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data", Matchers.hasSize(86)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data", Matchers.containsInAnyOrder(permissionArray.toArray())));
     }
 
@@ -0,0 +1,80 @@
+package com.erp.base.filter.jwt;
+
+import com.erp.base.config.security.SecurityConfig;
+import com.erp.base.controller.Router;
+import com.erp.base.model.dto.security.ClientIdentityDto;
+import com.erp.base.model.entity.ClientModel;
+import com.erp.base.service.security.UserDetailImpl;
+import com.erp.base.testConfig.JmhBenchmark;
+import com.erp.base.tool.ObjectTool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三個filter各自解析路徑、UserStatusFilter再用Jackson轉一次principal(舊)，和共用RequestSecurityContext(新)的單次請求成本
+ * mvn test -Dbenchmark=true -Djacoco.skip=true -Dtest=RequestSecurityContextBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = JmhBenchmark.ENABLED_PROPERTY, matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSecurityContextBenchmarkTest {
+    private static final String URI = "http://localhost:8080/erp_base" + Router.CLIENT.GET_CLIENT;
+    private UserDetailImpl principal;
+
+    @Setup
+    public void setUp() {
+        principal = new UserDetailImpl("zh", new ClientIdentityDto(new ClientModel(1)), null);
+    }
+
+    @Benchmark
+    public UserDetailImpl perFilter() throws URISyntaxException {
+        //JwtAuthenticationFilter
+        String path = ObjectTool.extractPath(URI);
+        boolean authenticate = !SecurityConfig.noRequiresAuthenticationSet.contains(path) && !path.contains("/ws");
+        //DenyPermissionFilter
+        path = ObjectTool.extractPath(URI);
+        boolean deny = !path.contains("swagger") && !path.contains("/ws");
+        //UserStatusFilter
+        path = ObjectTool.extractPath(URI);
+        if (authenticate && deny && !SecurityConfig.noRequiresAuthenticationSet.contains(path)) {
+            return ObjectTool.convert(principal, UserDetailImpl.class);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public UserDetailImpl sharedContext() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI(URI);
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        context.setPrincipal(principal);
+        RequestSecurityContext deny = RequestSecurityContext.resolve(request);
+        RequestSecurityContext status = RequestSecurityContext.resolve(request);
+        if (context.requiresAuthentication() && !deny.isSwaggerUrl() && status.requiresAuthentication()) return status.getPrincipal();
+        return null;
+    }
+
+    @Test
+    void filterChain_beforeAfter() throws Exception {
+        Assertions.assertEquals(2, JmhBenchmark.run(RequestSecurityContextBenchmarkTest.class).size());
+    }
+}
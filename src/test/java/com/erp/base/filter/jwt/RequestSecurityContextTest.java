@@ -0,0 +1,53 @@
+package com.erp.base.filter.jwt;
+
+import com.erp.base.controller.Router;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class RequestSecurityContextTest {
+    private static final String URL_PREFIX = "http://localhost:8080/erp_base";
+
+    @Test
+    void resolve_sameRequest_sameInstance() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI(URL_PREFIX + Router.CLIENT.GET_CLIENT);
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        Assertions.assertSame(context, RequestSecurityContext.resolve(request));
+        Assertions.assertEquals(Router.CLIENT.GET_CLIENT, context.getPath());
+        Assertions.assertFalse(context.isPathError());
+        Assertions.assertTrue(context.requiresAuthentication());
+    }
+
+    @Test
+    void resolve_uriChanged_reParse() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI(URL_PREFIX + Router.CLIENT.GET_CLIENT);
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        request.setRequestURI(URL_PREFIX + "/ws");
+        RequestSecurityContext context1 = RequestSecurityContext.resolve(request);
+        Assertions.assertNotSame(context, context1);
+        Assertions.assertTrue(context1.isWebsocketUrl());
+        Assertions.assertFalse(context1.requiresAuthentication());
+    }
+
+    @Test
+    void resolve_health_noAuthentication() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI(URL_PREFIX + "/actuator/health/readiness");
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        Assertions.assertTrue(context.isHealthUrl());
+        Assertions.assertFalse(context.requiresAuthentication());
+        request.setRequestURI(URL_PREFIX + "/actuator/healthz");
+        Assertions.assertFalse(RequestSecurityContext.resolve(request).isHealthUrl());
+    }
+
+    @Test
+    void resolve_pathError() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("// // /");
+        RequestSecurityContext context = RequestSecurityContext.resolve(request);
+        Assertions.assertTrue(context.isPathError());
+        Assertions.assertNull(context.getPath());
+    }
+}
@@ -0,0 +1,50 @@
+package com.erp.base.model;
+
+import com.erp.base.model.dto.security.ClientIdentityDto;
+import com.erp.base.model.entity.ClientModel;
+import com.erp.base.service.security.UserDetailImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+
+class ClientIdentityTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getUser_samePrincipalInstance() {
+        UserDetailImpl userDetail = new UserDetailImpl(new ClientIdentityDto(new ClientModel(1)), null);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(userDetail, null, null));
+        Assertions.assertSame(userDetail, ClientIdentity.getPrincipal());
+        Assertions.assertSame(userDetail.getClientModel(), ClientIdentity.getUser());
+    }
+
+    @Test
+    void getUser_anonymous_null() {
+        Assertions.assertNull(ClientIdentity.getUser());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("anonymousUser", null, null));
+        Assertions.assertNull(ClientIdentity.getUser());
+        Assertions.assertEquals(ClientIdentity.defaultLocale, ClientIdentity.getLocale());
+    }
+
+    @Test
+    void getUser_otherPrincipal_memoInRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Map<String, Object> principal = Map.of("clientModel", Map.of("id", 2));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, null));
+        UserDetailImpl userDetail = ClientIdentity.getPrincipal();
+        Assertions.assertEquals(2L, userDetail.getClientModel().getId());
+        Assertions.assertSame(userDetail, ClientIdentity.getPrincipal());
+    }
+}
@@ -0,0 +1,57 @@
+package com.erp.base.model;
+
+import com.erp.base.model.entity.ClientModel;
+import com.erp.base.model.entity.LeaveModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+class GenericSpecificationsTest {
+
+    @Test
+    @DisplayName("條件字串_忽略null和順序")
+    void key_normalized_ok() {
+        Specification<LeaveModel> spec1 = new GenericSpecifications<LeaveModel>()
+                .add("type", GenericSpecifications.EQ, 1)
+                .add("info", GenericSpecifications.LIKE, null)
+                .add("user", GenericSpecifications.EQ, new ClientModel(5))
+                .buildAnd();
+        Specification<LeaveModel> spec2 = new GenericSpecifications<LeaveModel>()
+                .add("user", GenericSpecifications.EQ, new ClientModel(5))
+                .add("type", GenericSpecifications.EQ, 1)
+                .buildAnd();
+        Assertions.assertEquals(key(spec1), key(spec2));
+        Assertions.assertNotEquals(key(spec1), key(new GenericSpecifications<LeaveModel>()
+                .add("user", GenericSpecifications.EQ, new ClientModel(6))
+                .add("type", GenericSpecifications.EQ, 1)
+                .buildAnd()));
+        Assertions.assertNotEquals(key(spec2), key(new GenericSpecifications<LeaveModel>()
+                .add("user", GenericSpecifications.EQ, new ClientModel(5))
+                .add("type", GenericSpecifications.EQ, 1)
+                .buildOr()));
+    }
+
+    @Test
+    @DisplayName("條件字串_分隔字元和型別不同_不重複")
+    void key_unambiguous_ok() {
+        Assertions.assertNotEquals(key(new GenericSpecifications<LeaveModel>().add("info", GenericSpecifications.EQ, "=a").buildAnd()),
+                key(new GenericSpecifications<LeaveModel>().add("info=", GenericSpecifications.EQ, "a").buildAnd()));
+        Assertions.assertNotEquals(key(new GenericSpecifications<LeaveModel>().add("type", GenericSpecifications.EQ, 1).buildAnd()),
+                key(new GenericSpecifications<LeaveModel>().add("type", GenericSpecifications.EQ, "1").buildAnd()));
+        Assertions.assertEquals(64, key(new GenericSpecifications<LeaveModel>().add("type", GenericSpecifications.EQ, 1).buildAnd()).length());
+    }
+
+    @Test
+    @DisplayName("條件字串_組合_成功")
+    void key_compose_ok() {
+        Specification<LeaveModel> user = new GenericSpecifications<LeaveModel>().add("user", GenericSpecifications.EQ, new ClientModel(5)).buildAnd();
+        Specification<LeaveModel> status = new GenericSpecifications<LeaveModel>().add("status", GenericSpecifications.EQ, 1).buildOr();
+        Assertions.assertEquals("AND(" + key(user) + "," + key(status) + ")", key(user.and(status)));
+        Assertions.assertNull(key(user.and((root, query, criteriaBuilder) -> null)));
+    }
+
+    private static String key(Specification<?> specification) {
+        return ((GenericSpecifications.KeyedSpecification<?>) specification).getKey();
+    }
+}
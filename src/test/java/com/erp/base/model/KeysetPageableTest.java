@@ -0,0 +1,42 @@
+package com.erp.base.model;
+
+import com.erp.base.model.entity.LogModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class KeysetPageableTest {
+
+    @Test
+    @DisplayName("游標分頁_補上id排序_第一頁不加條件")
+    void of_firstPage_ok() {
+        KeysetPageable keyset = KeysetPageable.of(List.of(Sort.Order.desc("time")), 20, "");
+        Assertions.assertEquals(Sort.by(Sort.Order.desc("time"), Sort.Order.asc("id")), keyset.getSort());
+        Assertions.assertEquals(20, keyset.getSize());
+        Assertions.assertNull(keyset.seek());
+        Assertions.assertEquals(Sort.by(Sort.Order.desc("id")), KeysetPageable.of(List.of(Sort.Order.desc("id")), 20, null).getSort());
+    }
+
+    @Test
+    @DisplayName("游標分頁_游標編碼後可解回_成功")
+    void encode_decode_ok() {
+        List<Sort.Order> orders = List.of(Sort.Order.desc("time"), Sort.Order.asc("userName"));
+        LogModel model = new LogModel();
+        model.setId(42);
+        String cursor = KeysetPageable.of(orders, 10, "").encode(model);
+        Assertions.assertNotNull(KeysetPageable.of(orders, 10, cursor).seek());
+    }
+
+    @Test
+    @DisplayName("游標分頁_排序不同或格式錯誤_失敗")
+    void decode_invalid_error() {
+        LogModel model = new LogModel();
+        String cursor = KeysetPageable.of(List.of(Sort.Order.desc("time")), 10, "").encode(model);
+        List<Sort.Order> other = List.of(Sort.Order.asc("time"));
+        Assertions.assertThrows(IllegalStateException.class, () -> KeysetPageable.of(other, 10, cursor));
+        Assertions.assertThrows(IllegalStateException.class, () -> KeysetPageable.of(other, 10, "@@@"));
+    }
+}
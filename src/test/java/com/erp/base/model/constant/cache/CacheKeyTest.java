@@ -0,0 +1,32 @@
+package com.erp.base.model.constant.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class CacheKeyTest {
+
+    @Test
+    void family_of_sameAsSpelKey() {
+        CacheKey key = CacheKey.CLIENT.of(5);
+        Assertions.assertEquals(CacheKey.CLIENT.key(5), key.getKey());
+        Assertions.assertEquals("client", key.getCacheName());
+        Assertions.assertEquals("client:client_5", key.toString());
+        Assertions.assertArrayEquals("client::client_5".getBytes(StandardCharsets.UTF_8), key.redisKey());
+        Assertions.assertEquals(CacheKey.CLIENT.of(5), key);
+    }
+
+    @Test
+    void family_messagePrefix_ok() {
+        Assertions.assertTrue(CacheKey.ROLE_PERMISSION.of(12).toString().startsWith(CacheKey.ROLE_PERMISSION.messagePrefix()));
+    }
+
+    @Test
+    void cacheEntity_dependentKeys_ok() {
+        Assertions.assertEquals(List.of(CacheKey.ROLES, CacheKey.ROLE_PERMISSION.of(3), CacheKey.ROLE_MENU.of(3)), CacheEntity.ROLE.dependentKeys(3));
+        Assertions.assertTrue(CacheEntity.PERMISSION.dependentKeys(3).contains(CacheKey.ROLES));
+        Assertions.assertTrue(CacheEntity.SALARY.dependentKeys(3).isEmpty());
+    }
+}
@@ -0,0 +1,62 @@
+package com.erp.base.service;
+
+import com.erp.base.config.redis.BatchCacheManager;
+import com.erp.base.config.redis.CacheCodecRegistry;
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.service.cache.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class CacheServiceTest {
+    @Mock
+    private BatchCacheManager cacheManager;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private LocalCacheInvalidator localCacheInvalidator;
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new CacheService(Mockito.mock(ClientCache.class), Mockito.mock(RolePermissionCache.class), Mockito.mock(TokenBlackList.class),
+                Mockito.mock(OtherCache.class), Mockito.mock(AuthorityCache.class), Mockito.mock(PermissionRouteCache.class), cacheManager, stringRedisTemplate,
+                List.of(localCacheInvalidator), Mockito.mock(CacheCodecRegistry.class), Mockito.mock(SystemCounter.class));
+    }
+
+    @Test
+    @DisplayName("刷新緩存_無交易_刪除一次並通知")
+    void evict_noTransaction_ok() {
+        cacheService.evict(List.of(CacheKey.CLIENT.of(1)));
+        Mockito.verify(cacheManager, Mockito.times(1)).evictAll(List.of(CacheKey.CLIENT.of(1)));
+        Mockito.verify(localCacheInvalidator).invalidateLocal(CacheKey.CLIENT.of(1).toString());
+    }
+
+    @Test
+    @DisplayName("刷新緩存_交易中_本地先清_提交後再刪除並通知")
+    void evict_inTransaction_evictAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheService.evict(List.of(CacheKey.CLIENT.of(1)));
+            Mockito.verify(cacheManager, Mockito.times(1)).evictAll(List.of(CacheKey.CLIENT.of(1)));
+            Mockito.verify(localCacheInvalidator).invalidateLocal(CacheKey.CLIENT.of(1).toString());
+            Mockito.verifyNoInteractions(stringRedisTemplate);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Mockito.verify(cacheManager, Mockito.times(2)).evictAll(List.of(CacheKey.CLIENT.of(1)));
+        Mockito.verify(localCacheInvalidator, Mockito.times(2)).invalidateLocal(CacheKey.CLIENT.of(1).toString());
+    }
+}
@@ -1,6 +1,7 @@
 package com.erp.base.service;
 
 
+import com.erp.base.model.constant.cache.CacheKey;
 import com.erp.base.model.constant.response.ApiResponseCode;
 import com.erp.base.model.dto.request.client.*;
 import com.erp.base.model.dto.response.*;
@@ -8,6 +9,7 @@ import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.entity.ClientModel;
 import com.erp.base.model.mail.ResetPasswordModel;
 import com.erp.base.repository.ClientRepository;
+import com.erp.base.service.security.LoginRecorder;
 import com.erp.base.service.security.TokenService;
 import com.erp.base.service.security.UserDetailImpl;
 import com.erp.base.tool.EncodeTool;
@@ -21,6 +23,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -47,6 +50,8 @@ class ClientServiceTest {
     private PerformanceService performanceService;
     @Mock
     private CacheService cacheService;
+    @Mock
+    private LoginRecorder loginRecorder;
     @InjectMocks
     private ClientService clientService;
 
@@ -83,15 +88,17 @@ class ClientServiceTest {
     @Test
     @DisplayName("登入_成功")
     void login_ok() {
-        ClientModel client = new ClientModel(1);
-        Mockito.when(tokenService.createToken(Mockito.any())).thenReturn(new HttpHeaders());
-        Mockito.when(clientRepository.findByUsername(Mockito.any())).thenReturn(client);
+        ClientIdentityDto client = new ClientIdentityDto(new ClientModel(1));
+        Mockito.when(tokenService.authenticate(Mockito.any())).thenReturn(new UserDetailImpl(client, cacheService));
+        Mockito.when(tokenService.createToken(Mockito.anyLong(), Mockito.any())).thenReturn(new HttpHeaders());
         ResponseEntity<ApiResponse> response = clientService.login(new LoginRequest());
         ResponseEntity<ApiResponse> expected = ApiResponse.success(new HttpHeaders(), new ClientResponseModel(client));
         Assertions.assertEquals(expected.getHeaders(), response.getHeaders());
         Assertions.assertEquals(expected.getStatusCode(), response.getStatusCode());
         Assertions.assertEquals(Objects.requireNonNull(expected.getBody()).getCode(), Objects.requireNonNull(response.getBody()).getCode());
         Assertions.assertEquals(Objects.requireNonNull(expected.getBody()).getMessage(), Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verify(loginRecorder).recordLogin(Mockito.eq(1L), Mockito.anyLong());
+        Mockito.verify(clientRepository, Mockito.never()).findByUsername(Mockito.any());
     }
 
     @Test
@@ -244,6 +251,24 @@ class ClientServiceTest {
         Assertions.assertEquals(ApiResponse.success(ApiResponseCode.SUCCESS), response);
     }
 
+    @Test
+    @DisplayName("用戶鎖定_已是鎖定_不重複計數")
+    void lockClient_unchanged_ok() {
+        Mockito.when(clientRepository.lockClientByIdAndUsername(Mockito.anyLong(), Mockito.any(), Mockito.anyBoolean())).thenReturn(0);
+        Mockito.when(clientRepository.existsByIdAndUsername(Mockito.anyLong(), Mockito.any())).thenReturn(true);
+        ResponseEntity<ApiResponse> response = clientService.lockClient(new ClientStatusRequest());
+        Assertions.assertEquals(ApiResponse.success(ApiResponseCode.SUCCESS), response);
+        Mockito.verify(cacheService, Mockito.never()).countClient(Mockito.anyBoolean(), Mockito.anyInt(), Mockito.anyBoolean(), Mockito.anyBoolean(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("用戶鎖定_用戶不存在_錯誤")
+    void lockClient_notExists_error() {
+        Mockito.when(clientRepository.lockClientByIdAndUsername(Mockito.anyLong(), Mockito.any(), Mockito.anyBoolean())).thenReturn(0);
+        Mockito.when(clientRepository.existsByIdAndUsername(Mockito.anyLong(), Mockito.any())).thenReturn(false);
+        Assertions.assertThrows(IncorrectResultSizeDataAccessException.class, () -> clientService.lockClient(new ClientStatusRequest()));
+    }
+
     @Test
     @DisplayName("更改用戶狀態_成功")
     void clientStatus_ok() {
@@ -287,4 +312,38 @@ class ClientServiceTest {
         String response = clientService.getSystemUser();
         Assertions.assertEquals("1/3", response);
     }
+
+    @Test
+    @DisplayName("更新打卡狀態_簽到_前值以未打卡計數")
+    void updateClientAttendStatus_signIn_countFromNotSigned() {
+        ClientIdentityDto dto = new ClientIdentityDto();
+        dto.setId(1L);
+        dto.setActive(true);
+        //緩存還是前一天的已簽退
+        dto.setAttendStatus(3);
+        Mockito.when(clientRepository.updateClientAttendStatus(1L, 2)).thenReturn(1);
+        Mockito.when(cacheService.getClient(1L)).thenReturn(dto);
+        clientService.updateClientAttendStatus(dto, 2);
+        Mockito.verify(cacheService).countClient(true, 1, true, false, 2);
+    }
+
+    @Test
+    @DisplayName("更新打卡狀態_已是目標狀態_不計數")
+    void updateClientAttendStatus_unchanged_notCounted() {
+        ClientIdentityDto dto = new ClientIdentityDto();
+        dto.setId(1L);
+        Mockito.when(clientRepository.updateClientAttendStatus(1L, 2)).thenReturn(0);
+        Mockito.when(cacheService.getClient(1L)).thenReturn(dto);
+        clientService.updateClientAttendStatus(dto, 2);
+        Mockito.verify(cacheService, Mockito.never()).countClient(Mockito.anyBoolean(), Mockito.anyInt(), Mockito.anyBoolean(), Mockito.anyBoolean(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("重置打卡狀態_清除用戶緩存")
+    void updateClientAttendStatus_reset_evictClients() {
+        Mockito.when(clientRepository.findIdsToResetAttendStatus(Mockito.any())).thenReturn(List.of(1L, 2L));
+        clientService.updateClientAttendStatus();
+        Mockito.verify(cacheService).evict(List.of(CacheKey.CLIENT.of(1L), CacheKey.CLIENT.of(2L)));
+        Mockito.verify(cacheService).resetSystemInfo();
+    }
 }
\ No newline at end of file
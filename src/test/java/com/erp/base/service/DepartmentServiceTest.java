@@ -26,6 +26,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 class DepartmentServiceTest {
@@ -93,6 +94,7 @@ class DepartmentServiceTest {
         departmentModels.add(d3);
         Page<DepartmentModel> page = new PageImpl<>(departmentModels);
         Mockito.when(departmentRepository.findAll((Specification<DepartmentModel>)Mockito.any(), (PageRequest)Mockito.any())).thenReturn(page);
+        Mockito.when(cacheService.queryPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
         ResponseEntity<ApiResponse> list = departmentService.list(new DepartmentRequest());
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, DepartmentResponse.class)), list);
     }
@@ -35,6 +35,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 class LeaveServiceTest {
@@ -42,6 +43,8 @@ class LeaveServiceTest {
     private LeaveRepository leaveRepository;
     @Mock
     private ClientService clientService;
+    @Mock
+    private CacheService cacheService;
     private static final MessageSource messageSource = Mockito.spy(MessageSource.class);
     @InjectMocks
     private LeaveService leaveService;
@@ -66,6 +69,7 @@ class LeaveServiceTest {
         Mockito.when(leaveRepository.findAll((Specification<LeaveModel>)Mockito.any(), (PageRequest)Mockito.any())).thenReturn(page);
         LeaveRequest request = new LeaveRequest();
         request.setUserId(9999L);
+        Mockito.when(cacheService.queryPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
         ResponseEntity<ApiResponse> list = leaveService.list(request);
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, LeaveResponse.class)), list);
     }
@@ -85,6 +89,7 @@ class LeaveServiceTest {
         Mockito.when(leaveRepository.findAll((Specification<LeaveModel>)Mockito.any(), (PageRequest)Mockito.any())).thenReturn(page);
         LeaveRequest request = new LeaveRequest();
         request.setUserId(1L);
+        Mockito.when(cacheService.queryPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
         ResponseEntity<ApiResponse> list = leaveService.list(request);
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, LeaveResponse.class)), list);
     }
@@ -2,12 +2,18 @@ package com.erp.base.service;
 
 
 import com.erp.base.model.dto.request.log.LogRequest;
+import com.erp.base.model.dto.request.log.LogRollupRequest;
 import com.erp.base.model.dto.response.ApiResponse;
 import com.erp.base.model.dto.response.LogResponse;
 import com.erp.base.model.dto.response.PageResponse;
 import com.erp.base.model.entity.LogModel;
+import com.erp.base.model.entity.LogRollupModel;
 import com.erp.base.repository.LogRepository;
+import com.erp.base.repository.LogRollupRepository;
+import com.erp.base.service.log.AuditLogWriter;
+import com.erp.base.tool.DateTool;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,16 +26,32 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @ExtendWith(MockitoExtension.class)
 class LogServiceTest {
     @Mock
     private LogRepository logRepository;
+    @Mock
+    private AuditLogWriter auditLogWriter;
+    @Mock
+    private LogRollupRepository logRollupRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private LogService logService;
 
+    @BeforeEach
+    void setUp() {
+        logService.setTransactionManager(transactionManager);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     @DisplayName("部門清單_成功")
@@ -43,4 +65,74 @@ class LogServiceTest {
         ResponseEntity<ApiResponse> all = logService.findAll(new LogRequest());
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, LogResponse.class)), all);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("儲存日誌_非同步_交給寫入佇列")
+    void save_async_ok() {
+        LogModel model = new LogModel();
+        Mockito.when(auditLogWriter.isEnabled()).thenReturn(true);
+        logService.save(model);
+        Mockito.verify(auditLogWriter).submit(model);
+        Mockito.verify(logRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("儲存日誌_同步_直接寫入")
+    void save_sync_ok() {
+        LogModel model = new LogModel();
+        Mockito.when(auditLogWriter.isEnabled()).thenReturn(false);
+        logService.save(model);
+        Mockito.verify(logRepository).save(model);
+        Mockito.verify(auditLogWriter, Mockito.never()).submit(Mockito.any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("日誌彙總_從上次彙總的小時重算_無後續日誌停止")
+    void rollup_ok() {
+        LocalDateTime last = DateTool.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+        Object[] row = {"/log/list", "test", true, 3L};
+        Mockito.when(logRollupRepository.findLastBucket()).thenReturn(last);
+        Mockito.when(logRepository.countGroupBy(Mockito.any(), Mockito.any())).thenReturn(List.<Object[]>of(row), List.of());
+        Mockito.when(logRepository.findFirstTimeFrom(last.plusHours(2))).thenReturn(null);
+        Assertions.assertEquals(1, logService.rollup());
+        Mockito.verify(logRollupRepository).deleteByBucketBetween(last, last.plusHours(1));
+        Mockito.verify(logRollupRepository).deleteByBucketBetween(last.plusHours(1), last.plusHours(2));
+        Mockito.verify(logRollupRepository).saveAll(Mockito.argThat((List<LogRollupModel> list) -> list.size() == 1
+                && list.get(0).getBucket().equals(last) && list.get(0).getCount() == 3 && "/log/list".equals(list.get(0).getUrl())));
+        //每個小時各自提交
+        Mockito.verify(transactionManager, Mockito.times(2)).commit(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("日誌彙總_沒有日誌_不處理")
+    void rollup_empty_ok() {
+        Mockito.when(logRollupRepository.findLastBucket()).thenReturn(null);
+        Mockito.when(logRepository.findFirstTime()).thenReturn(null);
+        Assertions.assertEquals(0, logService.rollup());
+        Mockito.verify(logRepository, Mockito.never()).countGroupBy(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("日誌統計_從彙總加總_成功")
+    void rollupSummary_ok() {
+        LocalDateTime bucket = DateTool.now().truncatedTo(ChronoUnit.HOURS);
+        List<LogRollupModel> rollups = List.of(
+                new LogRollupModel(bucket, "/a", "test", true, 5),
+                new LogRollupModel(bucket, "/a", "test", false, 2),
+                new LogRollupModel(bucket.minusHours(1), "/b", "test", true, 1));
+        Mockito.when(logRollupRepository.findAll((Specification<LogRollupModel>) Mockito.any())).thenReturn(rollups);
+        ResponseEntity<ApiResponse> response = logService.rollupSummary(new LogRollupRequest());
+        Map<String, Object> data = (Map<String, Object>) response.getBody().getData();
+        Assertions.assertEquals(8L, data.get("total"));
+        Assertions.assertEquals(6L, data.get("success"));
+        Assertions.assertEquals(2L, data.get("failed"));
+        List<Map<String, Object>> hourly = (List<Map<String, Object>>) data.get("hourly");
+        Assertions.assertEquals(DateTool.format(bucket.minusHours(1)), hourly.get(0).get("bucket"));
+        Assertions.assertEquals(7L, hourly.get(1).get("count"));
+        List<Map<String, Object>> topUrls = (List<Map<String, Object>>) data.get("topUrls");
+        Assertions.assertEquals("/a", topUrls.get(0).get("url"));
+        Assertions.assertEquals(2L, topUrls.get(0).get("failed"));
+    }
+}
@@ -35,6 +35,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 class PerformanceServiceTest {
@@ -42,6 +43,8 @@ class PerformanceServiceTest {
     private PerformanceRepository performanceRepository;
     @Mock
     private ClientService clientService;
+    @Mock
+    private CacheService cacheService;
     @InjectMocks
     private PerformanceService performanceService;
 
@@ -67,6 +70,7 @@ class PerformanceServiceTest {
         performanceModels.add(p);
         Page<PerformanceModel> page = new PageImpl<>(performanceModels);
         Mockito.when(performanceRepository.findAll((Specification<PerformanceModel>)Mockito.any(), (PageRequest)Mockito.any())).thenReturn(page);
+        Mockito.when(cacheService.queryPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
         ResponseEntity<ApiResponse> list = performanceService.getList(new PerformanceRequest());
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, PerformanceResponse.class)), list);
     }
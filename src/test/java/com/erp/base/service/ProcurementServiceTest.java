@@ -12,7 +12,6 @@ import com.erp.base.model.entity.ProcurementModel;
 import com.erp.base.repository.ProcurementRepository;
 import com.erp.base.service.security.UserDetailImpl;
 import org.junit.jupiter.api.Assertions;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,19 +31,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 class ProcurementServiceTest {
     @Mock
     private ProcurementRepository procurementRepository;
+    @Mock
+    private CacheService cacheService;
     @InjectMocks
     private ProcurementService procurementService;
 
-    @BeforeEach
-    void setUp() {
-        procurementService.setCacheService(Mockito.mock(CacheService.class));
-    }
-
     @Test
     @SuppressWarnings("unchecked")
     @DisplayName("採購清單_成功")
@@ -59,6 +56,7 @@ class ProcurementServiceTest {
         procurementModels.add(procurementModel);
         Page<ProcurementModel> page = new PageImpl<>(procurementModels);
         Mockito.when(procurementRepository.findAll((Specification<ProcurementModel>)Mockito.any(), (PageRequest)Mockito.any())).thenReturn(page);
+        Mockito.when(cacheService.queryPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
         ResponseEntity<ApiResponse> all = procurementService.findAll(new ProcurementRequest());
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, ProcurementResponse.class)), all);
     }
@@ -21,7 +21,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,7 +48,6 @@ class RoleServiceTest {
     @DisplayName("更新角色名稱_未知錯誤_錯誤")
     void updateName_unknownError_error() {
         Mockito.when(roleRepository.findByRoleName(Mockito.any())).thenReturn(Optional.empty());
-        Mockito.when(cacheService.getRole()).thenReturn(new HashMap<>());
         ResponseEntity<ApiResponse> response = roleService.updateName(new RoleRequest());
         Assertions.assertEquals(ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR), response);
     }
@@ -58,9 +56,7 @@ class RoleServiceTest {
     @DisplayName("更新角色名稱_成功")
     void updateName_ok() {
         Mockito.when(roleRepository.findByRoleName(Mockito.any())).thenReturn(Optional.empty());
-        HashMap<Long, RoleModel> map = new HashMap<>();
-        map.put(1L, new RoleModel(1L));
-        Mockito.when(cacheService.getRole()).thenReturn(map);
+        Mockito.when(roleRepository.findById(1L)).thenReturn(Optional.of(new RoleModel(1L)));
         RoleRequest request = new RoleRequest();
         request.setId(1L);
         ResponseEntity<ApiResponse> response = roleService.updateName(request);
@@ -108,7 +104,6 @@ class RoleServiceTest {
     @Test
     @DisplayName("編輯角色權限_未知ID_錯誤")
     void updateRolePermission_unknownId_error() {
-        Mockito.when(cacheService.getRole()).thenReturn(new HashMap<>());
         ResponseEntity<ApiResponse> response = roleService.updateRolePermission(new RolePermissionRequest());
         Assertions.assertEquals(ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR), response);
     }
@@ -116,9 +111,7 @@ class RoleServiceTest {
     @Test
     @DisplayName("編輯角色權限_成功")
     void updateRolePermission_ok() {
-        HashMap<Long, RoleModel> map = new HashMap<>();
-        map.put(1L, new RoleModel(1));
-        Mockito.when(cacheService.getRole()).thenReturn(map);
+        Mockito.when(roleRepository.findById(1L)).thenReturn(Optional.of(new RoleModel(1)));
         RolePermissionRequest request = new RolePermissionRequest();
         ArrayList<Long> permissionIds = new ArrayList<>();
         permissionIds.add(1L);
@@ -133,7 +126,6 @@ class RoleServiceTest {
     @Test
     @DisplayName("編輯角色前端路由權限_未知ID_錯誤")
     void updateRoleRouter_unknownId_error() {
-        Mockito.when(cacheService.getRole()).thenReturn(new HashMap<>());
         ResponseEntity<ApiResponse> response = roleService.updateRoleMenu(new RoleMenuRequest());
         Assertions.assertEquals(ApiResponse.error(ApiResponseCode.UNKNOWN_ERROR), response);
     }
@@ -141,9 +133,7 @@ class RoleServiceTest {
     @Test
     @DisplayName("編輯角色前端路由權限_成功")
     void updateRoleRouter_ok() {
-        HashMap<Long, RoleModel> map = new HashMap<>();
-        map.put(1L, new RoleModel(1));
-        Mockito.when(cacheService.getRole()).thenReturn(map);
+        Mockito.when(roleRepository.findById(1L)).thenReturn(Optional.of(new RoleModel(1)));
         RoleMenuRequest request = new RoleMenuRequest();
         ArrayList<Long> menuIds = new ArrayList<>();
         menuIds.add(1L);
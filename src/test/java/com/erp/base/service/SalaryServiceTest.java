@@ -31,6 +31,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 class SalaryServiceTest {
@@ -38,6 +39,8 @@ class SalaryServiceTest {
     private SalaryRepository salaryRepository;
     @Mock
     private ClientService clientService;
+    @Mock
+    private CacheService cacheService;
     @InjectMocks
     private SalaryService salaryService;
 
@@ -62,6 +65,7 @@ class SalaryServiceTest {
         salaryModels.add(r);
         Page<SalaryModel> page = new PageImpl<>(salaryModels);
         Mockito.when(salaryRepository.findAll((Specification<SalaryModel>)Mockito.any(), (PageRequest)Mockito.any())).thenReturn(page);
+        Mockito.when(cacheService.queryPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
         ResponseEntity<ApiResponse> response = salaryService.getRoots(new SalaryRequest());
         Assertions.assertEquals(ApiResponse.success(new PageResponse<>(page, SalaryResponse.class)), response);
     }
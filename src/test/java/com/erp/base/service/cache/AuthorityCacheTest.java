@@ -0,0 +1,118 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.config.redis.CacheInvalidationListener;
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.config.redis.LocalOnlyCacheManager;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.model.dto.security.AuthoritySnapshot;
+import com.erp.base.model.dto.security.ClientIdentityDto;
+import com.erp.base.model.dto.security.RolePermissionDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class AuthorityCacheTest {
+    private AuthorityCache authorityCache;
+    private RolePermissionCache rolePermissionCache;
+    private ClientIdentityDto client;
+
+    @BeforeEach
+    void setUp() {
+        rolePermissionCache = Mockito.mock(RolePermissionCache.class);
+        authorityCache = new AuthorityCache(10);
+        authorityCache.setRolePermissionCache(rolePermissionCache);
+        client = new ClientIdentityDto();
+        client.setId(1L);
+        client.setRoleId(List.of(1L, 2L));
+        Mockito.when(rolePermissionCache.getRolePermission(1L)).thenReturn(Set.of(new RolePermissionDto(2L, "B", null, null), new RolePermissionDto(1L, "A", null, null)));
+        Mockito.when(rolePermissionCache.getRolePermission(2L)).thenReturn(Set.of(new RolePermissionDto(2L, "B", null, null), new RolePermissionDto(3L, "C", null, null)));
+    }
+
+    @Test
+    void getAuthority_merge_ok() {
+        AuthoritySnapshot snapshot = authorityCache.getAuthority(client);
+        Assertions.assertEquals(3, snapshot.getAuthorities().size());
+        Assertions.assertTrue(snapshot.hasPermission(3L));
+        Assertions.assertFalse(snapshot.hasPermission(4L));
+    }
+
+    @Test
+    void getAuthority_reuseSnapshot_ok() {
+        AuthoritySnapshot snapshot = authorityCache.getAuthority(client);
+        AuthoritySnapshot snapshot1 = authorityCache.getAuthority(client);
+        Assertions.assertSame(snapshot, snapshot1);
+        Mockito.verify(rolePermissionCache, Mockito.times(1)).getRolePermission(1L);
+    }
+
+    @Test
+    void getAuthority_rolePermissionRefresh_rebuild() {
+        AuthoritySnapshot snapshot = authorityCache.getAuthority(client);
+        authorityCache.invalidateLocal(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
+        AuthoritySnapshot snapshot1 = authorityCache.getAuthority(client);
+        Assertions.assertNotSame(snapshot, snapshot1);
+    }
+
+    @Test
+    void getAuthority_singleRoleRefresh_rebuildAffected() {
+        ClientIdentityDto other = new ClientIdentityDto();
+        other.setId(2L);
+        other.setRoleId(List.of(2L));
+        AuthoritySnapshot snapshot = authorityCache.getAuthority(client);
+        AuthoritySnapshot otherSnapshot = authorityCache.getAuthority(other);
+        //只有擁有角色1的用戶要重建
+        authorityCache.invalidateLocal(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLE_PERMISSION + 1);
+        Assertions.assertNotSame(snapshot, authorityCache.getAuthority(client));
+        Assertions.assertSame(otherSnapshot, authorityCache.getAuthority(other));
+        //其他rolePermission的key不影響權限快照
+        snapshot = authorityCache.getAuthority(client);
+        authorityCache.invalidateLocal(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLE_MENU + 1);
+        Assertions.assertSame(snapshot, authorityCache.getAuthority(client));
+    }
+
+    @Test
+    void getAuthority_roleChanged_rebuild() {
+        AuthoritySnapshot snapshot = authorityCache.getAuthority(client);
+        client.setRoleId(List.of(1L));
+        AuthoritySnapshot snapshot1 = authorityCache.getAuthority(client);
+        Assertions.assertEquals(3, snapshot.getAuthorities().size());
+        Assertions.assertEquals(2, snapshot1.getAuthorities().size());
+    }
+
+    @Test
+    void invalidateLocal_reloadInterleaved_noStaleSnapshot() {
+        //角色權限由緩存層提供，緩存層沒有時才讀"DB"
+        LocalOnlyCacheManager cacheManager = new LocalOnlyCacheManager(Map.of(), 60000, 100, false, null);
+        Cache cache = cacheManager.getCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
+        Set<RolePermissionDto> db = Set.of(new RolePermissionDto(4L, "D", null, null));
+        Mockito.when(rolePermissionCache.getRolePermission(1L)).thenAnswer(invocation -> cache.get(CacheKey.ROLE_PERMISSION.key(1), () -> db));
+        cache.put(CacheKey.ROLE_PERMISSION.key(1), Set.of(new RolePermissionDto(1L, "A", null, null)));
+        Assertions.assertFalse(authorityCache.getAuthority(client).hasPermission(4L));
+
+        //兩個失效處理之間插入一次重建，不論註冊順序，重建都不能存下舊權限
+        LocalCacheInvalidator reload = new LocalCacheInvalidator() {
+            @Override
+            public void invalidateLocal(String message) {
+                authorityCache.getAuthority(client);
+            }
+
+            @Override
+            public int getOrder() {
+                return 0;
+            }
+        };
+        CacheInvalidationListener listener = new CacheInvalidationListener(List.of(authorityCache, reload, cacheManager));
+        String message = CacheKey.ROLE_PERMISSION.messagePrefix() + 1;
+        listener.onMessage(new DefaultMessage(CacheConstant.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("other-node " + message).getBytes(StandardCharsets.UTF_8)), null);
+        Assertions.assertTrue(authorityCache.getAuthority(client).hasPermission(4L));
+    }
+}
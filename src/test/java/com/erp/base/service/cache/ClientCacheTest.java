@@ -83,16 +83,4 @@ class ClientCacheTest {
         Mockito.verify(clientService, Mockito.times(1)).getClientNameList();
         Mockito.verifyNoMoreInteractions(clientService);
     }
-
-    @Test
-    void getSystemUser_ok() {
-        Mockito.when(clientService.getSystemUser()).thenReturn("1/1");
-        String result = clientCache.getSystemUser();
-        Mockito.when(clientService.getSystemUser()).thenReturn("1/2");
-        String result1 = clientCache.getSystemUser();
-        Assertions.assertEquals("1/1", result);
-        Assertions.assertEquals("1/1", result1);
-        Mockito.verify(clientService, Mockito.times(1)).getSystemUser();
-        Mockito.verifyNoMoreInteractions(clientService);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.service.ClientService;
+import com.erp.base.service.ProcurementService;
+import com.erp.base.service.ProjectService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+class LocalSystemCounterTest {
+    @Mock
+    private ClientService clientService;
+    @Mock
+    private ProjectService projectService;
+    @Mock
+    private ProcurementService procurementService;
+    private LocalSystemCounter systemCounter;
+
+    @BeforeEach
+    void setUp() {
+        systemCounter = new LocalSystemCounter();
+        systemCounter.setClientService(clientService);
+        systemCounter.setProjectService(projectService);
+        systemCounter.setProcurementService(procurementService);
+        Mockito.lenient().when(clientService.getSystemUserCount()).thenReturn(new Object[]{1L, 2L});
+        Mockito.lenient().when(projectService.getSystemProject()).thenReturn("3");
+        Mockito.lenient().when(procurementService.getSystemProcure()).thenReturn(new Object[]{BigDecimal.TEN, BigDecimal.ZERO});
+    }
+
+    @Test
+    void getSystemInfo_reconcileOnce_ok() {
+        Map<String, Object> info = systemCounter.getSystemInfo();
+        systemCounter.getSystemInfo();
+        Assertions.assertEquals("1/2", info.get("systemUser"));
+        Assertions.assertEquals("3", info.get("systemProject"));
+        Assertions.assertEquals(BigDecimal.TEN, ((Object[]) info.get("systemProcure"))[0]);
+        Mockito.verify(clientService, Mockito.times(1)).getSystemUserCount();
+    }
+
+    @Test
+    void increment_ok() {
+        systemCounter.getSystemInfo();
+        //新用戶、有人簽到
+        systemCounter.clientChanged(false, 1, true, 1);
+        systemCounter.clientChanged(true, 1, true, 2);
+        systemCounter.projectAdded();
+        systemCounter.procureChanged(LocalDateTime.now(), null, null, 2, new BigDecimal("5.5"));
+        Map<String, Object> info = systemCounter.getSystemInfo();
+        Assertions.assertEquals("2/3", info.get("systemUser"));
+        Assertions.assertEquals("4", info.get("systemProject"));
+        Assertions.assertEquals(0, new BigDecimal("5.5").compareTo((BigDecimal) ((Object[]) info.get("systemProcure"))[1]));
+        Mockito.verify(clientService, Mockito.times(1)).getSystemUserCount();
+    }
+
+    @Test
+    void reconcile_changedDuringReload_keepIncrement() {
+        systemCounter.getSystemInfo();
+        //重算讀SQL期間有新專案，舊的重算結果不能覆蓋
+        Mockito.when(clientService.getSystemUserCount()).thenAnswer(invocation -> {
+            systemCounter.projectAdded();
+            return new Object[]{1L, 2L};
+        });
+        systemCounter.reconcile();
+        Assertions.assertEquals("4", systemCounter.getSystemInfo().get("systemProject"));
+    }
+
+    @Test
+    void increment_reset_skipUntilReconcile() {
+        systemCounter.getSystemInfo();
+        systemCounter.reset();
+        systemCounter.projectAdded();
+        Assertions.assertEquals("3", systemCounter.getSystemInfo().get("systemProject"));
+        Mockito.verify(clientService, Mockito.times(2)).getSystemUserCount();
+    }
+}
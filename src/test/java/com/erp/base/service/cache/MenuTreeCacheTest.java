@@ -0,0 +1,121 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.config.redis.CacheInvalidationListener;
+import com.erp.base.config.redis.LocalCacheInvalidator;
+import com.erp.base.config.redis.LocalOnlyCacheManager;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.constant.cache.CacheKey;
+import com.erp.base.model.dto.response.MenuResponse;
+import com.erp.base.model.entity.MenuModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MenuTreeCacheTest {
+    private MenuTreeCache menuTreeCache;
+    private RolePermissionCache rolePermissionCache;
+
+    @BeforeEach
+    void setUp() {
+        rolePermissionCache = Mockito.mock(RolePermissionCache.class);
+        menuTreeCache = new MenuTreeCache(10);
+        menuTreeCache.setRolePermissionCache(rolePermissionCache);
+        MenuModel root1 = menu(1, null, 1, 2);
+        MenuModel root2 = menu(2, null, 1, 1);
+        Mockito.when(rolePermissionCache.getRoleMenu(1L)).thenReturn(List.of(new MenuResponse(menu(10, root1, 2, 1)), new MenuResponse(root1)));
+        Mockito.when(rolePermissionCache.getRoleMenu(2L)).thenReturn(List.of(new MenuResponse(root1), new MenuResponse(menu(11, root1, 2, 2)), new MenuResponse(root2)));
+    }
+
+    @Test
+    void getMenuTree_merge_ok() {
+        List<MenuResponse> tree = menuTreeCache.getMenuTree(List.of(2L, 1L));
+        Assertions.assertEquals(2, tree.size());
+        Assertions.assertEquals(2L, tree.get(0).getId());
+        Assertions.assertNull(tree.get(0).getChild());
+        Assertions.assertEquals(1L, tree.get(1).getId());
+        Assertions.assertEquals(List.of(10L, 11L), tree.get(1).getChild().stream().map(MenuResponse::getId).toList());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> tree.get(1).getChild().clear());
+    }
+
+    @Test
+    void getMenuTree_sameRoles_reuse() {
+        List<MenuResponse> tree = menuTreeCache.getMenuTree(List.of(1L, 2L));
+        Assertions.assertSame(tree, menuTreeCache.getMenuTree(List.of(2L, 1L, 2L)));
+        Assertions.assertSame(menuTreeCache.getMenuTree(List.of(1L)), menuTreeCache.getRoleTree(1L));
+        Mockito.verify(rolePermissionCache, Mockito.times(2)).getRoleMenu(1L);
+    }
+
+    @Test
+    void invalidateLocal_roleMenu_rebuild() {
+        List<MenuResponse> tree = menuTreeCache.getMenuTree(List.of(1L, 2L));
+        List<MenuResponse> roleTree = menuTreeCache.getRoleTree(2L);
+        menuTreeCache.invalidateLocal(CacheKey.ROLE_MENU.of(1).toString());
+        Assertions.assertNotSame(tree, menuTreeCache.getMenuTree(List.of(1L, 2L)));
+        Assertions.assertSame(roleTree, menuTreeCache.getRoleTree(2L));
+        menuTreeCache.invalidateLocal(CacheConstant.ALL);
+        Assertions.assertNotSame(roleTree, menuTreeCache.getRoleTree(2L));
+    }
+
+    @Test
+    void invalidateLocal_reloadInterleaved_noStaleTree() {
+        //角色選單由緩存層提供，緩存層沒有時才讀"DB"
+        LocalOnlyCacheManager cacheManager = new LocalOnlyCacheManager(Map.of(), 60000, 100, false, null);
+        Cache cache = cacheManager.getCache(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
+        List<MenuResponse> db = List.of(new MenuResponse(menu(3, null, 1, 1)));
+        Mockito.when(rolePermissionCache.getRoleMenu(1L)).thenAnswer(invocation -> cache.get(CacheKey.ROLE_MENU.key(1), () -> db));
+        cache.put(CacheKey.ROLE_MENU.key(1), List.of(new MenuResponse(menu(1, null, 1, 1))));
+        Assertions.assertEquals(1L, menuTreeCache.getRoleTree(1L).get(0).getId());
+
+        //兩個失效處理之間插入一次重建，不論註冊順序，重建都不能存下舊選單
+        LocalCacheInvalidator reload = new LocalCacheInvalidator() {
+            @Override
+            public void invalidateLocal(String message) {
+                menuTreeCache.getRoleTree(1L);
+            }
+
+            @Override
+            public int getOrder() {
+                return 0;
+            }
+        };
+        CacheInvalidationListener listener = new CacheInvalidationListener(List.of(menuTreeCache, reload, cacheManager));
+        listener.onMessage(new DefaultMessage(CacheConstant.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("other-node " + CacheKey.ROLE_MENU.of(1)).getBytes(StandardCharsets.UTF_8)), null);
+        Assertions.assertEquals(3L, menuTreeCache.getRoleTree(1L).get(0).getId());
+    }
+
+    @Test
+    void getRoleTree_bounded() {
+        AtomicInteger loads = new AtomicInteger();
+        Mockito.when(rolePermissionCache.getRoleMenu(Mockito.longThat(id -> id >= 100))).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        for (long id = 100; id < 130; id++) menuTreeCache.getRoleTree(id);
+        for (long id = 100; id < 130; id++) menuTreeCache.getRoleTree(id);
+        //上限10，第二輪至少有20個要重建
+        Assertions.assertTrue(loads.get() >= 50);
+    }
+
+    @Test
+    void getMenuTree_empty_ok() {
+        Assertions.assertTrue(menuTreeCache.getMenuTree(List.of()).isEmpty());
+    }
+
+    private static MenuModel menu(long id, MenuModel parent, int level, int order) {
+        MenuModel model = new MenuModel();
+        model.setId(id);
+        model.setParent(parent);
+        model.setLevel(level);
+        model.setOrderNum(order);
+        return model;
+    }
+}
@@ -2,8 +2,6 @@ package com.erp.base.service.cache;
 
 import com.erp.base.service.ClientService;
 import com.erp.base.service.DepartmentService;
-import com.erp.base.service.ProcurementService;
-import com.erp.base.service.ProjectService;
 import com.erp.base.testConfig.redis.TestRedisConfiguration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,18 +28,12 @@ class OtherCacheTest {
     private DepartmentService departmentService;
     @MockBean
     private ClientService clientService;
-    @MockBean
-    private ProjectService projectService;
-    @MockBean
-    private ProcurementService procureService;
     @Autowired
     private OtherCache otherCache;
 
     @BeforeEach
     void setUp() {
         otherCache.setDepartmentService(departmentService);
-        otherCache.setProjectService(projectService);
-        otherCache.setProcureService(procureService);
     }
 
     @Test
@@ -55,30 +47,4 @@ class OtherCacheTest {
         Mockito.verify(departmentService, Mockito.times(1)).getSystemDepartment();
         Mockito.verifyNoMoreInteractions(departmentService);
     }
-
-    @Test
-    void getSystemProject_ok() {
-        Mockito.when(projectService.getSystemProject()).thenReturn("1");
-        String result = otherCache.getSystemProject();
-        Mockito.when(projectService.getSystemProject()).thenReturn("2");
-        String result1 = otherCache.getSystemProject();
-        Assertions.assertEquals("1", result);
-        Assertions.assertEquals("1", result1);
-        Mockito.verify(projectService, Mockito.times(1)).getSystemProject();
-        Mockito.verifyNoMoreInteractions(projectService);
-    }
-
-    @Test
-    void getSystemProcure_ok() {
-        Mockito.when(procureService.getSystemProcure()).thenReturn(new Object[]{"1", "2"});
-        Object[] result = otherCache.getSystemProcure();
-        Mockito.when(procureService.getSystemProcure()).thenReturn(new Object[]{"2", "3"});
-        Object[] result1 = otherCache.getSystemProcure();
-        Assertions.assertEquals("1", result[0]);
-        Assertions.assertEquals("2", result[1]);
-        Assertions.assertEquals("1", result1[0]);
-        Assertions.assertEquals("2", result1[1]);
-        Mockito.verify(procureService, Mockito.times(1)).getSystemProcure();
-        Mockito.verifyNoMoreInteractions(procureService);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.model.entity.PermissionModel;
+import com.erp.base.service.PermissionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+class PermissionRouteCacheTest {
+    private PermissionRouteCache permissionRouteCache;
+    private PermissionService permissionService;
+
+    @BeforeEach
+    void setUp() {
+        permissionService = Mockito.mock(PermissionService.class);
+        permissionRouteCache = new PermissionRouteCache();
+        permissionRouteCache.setPermissionService(permissionService);
+        Mockito.when(permissionService.findAll()).thenReturn(List.of(
+                permission("/client/list", true),
+                permission("/client/update", false),
+                permission("/file/**", true),
+                permission("/file/admin/**", false)
+        ));
+    }
+
+    @Test
+    void permissionStatus_ok() {
+        Assertions.assertTrue(permissionRouteCache.permissionStatus("/client/list"));
+        Assertions.assertFalse(permissionRouteCache.permissionStatus("/client/update"));
+        Assertions.assertNull(permissionRouteCache.permissionStatus("/client/unknown"));
+        Assertions.assertTrue(permissionRouteCache.permissionStatus("/file/download/1"));
+        Assertions.assertFalse(permissionRouteCache.permissionStatus("/file/admin/delete"));
+        Mockito.verify(permissionService, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void invalidateLocal_reload_ok() {
+        Assertions.assertTrue(permissionRouteCache.permissionStatus("/client/list"));
+        Mockito.when(permissionService.findAll()).thenReturn(List.of(permission("/client/list", false)));
+        permissionRouteCache.invalidateLocal(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.ROLES);
+        Assertions.assertTrue(permissionRouteCache.permissionStatus("/client/list"));
+        permissionRouteCache.invalidateLocal(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION);
+        Assertions.assertFalse(permissionRouteCache.permissionStatus("/client/list"));
+        Mockito.verify(permissionService, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void invalidateLocal_permissionsKey_reload() {
+        Assertions.assertTrue(permissionRouteCache.permissionStatus("/client/list"));
+        Mockito.when(permissionService.findAll()).thenReturn(List.of(permission("/client/list", false)));
+        permissionRouteCache.invalidateLocal(CacheConstant.ROLE_PERMISSION.NAME_ROLE_PERMISSION + CacheConstant.SPLIT_CONSTANT + CacheConstant.ROLE_PERMISSION.PERMISSIONS);
+        Assertions.assertFalse(permissionRouteCache.permissionStatus("/client/list"));
+    }
+
+    private PermissionModel permission(String url, boolean status) {
+        PermissionModel model = new PermissionModel();
+        model.setUrl(url);
+        model.setStatus(status);
+        return model;
+    }
+}
@@ -0,0 +1,44 @@
+package com.erp.base.service.cache;
+
+import com.erp.base.model.GenericSpecifications;
+import com.erp.base.model.constant.cache.CacheEntity;
+import com.erp.base.model.entity.LeaveModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class QueryCacheTest {
+    private final Specification<LeaveModel> specification = new GenericSpecifications<LeaveModel>()
+            .add("type", GenericSpecifications.EQ, 1)
+            .buildAnd();
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private QueryCache queryCache;
+
+    @BeforeEach
+    void setUp() {
+        //純本地模式不用Redis，沒有注入StringRedisTemplate
+        queryCache = new QueryCache(true, 300, "local", 100);
+        queryCache.setObjectMapper(new ObjectMapper());
+    }
+
+    @Test
+    void get_localMode_hitUntilVersionBump() {
+        AtomicInteger calls = new AtomicInteger();
+        queryCache.get(CacheEntity.LEAVE, specification, pageable, () -> List.of(calls.incrementAndGet()));
+        Object cached = queryCache.get(CacheEntity.LEAVE, specification, pageable, () -> List.of(calls.incrementAndGet()));
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals("[1]", cached.toString());
+
+        queryCache.bumpVersion(CacheEntity.LEAVE);
+        queryCache.get(CacheEntity.LEAVE, specification, pageable, () -> List.of(calls.incrementAndGet()));
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(0L, queryCache.getMetrics().get("error"));
+    }
+}
@@ -115,20 +115,6 @@ class RolePermissionCacheTest {
         Assertions.assertEquals(new RolePermissionDto(permissions.get(2)), rolePermissionDtoList.get(2));
     }
 
-    @Test
-    void permissionStatus_ok() {
-        Mockito.when(permissionService.checkPermissionIfDeny(Mockito.any())).thenReturn(true);
-        boolean status = rolePermissionCache.permissionStatus("/test");
-        Mockito.when(permissionService.checkPermissionIfDeny(Mockito.any())).thenReturn(false);
-        boolean status1 = rolePermissionCache.permissionStatus("/test");
-
-        Assertions.assertTrue(status);
-        Assertions.assertTrue(status1);
-
-        Mockito.verify(permissionService, Mockito.times(1)).checkPermissionIfDeny(Mockito.any());
-        Mockito.verifyNoMoreInteractions(permissionService);
-    }
-
     @Test
     void getDepartment_ok() {
         Mockito.when(departmentService.findById(Mockito.anyLong())).thenReturn(new DepartmentModel(1L));
@@ -1,15 +1,22 @@
 package com.erp.base.service.cache;
 
+import com.erp.base.config.redis.LocalOnlyCache;
+import com.erp.base.model.constant.cache.CacheConstant;
+import com.erp.base.service.security.TokenService;
 import com.erp.base.testConfig.redis.TestRedisConfiguration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @SpringBootTest(classes = TestRedisConfiguration.class)
 @TestPropertySource(locations = {
         "classpath:application-redis-test.properties",
@@ -21,10 +28,57 @@ import org.springframework.transaction.annotation.Transactional;
 class TokenBlackListTest {
     @Autowired
     private TokenBlackList tokenBlackList;
+    @Autowired
+    private CacheManager cacheManager;
 
     @Test
     void add_and_exists_ok() {
         tokenBlackList.add("test");
         Assertions.assertTrue(tokenBlackList.exists("test"));
+        Assertions.assertTrue(tokenBlackList.exists("Bearer test"));
+        Assertions.assertFalse(tokenBlackList.exists("test1"));
+    }
+
+    @Test
+    void rebuild_and_remoteAdd_ok() {
+        tokenBlackList.add("test2");
+        tokenBlackList.rebuild();
+        Assertions.assertTrue(tokenBlackList.exists("test2"));
+        String digest = TokenService.tokenDigest("test3");
+        Assertions.assertFalse(tokenBlackList.exists("test3"));
+        //其他節點新增的只收到通知
+        tokenBlackList.invalidateLocal(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST + CacheConstant.SPLIT_CONSTANT + digest);
+        Assertions.assertFalse(tokenBlackList.exists("test3"));
+        cacheManager.getCache(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST).put(digest, Boolean.TRUE);
+        Assertions.assertTrue(tokenBlackList.exists("test3"));
+    }
+
+    @Test
+    void rebuild_addDuringScan_kept() {
+        TokenBlackList blackList = new TokenBlackList(1000);
+        LocalOnlyCache cache = new LocalOnlyCache(CacheConstant.TOKEN_BLACK_LIST.TOKEN_BLACK_LIST, 100, 60000, null) {
+            @Override
+            public List<Object> keys() {
+                List<Object> keys = super.keys();
+                //掃描途中其他請求加入黑名單
+                Thread thread = new Thread(() -> blackList.add("late" + keys.size()));
+                thread.start();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return keys;
+            }
+        };
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(cache));
+        manager.afterPropertiesSet();
+        blackList.setCacheManager(manager);
+        blackList.rebuild();
+        Assertions.assertTrue(blackList.exists("late0"));
+        blackList.rebuild();
+        Assertions.assertTrue(blackList.exists("late0"));
+        Assertions.assertTrue(blackList.exists("late1"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package com.erp.base.service.export;
+
+import com.erp.base.exception.TooManyRequestsException;
+import com.erp.base.model.dto.response.ProcurementResponse;
+import com.erp.base.model.entity.ClientModel;
+import com.erp.base.model.entity.ProcurementModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+    private static final List<ExportColumn<ProcurementResponse>> COLUMNS = List.of(
+            new ExportColumn<>("ID", ProcurementResponse::getId),
+            new ExportColumn<>("名稱", ProcurementResponse::getName),
+            new ExportColumn<>("總價", ProcurementResponse::getTotal),
+            new ExportColumn<>("建立者", r -> r.getCreateBy().getUsername())
+    );
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private CriteriaBuilder criteriaBuilder;
+    @Mock
+    private CriteriaQuery<ProcurementModel> criteriaQuery;
+    @Mock
+    private Root<ProcurementModel> root;
+    @Mock
+    private Fetch<Object, Object> createBy;
+    @Mock
+    private Fetch<Object, Object> department;
+    @Mock
+    private Fetch<Object, Object> defaultRole;
+    @Mock
+    private TypedQuery<ProcurementModel> typedQuery;
+    @Mock
+    private HttpServletResponse response;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(1);
+        ReflectionTestUtils.setField(exportService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 1000);
+    }
+
+    @Test
+    @DisplayName("匯出採購_fetch關聯並寫出")
+    void export_procurement_ok() throws Exception {
+        mockQuery();
+        ClientModel client = new ClientModel(1L);
+        client.setUsername("test");
+        ProcurementModel model = new ProcurementModel();
+        model.setId(1L);
+        model.setName("筆電");
+        model.setPrice(new BigDecimal("100"));
+        model.setCount(2);
+        model.setCreateBy(client);
+        Mockito.when(typedQuery.getResultStream()).thenReturn(Stream.of(model));
+        ByteArrayOutputStream out = mockOutput();
+
+        exportService.export(response, ExportFormat.CSV, "procurement", ProcurementModel.class, null, null, ProcurementResponse.class, COLUMNS);
+
+        Assertions.assertEquals("\uFEFFID,名稱,總價,建立者\r\n1,筆電,200,test\r\n", out.toString(StandardCharsets.UTF_8));
+        Mockito.verify(root).fetch("createBy", JoinType.LEFT);
+        Mockito.verify(createBy).fetch("department", JoinType.LEFT);
+        Mockito.verify(department).fetch("defaultRole", JoinType.LEFT);
+        Mockito.verifyNoInteractions(defaultRole);
+    }
+
+    @Test
+    @DisplayName("匯出_超過同時上限_拒絕")
+    void export_tooMany_error() throws Exception {
+        mockQuery();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(typedQuery.getResultStream()).thenAnswer(invocation -> {
+            started.countDown();
+            Assertions.assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Stream.empty();
+        });
+        mockOutput();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> {
+                exportService.export(response, ExportFormat.CSV, "procurement", ProcurementModel.class, null, null, ProcurementResponse.class, COLUMNS);
+                return null;
+            });
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assertions.assertThrows(TooManyRequestsException.class, () ->
+                    exportService.export(response, ExportFormat.CSV, "procurement", ProcurementModel.class, null, null, ProcurementResponse.class, COLUMNS));
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        //前一個結束後釋放名額
+        Mockito.when(typedQuery.getResultStream()).thenReturn(Stream.empty());
+        Assertions.assertDoesNotThrow(() ->
+                exportService.export(response, ExportFormat.CSV, "procurement", ProcurementModel.class, null, null, ProcurementResponse.class, COLUMNS));
+    }
+
+    private void mockQuery() {
+        Mockito.when(entityManager.getCriteriaBuilder()).thenReturn(criteriaBuilder);
+        Mockito.when(criteriaBuilder.createQuery(ProcurementModel.class)).thenReturn(criteriaQuery);
+        Mockito.when(criteriaQuery.from(ProcurementModel.class)).thenReturn(root);
+        Mockito.doReturn(createBy).when(root).fetch("createBy", JoinType.LEFT);
+        Mockito.doReturn(department).when(createBy).fetch("department", JoinType.LEFT);
+        Mockito.doReturn(defaultRole).when(department).fetch("defaultRole", JoinType.LEFT);
+        Mockito.when(entityManager.createQuery(criteriaQuery)).thenReturn(typedQuery);
+        Mockito.when(typedQuery.setHint(Mockito.anyString(), Mockito.any())).thenReturn(typedQuery);
+    }
+
+    private ByteArrayOutputStream mockOutput() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+        });
+        return out;
+    }
+}
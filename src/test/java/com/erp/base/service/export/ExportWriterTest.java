@@ -0,0 +1,63 @@
+package com.erp.base.service.export;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+class ExportWriterTest {
+
+    @Test
+    void csv_escape_ok() {
+        Assertions.assertEquals("", CsvExportWriter.escape(null));
+        Assertions.assertEquals("abc", CsvExportWriter.escape("abc"));
+        Assertions.assertEquals("\"a,b\"", CsvExportWriter.escape("a,b"));
+        Assertions.assertEquals("\"a\"\"b\"", CsvExportWriter.escape("a\"b"));
+        Assertions.assertEquals("\"a\nb\"", CsvExportWriter.escape("a\nb"));
+        Assertions.assertEquals("'=SUM(A1)", CsvExportWriter.escape("=SUM(A1)"));
+        Assertions.assertEquals("\"'@a,b\"", CsvExportWriter.escape("@a,b"));
+        Assertions.assertEquals("-1", CsvExportWriter.escape(-1));
+        Assertions.assertEquals("10000000", CsvExportWriter.escape(new BigDecimal("1E+7")));
+    }
+
+    @Test
+    void csv_write_ok() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = ExportFormat.CSV.open(out)) {
+            writer.writeRow(new Object[]{"ID", "名稱"});
+            writer.writeRow(new Object[]{1L, null});
+            writer.finish();
+        }
+        Assertions.assertEquals("\uFEFFID,名稱\r\n1,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void xlsx_write_ok() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = ExportFormat.XLSX.open(out)) {
+            writer.writeRow(new Object[]{"ID", "名稱", "成功"});
+            writer.writeRow(new Object[]{1L, "=1+1", true});
+            writer.finish();
+        }
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Assertions.assertEquals(1, sheet.getLastRowNum());
+            Assertions.assertEquals("名稱", sheet.getRow(0).getCell(1).getStringCellValue());
+            Assertions.assertEquals(1, sheet.getRow(1).getCell(0).getNumericCellValue());
+            Assertions.assertEquals("=1+1", sheet.getRow(1).getCell(1).getStringCellValue());
+            Assertions.assertTrue(sheet.getRow(1).getCell(2).getBooleanCellValue());
+        }
+    }
+
+    @Test
+    void format_of() {
+        Assertions.assertEquals(ExportFormat.CSV, ExportFormat.of(null));
+        Assertions.assertEquals(ExportFormat.XLSX, ExportFormat.of("Xlsx"));
+        Assertions.assertThrows(IllegalStateException.class, () -> ExportFormat.of("pdf"));
+    }
+}
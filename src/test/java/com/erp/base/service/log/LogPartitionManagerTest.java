@@ -0,0 +1,27 @@
+package com.erp.base.service.log;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class LogPartitionManagerTest {
+
+    @Test
+    void periodStart_ok() {
+        LocalDateTime time = LocalDateTime.of(2024, 3, 15, 10, 30, 5);
+        Assertions.assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), LogPartitionManager.periodStart(time, LogPartitionManager.Granularity.MONTH));
+        Assertions.assertEquals(LocalDateTime.of(2024, 3, 15, 0, 0), LogPartitionManager.periodStart(time, LogPartitionManager.Granularity.DAY));
+    }
+
+    @Test
+    void periods_ok() {
+        LocalDateTime from = LocalDateTime.of(2023, 11, 1, 0, 0);
+        List<LocalDateTime> months = LogPartitionManager.periods(from, LocalDateTime.of(2024, 2, 1, 0, 0), LogPartitionManager.Granularity.MONTH);
+        Assertions.assertEquals(List.of(from, from.plusMonths(1), from.plusMonths(2), from.plusMonths(3)), months);
+        List<LocalDateTime> days = LogPartitionManager.periods(from, from.plusDays(2), LogPartitionManager.Granularity.DAY);
+        Assertions.assertEquals(3, days.size());
+        Assertions.assertTrue(LogPartitionManager.periods(from, from.minusDays(1), LogPartitionManager.Granularity.DAY).isEmpty());
+    }
+}
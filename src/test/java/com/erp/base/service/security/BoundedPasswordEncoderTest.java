@@ -0,0 +1,81 @@
+package com.erp.base.service.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class BoundedPasswordEncoderTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) encoder.shutdown();
+    }
+
+    @Test
+    void matches_delegate_ok() {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(null), 1, 1, 1000);
+        Assertions.assertTrue(encoder.matches("test", "test"));
+        Assertions.assertFalse(encoder.matches("test", "other"));
+        Assertions.assertEquals("test", encoder.encode("test"));
+    }
+
+    @Test
+    void matches_queueFull_rejected() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(started), 1, 1, 5000);
+        //一個執行中、一個排隊，第三個直接拒絕
+        Thread running = new Thread(() -> encoder.matches("a", "a"));
+        Thread queued = new Thread(() -> encoder.matches("b", "b"));
+        running.start();
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+        queued.start();
+        while (!Integer.valueOf(1).equals(encoder.getMetrics().get("queueDepth"))) Thread.sleep(1);
+        Assertions.assertThrows(RejectedExecutionException.class, () -> encoder.matches("c", "c"));
+        Map<String, Object> metrics = encoder.getMetrics();
+        Assertions.assertEquals(1L, metrics.get("rejected"));
+    }
+
+    @Test
+    void matches_timeout_rejected() {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(new CountDownLatch(1)), 1, 1, 10);
+        Assertions.assertThrows(RejectedExecutionException.class, () -> encoder.matches("a", "a"));
+    }
+
+    /**
+     * 不加密的encoder，有傳started時會卡住直到測試結束
+     */
+    private class PlainEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+
+        PlainEncoder(CountDownLatch started) {
+            this.started = started;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (started != null) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.erp.base.model.dto.request.client.LoginRequest;
 import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.entity.ClientModel;
 import com.erp.base.service.CacheService;
-import com.erp.base.service.ClientService;
+import com.erp.base.service.security.keyring.InMemorySigningKeyStore;
+import com.erp.base.service.security.keyring.KeyRing;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,8 +27,6 @@ class TokenServiceTest {
     @Mock
     private CacheService cacheService;
     @Mock
-    private ClientService clientService;
-    @Mock
     private AuthenticationProvider authenticationProvider;
     @InjectMocks
     private TokenService tokenService;
@@ -43,7 +43,7 @@ class TokenServiceTest {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setUsername("test");
         loginRequest.setPassword("test");
-        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.createToken(loginRequest));
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(loginRequest));
     }
 
     @Test
@@ -54,8 +54,8 @@ class TokenServiceTest {
         loginRequest.setRememberMe(false);
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(new UserDetailImpl(new ClientIdentityDto(new ClientModel(1)), cacheService), null);
         Mockito.when(authenticationProvider.authenticate(Mockito.any())).thenReturn(authentication);
-        Mockito.when(clientService.findByUsername(Mockito.any())).thenReturn(new ClientModel(1));
-        HttpHeaders header = tokenService.createToken(loginRequest);
+        UserDetailImpl userDetail = tokenService.authenticate(loginRequest);
+        HttpHeaders header = tokenService.createToken(userDetail.getClientModel().getId(), loginRequest.getRememberMe());
         Assertions.assertNotNull(header.get(HttpHeaders.AUTHORIZATION));
         Assertions.assertNull(header.get(TokenService.REFRESH_TOKEN));
     }
@@ -68,8 +68,8 @@ class TokenServiceTest {
         loginRequest.setRememberMe(true);
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(new UserDetailImpl(new ClientIdentityDto(new ClientModel(1)), cacheService), null);
         Mockito.when(authenticationProvider.authenticate(Mockito.any())).thenReturn(authentication);
-        Mockito.when(clientService.findByUsername(Mockito.any())).thenReturn(new ClientModel(1));
-        HttpHeaders header = tokenService.createToken(loginRequest);
+        UserDetailImpl userDetail = tokenService.authenticate(loginRequest);
+        HttpHeaders header = tokenService.createToken(userDetail.getClientModel().getId(), loginRequest.getRememberMe());
         Assertions.assertNotNull(header.get(HttpHeaders.AUTHORIZATION));
         Assertions.assertNotNull(header.get(TokenService.REFRESH_TOKEN));
     }
@@ -81,4 +81,42 @@ class TokenServiceTest {
         String uid = String.valueOf(map.get(TokenService.TOKEN_PROPERTIES_UID));
         Assertions.assertEquals(DEFAULT_UID, Long.parseLong(uid));
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseToken_sharedKeyRing_ok() {
+        KeyRing keyRing = new KeyRing(new InMemorySigningKeyStore(), null, 60000, 60000);
+        tokenService.setKeyRing(keyRing);
+        tokenService.init();
+        String token = tokenService.createToken(TokenService.ACCESS_TOKEN, DEFAULT_UID, TokenService.ACCESS_TOKEN_EXPIRE_TIME);
+        //另一個節點(或重啟後)用同一個金鑰環驗證
+        TokenService other = new TokenService();
+        other.setKeyRing(keyRing);
+        other.init();
+        Map<String, Object> map = other.parseToken(token);
+        Assertions.assertEquals(DEFAULT_UID, Long.parseLong(String.valueOf(map.get(TokenService.TOKEN_PROPERTIES_UID))));
+        //沒註冊的金鑰環簽的token驗證失敗
+        TokenService unknown = new TokenService();
+        unknown.init();
+        Assertions.assertThrows(SignatureException.class, () -> unknown.parseToken(token));
+    }
+
+    @Test
+    void parseToken_verifiedCache_ok() {
+        String token = tokenService.createToken(TokenService.ACCESS_TOKEN, DEFAULT_UID, TokenService.ACCESS_TOKEN_EXPIRE_TIME);
+        tokenService.parseToken(token);
+        Map<String, Object> map = tokenService.parseToken(token);
+        Assertions.assertEquals(DEFAULT_UID, Long.parseLong(String.valueOf(map.get(TokenService.TOKEN_PROPERTIES_UID))));
+        Assertions.assertEquals(1L, tokenService.getVerifiedTokenStats().get("hit"));
+        Assertions.assertEquals(1L, tokenService.getVerifiedTokenStats().get("miss"));
+    }
+
+    @Test
+    void parseToken_evictVerifiedToken_ok() {
+        String token = tokenService.createToken(TokenService.ACCESS_TOKEN, DEFAULT_UID, TokenService.ACCESS_TOKEN_EXPIRE_TIME);
+        tokenService.parseToken(token);
+        tokenService.evictVerifiedToken(TokenService.TOKEN_PREFIX + token);
+        tokenService.parseToken(token);
+        Assertions.assertEquals(0L, tokenService.getVerifiedTokenStats().get("hit"));
+        Assertions.assertEquals(2L, tokenService.getVerifiedTokenStats().get("miss"));
+    }
+}
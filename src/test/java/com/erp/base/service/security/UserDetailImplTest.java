@@ -1,5 +1,6 @@
 package com.erp.base.service.security;
 
+import com.erp.base.model.dto.security.AuthoritySnapshot;
 import com.erp.base.model.dto.security.ClientIdentityDto;
 import com.erp.base.model.dto.security.RolePermissionDto;
 import com.erp.base.model.entity.ClientModel;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 class UserDetailImplTest {
@@ -62,9 +64,10 @@ class UserDetailImplTest {
     void getAuthorities_ok() {
         Set<RolePermissionDto> set = new HashSet<>();
         set.add(new RolePermissionDto(new PermissionModel(1)));
-        Mockito.when(cacheService.getClient(Mockito.any())).thenReturn(new ClientIdentityDto(clientModel));
-        Mockito.when(cacheService.getRolePermission(Mockito.anyLong())).thenReturn(set);
-        Assertions.assertEquals(userDetail.getAuthorities(), set);
+        AuthoritySnapshot snapshot = AuthoritySnapshot.of(0, List.of(1L), List.of(set));
+        Mockito.when(cacheService.getAuthority(Mockito.any())).thenReturn(snapshot);
+        Assertions.assertEquals(new HashSet<>(userDetail.getAuthorities()), set);
+        Assertions.assertSame(userDetail.getAuthorities(), userDetail.getAuthorities());
     }
 
     @Test
@@ -0,0 +1,100 @@
+package com.erp.base.service.security.keyring;
+
+import com.erp.base.model.entity.SigningKeyModel;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+class KeyRingTest {
+
+    @Test
+    void init_sharedStore_sameKey() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        KeyRing keyRing = new KeyRing(store, encryptor(), 60000, 60000);
+        keyRing.init();
+        KeyRing.SigningKey signingKey = keyRing.getSigningKey();
+        //模擬另一個節點或重啟後
+        KeyRing other = new KeyRing(store, encryptor(), 60000, 60000);
+        other.init();
+        Assertions.assertEquals(signingKey.kid(), other.getSigningKey().kid());
+        Assertions.assertEquals(signingKey.publicKey(), other.getPublicKey(signingKey.kid()));
+        Assertions.assertNotEquals(store.loadAll().get(0).getPrivateKey(), java.util.Base64.getEncoder().encodeToString(signingKey.privateKey().getEncoded()));
+    }
+
+    @Test
+    void rotateIfNeeded_rotateAndPurge_ok() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        KeyRing keyRing = new KeyRing(store, null, 60000, 60000);
+        keyRing.init();
+        String oldKid = keyRing.getSigningKey().kid();
+        keyRing.rotateIfNeeded();
+        Assertions.assertEquals(oldKid, keyRing.getSigningKey().kid());
+
+        //超過輪替時間，舊金鑰保留驗證用
+        SigningKeyModel old = store.loadAll().get(0);
+        old.setCreateTime(System.currentTimeMillis() - 70000);
+        keyRing.rotateIfNeeded();
+        Assertions.assertNotEquals(oldKid, keyRing.getSigningKey().kid());
+        Assertions.assertNotNull(keyRing.getPublicKey(oldKid));
+
+        //超過保留時間刪除
+        old.setCreateTime(System.currentTimeMillis() - 130000);
+        keyRing.rotateIfNeeded();
+        Assertions.assertEquals(1, store.loadAll().size());
+        Assertions.assertNull(keyRing.getPublicKey(oldKid));
+    }
+
+    @Test
+    void rotateIfNeeded_concurrent_singleNewKey() throws Exception {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        KeyRing keyRing = new KeyRing(store, null, 60000, 60000);
+        keyRing.init();
+        String oldKid = keyRing.getSigningKey().kid();
+        store.loadAll().get(0).setCreateTime(System.currentTimeMillis() - 70000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    keyRing.rotateIfNeeded();
+                    return keyRing.getSigningKey().kid();
+                }));
+            }
+            start.countDown();
+            String newKid = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<String> future : futures) Assertions.assertEquals(newKid, future.get(5, TimeUnit.SECONDS));
+            Assertions.assertNotEquals(oldKid, newKid);
+        } finally {
+            executor.shutdownNow();
+        }
+        //只輪替一次，舊金鑰還在保留期
+        Assertions.assertEquals(2, store.loadAll().size());
+        Assertions.assertNotNull(keyRing.getPublicKey(oldKid));
+    }
+
+    @Test
+    void fileStore_ok(@TempDir Path dir) {
+        FileSigningKeyStore store = new FileSigningKeyStore(dir.resolve("keyring.properties"));
+        KeyRing keyRing = new KeyRing(store, encryptor(), 60000, 60000);
+        keyRing.init();
+        List<SigningKeyModel> keys = new FileSigningKeyStore(dir.resolve("keyring.properties")).loadAll();
+        Assertions.assertEquals(1, keys.size());
+        Assertions.assertEquals(keyRing.getSigningKey().kid(), keys.get(0).getKid());
+        store.delete(keys.get(0).getKid());
+        Assertions.assertTrue(store.loadAll().isEmpty());
+    }
+
+    private StandardPBEStringEncryptor encryptor() {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword("test");
+        return encryptor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.erp.base.testConfig;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+/**
+ * 從JUnit啟動JMH，比較新舊寫法用，只輸出結果不做時間斷言(結果受機器和負載影響)
+ * 以-Dbenchmark=true啟用，例如: mvn test -Dbenchmark=true -Djacoco.skip=true -Dtest=DtoMapperBenchmarkTest
+ * 暖機、量測輪數和fork數寫在各benchmark類別的註解上
+ */
+public final class JmhBenchmark {
+    public static final String ENABLED_PROPERTY = "benchmark";
+
+    private JmhBenchmark() {
+    }
+
+    public static Collection<RunResult> run(Class<?> benchmark) throws RunnerException {
+        return new Runner(new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .shouldFailOnError(true)
+                .build()).run();
+    }
+}
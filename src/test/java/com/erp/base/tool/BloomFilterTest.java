@@ -0,0 +1,24 @@
+package com.erp.base.tool;
+
+import com.erp.base.service.security.TokenService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void put_mightContain_ok() {
+        BloomFilter filter = new BloomFilter(1000, 0.001);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TokenService.tokenHash("token" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(filter.mightContain(TokenService.tokenHash("token" + i)));
+        }
+        int falsePositive = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(TokenService.tokenHash("other" + i))) falsePositive++;
+        }
+        Assertions.assertTrue(falsePositive < 50);
+    }
+}
@@ -0,0 +1,73 @@
+package com.erp.base.tool;
+
+import com.erp.base.model.dto.response.LogResponse;
+import com.erp.base.model.entity.LogModel;
+import com.erp.base.testConfig.JmhBenchmark;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一頁entity轉DTO，每筆反射找建構子再newInstance(舊PageResponse.convertTo)，和DtoMapper(新)的成本
+ * mvn test -Dbenchmark=true -Djacoco.skip=true -Dtest=DtoMapperBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = JmhBenchmark.ENABLED_PROPERTY, matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMapperBenchmarkTest {
+    private static final int PAGE_SIZE = 1000;
+    private List<LogModel> page;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            LogModel model = new LogModel();
+            model.setId(i);
+            model.setUrl("/log/list");
+            page.add(model);
+        }
+    }
+
+    @Benchmark
+    public List<LogResponse> reflection() {
+        return page.stream().map(DtoMapperBenchmarkTest::reflect).toList();
+    }
+
+    @Benchmark
+    public List<LogResponse> dtoMapper() {
+        return page.stream().map(obj -> DtoMapper.map(obj, LogResponse.class)).toList();
+    }
+
+    @Test
+    void mapPage_beforeAfter() throws Exception {
+        Assertions.assertEquals(2, JmhBenchmark.run(DtoMapperBenchmarkTest.class).size());
+    }
+
+    private static LogResponse reflect(Object obj) {
+        try {
+            return LogResponse.class.getDeclaredConstructor(obj.getClass()).newInstance(obj);
+        } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
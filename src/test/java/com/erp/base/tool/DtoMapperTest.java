@@ -0,0 +1,35 @@
+package com.erp.base.tool;
+
+import com.erp.base.model.dto.response.LogResponse;
+import com.erp.base.model.entity.LogModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DtoMapperTest {
+    //模擬Hibernate代理類別
+    static class LogModelProxy extends LogModel {
+    }
+
+    @Test
+    void map_subclass_ok() {
+        LogModel model = new LogModelProxy();
+        model.setId(7);
+        model.setUrl("/log/list");
+        LogResponse response = DtoMapper.map(model, LogResponse.class);
+        Assertions.assertEquals(7L, response.getId());
+        Assertions.assertEquals("/log/list", response.getUrl());
+        Assertions.assertSame(DtoMapper.mapper(LogModelProxy.class, LogResponse.class), DtoMapper.mapper(LogModelProxy.class, LogResponse.class));
+    }
+
+    @Test
+    void map_sameType_returnSource() {
+        LogModel model = new LogModel();
+        Assertions.assertSame(model, DtoMapper.map(model, LogModel.class));
+        Assertions.assertNull(DtoMapper.map(null, LogResponse.class));
+    }
+
+    @Test
+    void map_noConstructor_error() {
+        Assertions.assertThrows(RuntimeException.class, () -> DtoMapper.map("text", LogResponse.class));
+    }
+}
@@ -0,0 +1,58 @@
+package com.erp.base.tool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LocalCacheTest {
+
+    @Test
+    void put_get_ok() {
+        LocalCache<String, String> cache = new LocalCache<>(10, 60_000);
+        cache.put("key", "value");
+        Assertions.assertEquals("value", cache.get("key"));
+        cache.remove("key");
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    @Test
+    void expired_returnNull() throws InterruptedException {
+        LocalCache<String, String> cache = new LocalCache<>(10, 10);
+        cache.put("key", "value");
+        Thread.sleep(20);
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    @Test
+    void overMaxSize_evict() {
+        LocalCache<Integer, Integer> cache = new LocalCache<>(5, 60_000);
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i);
+        }
+        Assertions.assertTrue(cache.size() <= 5);
+        Assertions.assertEquals(19, cache.get(19));
+    }
+
+    @Test
+    void full_expiredRemovedFirst() throws InterruptedException {
+        LocalCache<Integer, Integer> cache = new LocalCache<>(4, 60_000);
+        for (int i = 0; i < 4; i++) cache.put(i, i, 10);
+        Thread.sleep(20);
+        cache.put(10, 10);
+        cache.put(11, 11);
+        Assertions.assertEquals(10, cache.get(10));
+        Assertions.assertEquals(11, cache.get(11));
+        Assertions.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    void full_sampleRotates() {
+        LocalCache<Integer, Integer> cache = new LocalCache<>(64, 60_000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        Assertions.assertTrue(cache.size() <= 64);
+        Assertions.assertEquals(1000 - cache.size(), cache.getEvictionCount());
+        //最新寫入的一定還在
+        Assertions.assertEquals(999, cache.get(999));
+    }
+}
@@ -76,7 +76,17 @@ FROM (VALUES ('*', '用戶:測試接口', '/client/opValid', 'true'),
              ('QUARTZ_DELETE', '排程:刪除排程', '/quartzJob/delete', 'true'),
              ('QUARTZ_EXEC', '排程:執行一次排程任務', '/quartzJob/exec', 'true'),
              ('LOG_LIST', '日誌:清單', '/log/list', 'true'),
-             ('NOTIFICATION_STATUS', '通知:更改狀態', '/notification/status', 'true')
+             ('NOTIFICATION_STATUS', '通知:更改狀態', '/notification/status', 'true'),
+             ('CLIENT_LOGINMETRICS', '用戶:登入統計', '/client/loginMetrics', 'true'),
+             ('CACHE_METRICS', '緩存:統計', '/cache/metrics', 'true'),
+             ('LOG_METRICS', '日誌:寫入統計', '/log/metrics', 'true'),
+             ('LOG_ROLLUP', '日誌:統計', '/log/rollup', 'true'),
+             ('LOG_EXPORT', '日誌:匯出', '/log/export', 'true'),
+             ('ATTEND_EXPORT', '打卡:出缺勤匯出', '/attend/export', 'true'),
+             ('LEAVE_EXPORT', '休假:匯出', '/leave/export', 'true'),
+             ('PERFORMANCE_EXPORT', '績效:匯出', '/performance/export', 'true'),
+             ('SALARY_EXPORT', '薪資:匯出', '/salary/export', 'true'),
+             ('PROCUREMENT_EXPORT', '採購:匯出', '/procurement/export', 'true')
              ) AS source (authority, info, url, status)
 WHERE NOT EXISTS(SELECT 1 FROM permission WHERE source.url = permission.url);
 